@@ -0,0 +1,48 @@
+package SCRUM3.Bj_Byte.config;
+
+import SCRUM3.Bj_Byte.model.GeneradorIdsPorBloques;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+
+/**
+ * Pools de conexiones de la aplicación.
+ *
+ * El principal se configura con spring.datasource.hikari.* como hasta ahora. El
+ * segundo, {@value #GENERADOR_IDS}, lo usa solo {@link GeneradorIdsPorBloques}
+ * para reservar bloques de IDs (generador-ids.datasource.hikari.*): un checkout
+ * nunca espera por otra conexión del pool principal que él mismo y los demás
+ * checkouts ocupan.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    public static final String GENERADOR_IDS = "generadorIdsDataSource";
+
+    // Al declarar un segundo DataSource, Spring Boot deja de crear el principal
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean(GENERADOR_IDS)
+    @ConfigurationProperties("generador-ids.datasource.hikari")
+    public HikariDataSource generadorIdsDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    // Hibernate pasa la propiedad al generador al configurarlo, antes de generar ningún ID
+    @Bean
+    public HibernatePropertiesCustomizer conexionesGeneradorIds(@Qualifier(GENERADOR_IDS) DataSource conexiones) {
+        return propiedades -> propiedades.put(GeneradorIdsPorBloques.CONEXIONES, conexiones);
+    }
+}
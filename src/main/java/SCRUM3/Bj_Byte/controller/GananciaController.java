@@ -1,7 +1,6 @@
 package SCRUM3.Bj_Byte.controller;
 
 import SCRUM3.Bj_Byte.model.Empleado;
-import SCRUM3.Bj_Byte.model.VentaDetalle;
 import SCRUM3.Bj_Byte.repository.VentaDetalleRepository;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,7 +14,6 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 
 @Controller
 @RequestMapping("/ganancias")
@@ -100,42 +98,11 @@ public class GananciaController {
     /**
      * Lógica para calcular la ganancia.
      * Si 'inicio' o 'fin' son null, calcula la ganancia histórica total.
+     * Se resuelve en la base de datos con una sola suma sobre venta_detalle,
+     * usando el costo guardado en cada línea al momento de la venta.
      */
     private BigDecimal calcularGanancia(LocalDateTime inicio, LocalDateTime fin) {
-        List<VentaDetalle> detalles;
-        
-        if (inicio != null && fin != null) {
-            // Encuentra los detalles de venta en el rango de fechas
-            // NECESITAS UNA QUERY EN VentaDetalleRepository para filtrar por fecha
-            // Si tu VentaDetalle no tiene campo de fecha, tienes que hacer un Join 
-            // con la tabla Venta, que SÍ tiene la fecha de creación (Venta.fechaCreacion)
-            
-            // Supondremos que has añadido un método:
-            // List<VentaDetalle> findDetallesByVentaFechaCreacionBetween(LocalDateTime start, LocalDateTime end);
-            detalles = ventaDetalleRepository.findDetallesInDateRange(inicio, fin);
-        } else {
-            // Ganancia histórica total
-            detalles = ventaDetalleRepository.findAll();
-        }
-
-        BigDecimal gananciaTotal = BigDecimal.ZERO;
-
-        for (VentaDetalle detalle : detalles) {
-            try {
-                BigDecimal precioVenta = detalle.getPrecioUnitario(); 
-                BigDecimal precioBase = detalle.getInventario().getProducto().getPrecioBase();
-                int cantidad = detalle.getCantidad();
-                
-                BigDecimal gananciaUnidad = precioVenta.subtract(precioBase);
-                BigDecimal gananciaLinea = gananciaUnidad.multiply(new BigDecimal(cantidad));
-                
-                gananciaTotal = gananciaTotal.add(gananciaLinea);
-                
-            } catch (Exception e) {
-                System.err.println("Error calculando ganancia para detalle ID: " + detalle.getId() + ". Detalles omitido.");
-            }
-        }
-        
-        return gananciaTotal;
+        BigDecimal ganancia = ventaDetalleRepository.calcularGanancia(inicio, fin);
+        return ganancia != null ? ganancia : BigDecimal.ZERO;
     }
-}
\ No newline at end of file
+}
@@ -1,16 +1,30 @@
 package SCRUM3.Bj_Byte.controller;
 
+import SCRUM3.Bj_Byte.model.Empleado;
+import SCRUM3.Bj_Byte.service.GraficoService;
+import SCRUM3.Bj_Byte.service.InformeCacheService;
 import SCRUM3.Bj_Byte.service.InformeFinancieroService;
+import SCRUM3.Bj_Byte.service.InformeJobService;
+import SCRUM3.Bj_Byte.service.InformePrecalculadoService;
 import SCRUM3.Bj_Byte.service.dto.GenerarInformeFinancieroRequest;
 import SCRUM3.Bj_Byte.service.exception.InformeFinancieroException;
+import SCRUM3.Bj_Byte.service.informe.TrabajoInforme;
 import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
 /**
  * Controlador REST para gestionar la generación de informes financieros.
  *
@@ -30,6 +44,11 @@ import org.springframework.web.bind.annotation.*;
  *   "tipo": "PDF",
  *   "metadatos": { "incluirGraficos": true }
  * }
+ *
+ * Para informes pesados, POST /api/informes/jobs con el mismo cuerpo devuelve un id;
+ * el estado se consulta en GET /api/informes/jobs/{id} y el PDF se descarga en
+ * GET /api/informes/jobs/{id}/descarga cuando está COMPLETADO. Los trabajos
+ * requieren sesión y solo los ve el empleado que los envió.
  */
 @RestController
 @RequestMapping("/api/informes")
@@ -37,10 +56,22 @@ public class InformeFinancieroController {
 
     private static final Logger logger = LoggerFactory.getLogger(InformeFinancieroController.class);
     private final InformeFinancieroService informeService;
+    private final InformeCacheService informeCache;
+    private final InformeJobService informeJobs;
+    private final InformePrecalculadoService informesPrecalculados;
+    private final GraficoService graficos;
 
     @Autowired
-    public InformeFinancieroController(InformeFinancieroService informeService) {
+    public InformeFinancieroController(InformeFinancieroService informeService,
+                                       InformeCacheService informeCache,
+                                       InformeJobService informeJobs,
+                                       InformePrecalculadoService informesPrecalculados,
+                                       GraficoService graficos) {
         this.informeService = informeService;
+        this.informeCache = informeCache;
+        this.informeJobs = informeJobs;
+        this.informesPrecalculados = informesPrecalculados;
+        this.graficos = graficos;
     }
 
     /**
@@ -124,6 +155,48 @@ public class InformeFinancieroController {
         }
     }
 
+    /**
+     * Estadísticas de la caché de informes (aciertos, fallos, expulsiones y ocupación).
+     *
+     * @return Estadísticas de la caché
+     */
+    @GetMapping("/financiero/cache")
+    public ResponseEntity<?> estadisticasCache() {
+        return ResponseEntity.ok(informeCache.estadisticas());
+    }
+
+    /**
+     * Cuántos gráficos de los reportes se dibujaron y el tiempo total de dibujo.
+     *
+     * @return Estadísticas de dibujo de gráficos
+     */
+    @GetMapping("/graficos/estadisticas")
+    public ResponseEntity<?> estadisticasGraficos() {
+        return ResponseEntity.ok(graficos.estadisticas());
+    }
+
+    /**
+     * Informes de periodos cerrados precalculados en disco, con sus metadatos
+     * (tipo, filtros, periodo, tamaño y fecha de generación). Un empleado que no
+     * es administrador solo ve los generales y los suyos.
+     *
+     * @param session Sesión del empleado
+     * @return Lista de informes disponibles; 401 sin sesión
+     */
+    @GetMapping("/precalculados")
+    public ResponseEntity<?> informesPrecalculados(HttpSession session) {
+        Empleado empleado = (Empleado) session.getAttribute("empleadoLogueado");
+        if (empleado == null) {
+            return sinSesion();
+        }
+        List<Map<String, Object>> informes = informesPrecalculados.listar();
+        if (!Objects.equals(empleado.getRolId(), 1)) {
+            String propio = String.valueOf(empleado.getId());
+            informes.removeIf(m -> m.containsKey("empleado") && !propio.equals(m.get("empleado")));
+        }
+        return ResponseEntity.ok(informes);
+    }
+
     /**
      * Endpoint alternativo: POST para solicitudes complejas.
      *
@@ -171,4 +244,100 @@ public class InformeFinancieroController {
             }
         }
     }
+
+    /**
+     * Encola la generación del informe en segundo plano.
+     *
+     * @param request DTO con parámetros de solicitud
+     * @param session Sesión del empleado que lo envía
+     * @return 202 con el id del trabajo, 401 sin sesión, o 503 si la cola está llena
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<?> enviarTrabajo(@RequestBody GenerarInformeFinancieroRequest request,
+                                           HttpSession session) {
+        Empleado empleado = (Empleado) session.getAttribute("empleadoLogueado");
+        if (empleado == null) {
+            return sinSesion();
+        }
+        if (!request.esValido()) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "La solicitud no cumple requisitos mínimos"));
+        }
+        try {
+            TrabajoInforme trabajo = informeJobs.enviar(request, empleado.getId());
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("id", trabajo.getId());
+            body.put("estado", trabajo.getEstado().name());
+            body.put("estadoUrl", "/api/informes/jobs/" + trabajo.getId());
+            body.put("descargaUrl", "/api/informes/jobs/" + trabajo.getId() + "/descarga");
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header(HttpHeaders.LOCATION, "/api/informes/jobs/" + trabajo.getId())
+                    .body(body);
+        } catch (InformeFinancieroException e) {
+            logger.warn("Trabajo de informe rechazado: {}", e.getCodigo());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Estado de un trabajo: EN_COLA (con su posición), EN_PROCESO, COMPLETADO o FALLIDO.
+     *
+     * @param id Id devuelto al encolar
+     * @param session Sesión del empleado que lo envió
+     * @return Estado del trabajo; 401 sin sesión, 404 si no existe, ya caducó o es de otro empleado
+     */
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<?> estadoTrabajo(@PathVariable String id, HttpSession session) {
+        Empleado empleado = (Empleado) session.getAttribute("empleadoLogueado");
+        if (empleado == null) {
+            return sinSesion();
+        }
+        return informeJobs.estado(id, empleado.getId())
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(this::trabajoNoEncontrado);
+    }
+
+    /**
+     * Descarga el PDF de un trabajo terminado.
+     *
+     * @param id Id devuelto al encolar
+     * @param session Sesión del empleado que lo envió
+     * @return El PDF; 409 si aún no está listo o falló; 401 sin sesión; 404 si no existe,
+     *         ya se descartó o es de otro empleado
+     */
+    @GetMapping("/jobs/{id}/descarga")
+    public ResponseEntity<?> descargarTrabajo(@PathVariable String id, HttpSession session) {
+        Empleado empleado = (Empleado) session.getAttribute("empleadoLogueado");
+        if (empleado == null) {
+            return sinSesion();
+        }
+        TrabajoInforme trabajo = informeJobs.buscar(id, empleado.getId()).orElse(null);
+        if (trabajo == null) {
+            return trabajoNoEncontrado();
+        }
+        if (trabajo.getEstado() != TrabajoInforme.Estado.COMPLETADO) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(trabajo.resumen(null));
+        }
+        byte[] pdf = informeJobs.resultado(trabajo).orElse(null);
+        if (pdf == null) {
+            return trabajoNoEncontrado();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=informe_financiero_" + trabajo.getId() + ".pdf")
+                .contentLength(pdf.length)
+                .body(pdf);
+    }
+
+    private ResponseEntity<?> sinSesion() {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Debe iniciar sesión"));
+    }
+
+    private ResponseEntity<?> trabajoNoEncontrado() {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("error", "Trabajo no encontrado o caducado"));
+    }
 }
@@ -0,0 +1,226 @@
+package SCRUM3.Bj_Byte.controller;
+
+import SCRUM3.Bj_Byte.dto.ProductoVentaDTO;
+import SCRUM3.Bj_Byte.dto.RegistrarVentaDTO;
+import SCRUM3.Bj_Byte.dto.VentaRegistradaDTO;
+import SCRUM3.Bj_Byte.model.Empleado;
+import SCRUM3.Bj_Byte.model.Venta;
+import SCRUM3.Bj_Byte.model.VentaDetalle;
+import SCRUM3.Bj_Byte.service.ExchangeRateService;
+import SCRUM3.Bj_Byte.service.FacturaVentaService;
+import SCRUM3.Bj_Byte.service.IdempotenciaService;
+import SCRUM3.Bj_Byte.service.ResumenVentasService;
+import SCRUM3.Bj_Byte.service.VentaService;
+import SCRUM3.Bj_Byte.service.dto.ResumenVentasEmpleado;
+import SCRUM3.Bj_Byte.service.exception.StockInsuficienteException;
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controlador REST para registrar ventas desde las tablets POS.
+ *
+ * Ejemplo de uso:
+ * POST /api/ventas
+ * Idempotency-Key: 6f1c2d0e-...
+ * Content-Type: application/json
+ * {
+ *   "cliente": "Cliente Final",
+ *   "metodoPago": "Efectivo",
+ *   "productos": [ { "inventarioId": 3, "cantidad": 2 } ]
+ * }
+ *
+ * Si la tablet reintenta con la misma Idempotency-Key se devuelve la venta original
+ * (cabecera Idempotent-Replayed: true) en lugar de registrar una venta duplicada.
+ */
+@RestController
+@RequestMapping("/api/ventas")
+public class VentaApiController {
+
+    private static final Logger logger = LoggerFactory.getLogger(VentaApiController.class);
+    private static final int MAX_LONGITUD_CLAVE = 100;
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private IdempotenciaService idempotenciaService;
+
+    @Autowired
+    private FacturaVentaService facturaVentaService;
+
+    @Autowired
+    private ResumenVentasService resumenVentasService;
+
+    @Autowired
+    private ExchangeRateService exchangeRateService;
+
+    /**
+     * POST /api/ventas
+     * Registra una venta y devuelve su ID y totales.
+     */
+    @PostMapping
+    public ResponseEntity<?> registrarVenta(
+            @RequestBody RegistrarVentaDTO dto,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            HttpSession session) {
+
+        Empleado empleado = (Empleado) session.getAttribute("empleadoLogueado");
+        if (empleado == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Debe iniciar sesión"));
+        }
+
+        if (dto.getProductos() == null || dto.getProductos().isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "La venta no tiene productos"));
+        }
+        if (dto.getMetodoPago() == null || dto.getMetodoPago().isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "El método de pago es obligatorio"));
+        }
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_LONGITUD_CLAVE)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Idempotency-Key inválida"));
+        }
+
+        try {
+            if (idempotencyKey == null) {
+                return ResponseEntity.status(HttpStatus.CREATED).body(registrar(dto, empleado));
+            }
+
+            // La clave se acota al empleado para que dos tablets no colisionen
+            String clave = empleado.getId() + ":" + idempotencyKey;
+            IdempotenciaService.Resultado<VentaRegistradaDTO> resultado =
+                    idempotenciaService.ejecutar(clave, huella(dto), () -> registrar(dto, empleado));
+
+            return ResponseEntity.status(resultado.isRepetido() ? HttpStatus.OK : HttpStatus.CREATED)
+                    .header("Idempotent-Replayed", String.valueOf(resultado.isRepetido()))
+                    .body(resultado.getValor());
+
+        } catch (StockInsuficienteException e) {
+            List<Map<String, Object>> lineas = new ArrayList<>();
+            for (StockInsuficienteException.LineaSinStock l : e.getLineas()) {
+                lineas.add(Map.of(
+                        "inventarioId", l.getInventarioId(),
+                        "producto", l.getProducto(),
+                        "cantidadSolicitada", l.getCantidadSolicitada()));
+            }
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", e.getMessage(), "lineas", lineas));
+        } catch (IdempotenciaService.ClaveReutilizadaException e) {
+            return ResponseEntity.unprocessableEntity().body(Map.of("error", e.getMessage()));
+        } catch (IdempotenciaService.AlmacenLlenoException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error inesperado registrando venta por API", e);
+            return ResponseEntity.internalServerError().body(Map.of("error", "Error interno al registrar la venta"));
+        }
+    }
+
+    /**
+     * GET /api/ventas/facturas/cache
+     * Estadísticas de la caché de facturas PDF (aciertos, fallos, expulsiones, bytes).
+     */
+    @GetMapping("/facturas/cache")
+    public ResponseEntity<?> estadisticasCacheFacturas(HttpSession session) {
+        if (session.getAttribute("empleadoLogueado") == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Debe iniciar sesión"));
+        }
+        return ResponseEntity.ok(facturaVentaService.estadisticasCache());
+    }
+
+    /**
+     * GET /api/ventas/resumen
+     * Resumen del empleado en sesión: total histórico, total de hoy (en COP, USD y EUR)
+     * y ventas de cada uno de los últimos 7 días.
+     */
+    @GetMapping("/resumen")
+    public ResponseEntity<?> resumen(HttpSession session) {
+        Empleado empleado = (Empleado) session.getAttribute("empleadoLogueado");
+        if (empleado == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Debe iniciar sesión"));
+        }
+
+        ResumenVentasEmpleado resumen = resumenVentasService.resumenEmpleado(empleado.getId(), LocalDate.now());
+
+        List<Map<String, Object>> dias = new ArrayList<>();
+        for (int i = 0; i < resumen.getDias().size(); i++) {
+            dias.add(Map.of(
+                    "fecha", resumen.getDias().get(i).toString(),
+                    "total", resumen.getVentasPorDia().get(i)));
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("empleadoId", empleado.getId());
+        body.put("totalHistorico", montos(resumen.getTotalHistorico()));
+        body.put("totalHoy", montos(resumen.getTotalHoy()));
+        body.put("ventasPorDia", dias);
+        body.put("tasasActualizadas", exchangeRateService.getUltimaActualizacion());
+        return ResponseEntity.ok(body);
+    }
+
+    private Map<String, Object> montos(BigDecimal cop) {
+        return Map.of(
+                "COP", cop,
+                "USD", exchangeRateService.convertFromCOP(cop, "USD"),
+                "EUR", exchangeRateService.convertFromCOP(cop, "EUR"));
+    }
+
+    private VentaRegistradaDTO registrar(RegistrarVentaDTO dto, Empleado empleado) {
+        List<Long> inventarioIds = new ArrayList<>();
+        List<Integer> cantidades = new ArrayList<>();
+        for (ProductoVentaDTO p : dto.getProductos()) {
+            inventarioIds.add(p.getInventarioId());
+            cantidades.add(p.getCantidad());
+        }
+
+        Venta venta = new Venta();
+        venta.setCliente(dto.getCliente());
+        venta.setMetodoPago(dto.getMetodoPago());
+
+        Venta guardada = ventaService.registrarVenta(venta, inventarioIds, cantidades, empleado);
+
+        BigDecimal subtotal = BigDecimal.ZERO;
+        BigDecimal iva = BigDecimal.ZERO;
+        for (VentaDetalle d : guardada.getDetalles()) {
+            subtotal = subtotal.add(d.getSubtotal());
+            iva = iva.add(d.getIva());
+        }
+
+        VentaRegistradaDTO respuesta = new VentaRegistradaDTO();
+        respuesta.setVentaId(guardada.getId());
+        respuesta.setFecha(guardada.getFecha());
+        respuesta.setLineas(guardada.getDetalles().size());
+        respuesta.setSubtotal(subtotal);
+        respuesta.setIva(iva);
+        respuesta.setTotal(guardada.getTotalVenta());
+        return respuesta;
+    }
+
+    // Huella del contenido: detecta reutilizar una clave con otra venta
+    private String huella(RegistrarVentaDTO dto) {
+        StringBuilder sb = new StringBuilder()
+                .append(dto.getCliente()).append('|')
+                .append(dto.getMetodoPago()).append('|')
+                .append(dto.getFechaVenta());
+        for (ProductoVentaDTO p : dto.getProductos()) {
+            sb.append('|').append(p.getInventarioId()).append('x').append(p.getCantidad());
+        }
+        return sb.toString();
+    }
+}
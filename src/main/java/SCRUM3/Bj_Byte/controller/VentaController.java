@@ -2,16 +2,18 @@ package SCRUM3.Bj_Byte.controller;
 
 import SCRUM3.Bj_Byte.model.*;
 import SCRUM3.Bj_Byte.repository.*;
+import SCRUM3.Bj_Byte.repository.projection.LineaVentaView;
 import SCRUM3.Bj_Byte.service.*;
+import SCRUM3.Bj_Byte.service.dto.ResumenVentasEmpleado;
+import SCRUM3.Bj_Byte.service.exception.StockInsuficienteException;
+import SCRUM3.Bj_Byte.util.ExportarCsvVentas;
 import SCRUM3.Bj_Byte.util.ExportarExcelVentas;
-import SCRUM3.Bj_Byte.dto.DetalleFacturaDTO;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.domain.Page; // Nueva importación para paginación
 import org.springframework.data.domain.PageRequest; // Nueva importación
 import org.springframework.data.domain.Pageable; // Nueva importación
@@ -25,27 +27,20 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import org.thymeleaf.context.Context;
-
-import com.google.zxing.BarcodeFormat;
-import com.google.zxing.qrcode.QRCodeWriter;
-import com.google.zxing.common.BitMatrix;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
-
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.stream.Stream;
 
 @Controller
 @RequestMapping("/ventas")
 public class VentaController {
 
-    // --- Configuración de URL Fija para QR ---
-    private static final String APP_BASE_URL = "https://intuitive-generosity-bj-bytes.up.railway.app";
-    private static final String PDF_DOWNLOAD_PATH = "/ventas/descargar-factura/";
+    // --- Ruta de descarga codificada en el QR ---
+    private static final String PDF_DOWNLOAD_PATH = FacturaVentaService.RUTA_DESCARGA;
     // ------------------------------------------
 
     @Autowired private InventarioRepository inventarioRepository;
@@ -56,9 +51,11 @@ public class VentaController {
     @Autowired private ExchangeRateService exchangeRateService; // Mantenido aunque no se usa en los métodos mostrados
     @Autowired private VentaService ventaService; 
     @Autowired private ClienteRepository clienteRepository;
-    @Autowired private InvoicePdfService invoicePdfService;
+    @Autowired private FacturaVentaService facturaVentaService;
+    @Autowired private RecursosFacturaRegistry recursosFactura;
     @Autowired private ReporteFinancieroService reporteFinancieroService;
     @Autowired private VentasGlobalesReporteService ventasGlobalesReporteService;
+    @Autowired private ResumenVentasService resumenVentasService;
 
 
     private Empleado getEmpleadoLogueado(HttpSession session) {
@@ -66,18 +63,13 @@ public class VentaController {
     }
 
     /* ============================
-      MÉTODO AÑADIDO: DESCARGAR PDF (Streaming)
+      MÉTODO AÑADIDO: DESCARGAR PDF (sirve la factura ya generada)
     ============================ */
     @GetMapping(PDF_DOWNLOAD_PATH + "{id}")
     @ResponseBody
     public ResponseEntity<byte[]> descargarFacturaPdf(@PathVariable Long id) {
-        Optional<Venta> ventaOpt = ventaRepository.findById(id);
-        if (ventaOpt.isEmpty()) {
-            return ResponseEntity.notFound().build(); 
-        }
-        
         try {
-            byte[] pdfContent = generarPdfContent(id); 
+            byte[] pdfContent = facturaVentaService.obtenerPdf(id);
 
             String nombreArchivo = "factura_FV-" + id + ".pdf";
 
@@ -86,6 +78,8 @@ public class VentaController {
                     .contentType(MediaType.APPLICATION_PDF) 
                     .body(pdfContent);
 
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.internalServerError().build(); 
@@ -93,106 +87,6 @@ public class VentaController {
     }
 
 
-    /* ============================
-    EXPORTAR PDF FACTURA (AUXILIAR)
-    ============================ */
-    private byte[] generarPdfContent(Long id) throws Exception {
-        Optional<Venta> opt = ventaRepository.findById(id);
-        if (opt.isEmpty()) {
-            throw new NoSuchElementException("Venta no encontrada con ID: " + id);
-        }
-
-        Venta venta = opt.get();
-        String baseUrl = APP_BASE_URL; 
-
-        Context ctx = new Context();
-        ctx.setVariable("venta", venta);
-        ctx.setVariable("baseUrl", baseUrl);
-
-        // Lógica de llenado de variables de empresa
-        ctx.setVariable("empresaNombre", "BJ.BYTES");
-        ctx.setVariable("empresaDireccion", "Calle 123 - Bogotá");
-        ctx.setVariable("empresaTelefono", "+57 300 000 0000");
-        ctx.setVariable("empresaNIT", "NIT 123456789-0");
-        
-        // --- Cálculo de Totales y Detalles DTO ---
-        List<DetalleFacturaDTO> detallesDto = new ArrayList<>();
-        BigDecimal subtotal = BigDecimal.ZERO;
-        BigDecimal ivaTotal = BigDecimal.ZERO;
-
-        for (VentaDetalle d : venta.getDetalles()) {
-            Producto prod = d.getInventario().getProducto();
-            boolean exento = prod.getExento() != null && prod.getExento();
-
-            DetalleFacturaDTO dto = new DetalleFacturaDTO();
-            dto.setNombre(prod.getNombre());
-            dto.setDescripcion(prod.getDescripcion() != null ? prod.getDescripcion() : "Producto vendido");
-            dto.setCantidad(d.getCantidad());
-            dto.setPrecio(prod.getPrecio());
-            dto.setExento(exento);
-
-            BigDecimal precio = prod.getPrecio();
-            BigDecimal lineaSubtotal = precio.multiply(BigDecimal.valueOf(d.getCantidad()));
-            BigDecimal iva = exento ? BigDecimal.ZERO : lineaSubtotal.multiply(new BigDecimal("0.19"));
-            BigDecimal totalLinea = lineaSubtotal.add(iva);
-
-            dto.setIva(iva);
-            dto.setTotalLinea(totalLinea);
-
-            subtotal = subtotal.add(lineaSubtotal);
-            ivaTotal = ivaTotal.add(iva);
-
-            detallesDto.add(dto);
-        }
-
-        ctx.setVariable("detallesDto", detallesDto);
-        ctx.setVariable("subtotal", subtotal);
-        ctx.setVariable("ivaTotal", ivaTotal);
-        ctx.setVariable("totalPagar", subtotal.add(ivaTotal));
-
-        // --- Llenado de Cliente ---
-        ctx.setVariable("clienteNombre", venta.getCliente() != null ? venta.getCliente() : "Cliente Final");
-        ctx.setVariable("clienteDocumento", venta.getClienteDocumento() != null ? venta.getClienteDocumento() : "");
-        ctx.setVariable("clienteTelefono", venta.getClienteTelefono() != null ? venta.getClienteTelefono() : "");
-        ctx.setVariable("clienteDireccion", venta.getClienteDireccion() != null ? venta.getClienteDireccion() : "");
-
-        // --- Cargar Logo Base64 ---
-        String[] rutas = { "static/images/logo.png", "static/images/logo.jpg", "images/logo.png", "images/logo.jpg", "logo.png", "logo.jpg" };
-        for (String ruta : rutas) {
-            try {
-                ClassPathResource res = new ClassPathResource(ruta);
-                if (res.exists()) {
-                    byte[] bytes = res.getInputStream().readAllBytes();
-                    String mime = ruta.endsWith(".png") ? "image/png" : "image/jpeg";
-                    ctx.setVariable("logoBase64", "data:" + mime + ";base64," + Base64.getEncoder().encodeToString(bytes));
-                    break;
-                }
-            } catch (Exception ignored) {}
-        }
-        
-        // --- Generar QR con la URL de DESCARGA ---
-        try {
-            String qrDownloadUrl = APP_BASE_URL + PDF_DOWNLOAD_PATH + venta.getId(); 
-            
-            QRCodeWriter qr = new QRCodeWriter();
-            BitMatrix matrix = qr.encode(qrDownloadUrl, BarcodeFormat.QR_CODE, 150, 150);
-
-            ByteArrayOutputStream outQR = new ByteArrayOutputStream();
-            MatrixToImageWriter.writeToStream(matrix, "PNG", outQR);
-
-            ctx.setVariable("qrBase64", "data:image/png;base64," + Base64.getEncoder().encodeToString(outQR.toByteArray()));
-
-        } catch (Exception e) {
-            System.out.println("Error QR: " + e.getMessage());
-        }
-
-        ByteArrayOutputStream pdfOutputStream = new ByteArrayOutputStream();
-        invoicePdfService.generatePdf("invoice", ctx, baseUrl, pdfOutputStream);
-
-        return pdfOutputStream.toByteArray();
-    }
-
-
     /* ============================
     EXPORTAR PDF FACTURA (Anterior, mantenido por ruta)
     ============================ */
@@ -202,7 +96,7 @@ public class VentaController {
                             HttpServletResponse response) throws Exception {
 
         try {
-            byte[] pdfContent = generarPdfContent(id);
+            byte[] pdfContent = facturaVentaService.obtenerPdf(id);
             
             response.setContentType("application/pdf");
             response.setHeader("Content-Disposition",
@@ -275,41 +169,9 @@ public class VentaController {
         model.addAttribute("clienteDireccion",
                 venta.getClienteDireccion() != null ? venta.getClienteDireccion() : "");
 
-        // Cargar Logo Base64
-        try {
-            String[] rutas = {
-                    "static/images/logo.png", "static/images/logo.jpg", "images/logo.png",
-                    "images/logo.jpg", "logo.png", "logo.jpg"
-            };
-
-            for (String ruta : rutas) {
-                ClassPathResource res = new ClassPathResource(ruta);
-                if (res.exists()) {
-                    byte[] bytes = res.getInputStream().readAllBytes();
-                    String mime = ruta.endsWith(".png") ? "image/png" : "image/jpeg";
-                    model.addAttribute("logoBase64", "data:" + mime + ";base64," + Base64.getEncoder().encodeToString(bytes));
-                    break;
-                }
-            }
-        } catch (Exception ignored) {}
-
-        /* ============================
-          QR BASE64 CON URL DE DESCARGA
-        ============================ */
-        try {
-            // Codificamos la URL del nuevo endpoint de descarga
-            String qrDownloadUrl = APP_BASE_URL + PDF_DOWNLOAD_PATH + venta.getId(); 
-            
-            QRCodeWriter qr = new QRCodeWriter();
-            BitMatrix matrix = qr.encode(qrDownloadUrl, BarcodeFormat.QR_CODE, 150, 150);
-
-            ByteArrayOutputStream output = new ByteArrayOutputStream();
-            MatrixToImageWriter.writeToStream(matrix, "PNG", output);
-
-            model.addAttribute("qrBase64",
-                    "data:image/png;base64," + Base64.getEncoder().encodeToString(output.toByteArray()));
-
-        } catch (Exception ignored) {}
+        // Logo precargado y QR con la URL de descarga (los mismos que usa el PDF)
+        model.addAttribute("logoBase64", recursosFactura.getLogoDataUri());
+        model.addAttribute("qrBase64", facturaVentaService.qrDescarga(venta.getId()));
 
         return "ventas/resumen_venta";
     }
@@ -340,7 +202,6 @@ public class VentaController {
       REGISTRAR VENTA
     ============================ */
     @PostMapping("/registrar")
-    @Transactional
     public String registrarVenta(
             @ModelAttribute Venta venta,
             @RequestParam List<Long> inventarioId,
@@ -355,105 +216,23 @@ public class VentaController {
             if (empleado == null)
                 return "redirect:/empleados/login";
 
-            Set<Proveedor> proveedoresAsociados = new HashSet<>();
-            BigDecimal totalVenta = BigDecimal.ZERO;
-            List<VentaDetalle> detalles = new ArrayList<>();
-
-            for (int i = 0; i < inventarioId.size(); i++) {
-
-                Long idInv = inventarioId.get(i);
-                int cant = cantidad.get(i);
-
-                Inventario inv = inventarioRepository.findById(idInv).orElseThrow();
-                Producto prod = inv.getProducto();
-
-                /* ============================
-                  VALIDACIONES
-                ============================ */
-                if (!prod.getActivo()) {
-                    ra.addFlashAttribute("error", "Producto deshabilitado: " + prod.getNombre());
-                    return "redirect:/ventas/registrar";
-                }
-
-                if (cant > inv.getCantidad()) {
-                    ra.addFlashAttribute("error", "Stock insuficiente: " + prod.getNombre());
-                    return "redirect:/ventas/registrar";
-                }
-
-                /* ============================
-                  DESCONTAR INVENTARIO
-                ============================ */
-                inv.setCantidad(inv.getCantidad() - cant);
-                inventarioRepository.save(inv);
-
-                if (prod.getProveedores() != null)
-                    proveedoresAsociados.addAll(prod.getProveedores());
-
-                /* ============================
-                  CALCULO DE PRECIOS
-                ============================ */
-
-                BigDecimal precioUnit = prod.getPrecio();
-                BigDecimal subtotalLinea = precioUnit.multiply(BigDecimal.valueOf(cant));
-
-                // IVA 19% SOLO si el producto NO es exento
-                BigDecimal ivaLinea = BigDecimal.ZERO;
-                if (!Boolean.TRUE.equals(prod.getExento())) {
-                    ivaLinea = subtotalLinea.multiply(new BigDecimal("0.19"));
-                }
-
-                BigDecimal totalLinea = subtotalLinea.add(ivaLinea);
-
-                /* ============================
-                  DETALLE
-                ============================ */
-                VentaDetalle det = new VentaDetalle();
-                det.setInventario(inv);
-                det.setCantidad(cant);
-                det.setPrecioUnitario(precioUnit);
-                det.setSubtotal(subtotalLinea);
-                det.setIva(ivaLinea);
-                det.setTotalLinea(totalLinea);
-                det.setVenta(venta);
-
-                detalles.add(det);
-
-                /* ============================
-                  SUMAR TOTAL GENERAL
-                ============================ */
-                totalVenta = totalVenta.add(totalLinea);
-            }
-
-            /* ============================
-                DATOS GENERALES VENTA
-            ============================ */
-            venta.setEmpleado(empleado);
-            venta.setNombreEmpleado(empleado.getNombre());
-            venta.setFecha(LocalDateTime.now());
-            venta.setTotalVenta(totalVenta);
-            venta.setProveedores(proveedoresAsociados);
-
             if (clienteId != null && clienteId > 0) {
                 clienteRepository.findById(clienteId)
                         .ifPresent(c -> venta.setCliente(c.getNombre()));
             }
 
-            venta.setDetalles(detalles);
-
             /* ============================
-                GUARDAR VENTA
+                VALIDAR, DESCONTAR STOCK Y GUARDAR (transaccional)
             ============================ */
-            Venta ventaGuardada = ventaRepository.save(venta);
-
-            for (VentaDetalle d : detalles) {
-                d.setVenta(ventaGuardada);
-                ventaDetalleRepository.save(d);
-            }
+            Venta ventaGuardada = ventaService.registrarVenta(venta, inventarioId, cantidad, empleado);
 
             ra.addFlashAttribute("mensaje", "Venta registrada correctamente");
 
             return "redirect:/ventas/resumen/" + ventaGuardada.getId();
 
+        } catch (StockInsuficienteException | IllegalArgumentException e) {
+            ra.addFlashAttribute("error", e.getMessage());
+            return "redirect:/ventas/registrar";
         } catch (Exception e) {
             ra.addFlashAttribute("error", "Error: " + e.getMessage());
             return "redirect:/ventas/registrar";
@@ -483,24 +262,12 @@ public class VentaController {
         ELIMINAR VENTA
     ============================ */
     @GetMapping("/eliminar/{id}")
-    @Transactional
     public String eliminar(@PathVariable Long id, HttpSession session) {
         if (getEmpleadoLogueado(session) == null)
             return "redirect:/empleados/login";
 
-        Venta venta = ventaRepository.findById(id).orElse(null);
-        if (venta != null) {
-
-            List<VentaDetalle> detalles = ventaDetalleRepository.findByVentaId(id);
-
-            for (VentaDetalle d : detalles) {
-                Inventario inv = d.getInventario();
-                inv.setCantidad(inv.getCantidad() + d.getCantidad());
-                inventarioRepository.save(inv);
-            }
-
-            ventaDetalleRepository.deleteAll(detalles);
-            ventaRepository.delete(venta);
+        if (ventaService.eliminarVenta(id)) {
+            facturaVentaService.invalidar(id);
         }
 
         return "redirect:/ventas/lista";
@@ -513,8 +280,11 @@ public class VentaController {
     public String lista(
         HttpSession session, 
         Model model,
-        // Parámetros de Paginación
-        @RequestParam(defaultValue = "0") int page, // Número de página (empieza en 0)
+        // Paginación por cursor (por defecto): cursor de la última/primera venta mostrada
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "siguiente") String dir,
+        // Paginación por offset (alternativa): solo si se pide un número de página
+        @RequestParam(required = false) Integer page, // Número de página (empieza en 0)
         @RequestParam(defaultValue = "10") int size, // Tamaño de página (10 ventas)
         // Parámetros de Filtro
         @RequestParam(required = false) String producto,
@@ -527,14 +297,23 @@ public class VentaController {
         if (emp.getRolId() != 1)
             return "redirect:/ventas/mis-ventas";
 
-        // 1. CONFIGURAR PAGINACIÓN
-        // Ordenamos por fecha descendente por defecto.
-        Pageable pageable = PageRequest.of(page, size, Sort.by("fecha").descending());
-
-        // 2. OBTENER LAS VENTAS FILTRADAS Y PAGINADAS
-        // Asumiendo que VentaService ahora implementa un método que devuelve Page<Venta>
-        Page<Venta> ventasPage = ventaService.buscarVentasConPaginacion(
-            producto, empleado, fecha, pageable);
+        if (page != null) {
+            // 1. CONFIGURAR PAGINACIÓN POR OFFSET
+            // Ordenamos por fecha descendente por defecto.
+            // El ID desempata ventas con la misma fecha para que las páginas sean estables.
+            Pageable pageable = PageRequest.of(page, size, Sort.by("fecha").descending().and(Sort.by("id").descending()));
+
+            // 2. OBTENER LAS VENTAS FILTRADAS Y PAGINADAS
+            Page<Venta> ventasPage = ventaService.buscarVentasConPaginacion(
+                producto, empleado, fecha, pageable);
+            model.addAttribute("ventas", ventasPage); // Enviamos el objeto Page<Venta>
+            model.addAttribute("modoCursor", false);
+        } else {
+            // 1-2. PAGINACIÓN POR CURSOR (fecha, id): sin OFFSET ni conteo
+            model.addAttribute("ventas", ventaService.buscarVentasPorCursor(
+                producto, empleado, fecha, cursor, "anterior".equals(dir), size));
+            model.addAttribute("modoCursor", true);
+        }
 
         // 3. OBTENER DATOS PARA LOS SELECTS (Opciones de Filtro)
         List<String> nombresProductos = ventaService.obtenerNombresProductosUnicos();
@@ -542,7 +321,6 @@ public class VentaController {
         List<String> fechasVenta = ventaService.obtenerFechasUnicasFormatoYYYYMMDD();
         
         // 4. AÑADIR DATOS AL MODELO
-        model.addAttribute("ventas", ventasPage); // Enviamos el objeto Page<Venta>
         model.addAttribute("productos", nombresProductos);
         model.addAttribute("empleados", nombresEmpleados);
         model.addAttribute("fechas", fechasVenta);
@@ -575,34 +353,17 @@ public class VentaController {
         Empleado emp = getEmpleadoLogueado(session);
         if (emp == null) return "redirect:/empleados/login";
 
-        Long id = emp.getId();
-
-        BigDecimal totalHist = ventaRepository.obtenerTotalVendidoPorEmpleado(id);
-        BigDecimal totalHoy = ventaRepository.obtenerTotalVendidoPorEmpleadoEntreFechas(
-                id, LocalDate.now().atStartOfDay(), LocalDateTime.now());
+        // Histórico, hoy y últimos 7 días en una sola lectura del resumen diario
+        ResumenVentasEmpleado resumen = resumenVentasService.resumenEmpleado(emp.getId(), LocalDate.now());
+        BigDecimal totalHist = resumen.getTotalHistorico();
+        BigDecimal totalHoy = resumen.getTotalHoy();
 
-        totalHist = totalHist != null ? totalHist : BigDecimal.ZERO;
-        totalHoy = totalHoy != null ? totalHoy : BigDecimal.ZERO;
-
-        // Conversiones a USD y EUR usando ExchangeRateService
+        // Conversiones a USD y EUR usando ExchangeRateService (tasas en memoria)
         BigDecimal totalHistoricoUSD = exchangeRateService.convertFromCOP(totalHist, "USD");
         BigDecimal totalHistoricoEUR = exchangeRateService.convertFromCOP(totalHist, "EUR");
         BigDecimal totalHoyUSD = exchangeRateService.convertFromCOP(totalHoy, "USD");
         BigDecimal totalHoyEUR = exchangeRateService.convertFromCOP(totalHoy, "EUR");
 
-        // Calcular ventas por día de la semana (últimos 7 días)
-        List<BigDecimal> ventasPorDia = new ArrayList<>();
-        LocalDateTime ahora = LocalDateTime.now();
-        for (int i = 6; i >= 0; i--) {
-            LocalDateTime inicioDelDia = ahora.minusDays(i).toLocalDate().atStartOfDay();
-            LocalDateTime finDelDia = inicioDelDia.plusDays(1).minusSeconds(1);
-            
-            BigDecimal ventasDelDia = ventaRepository.obtenerTotalVendidoPorEmpleadoEntreFechas(
-                    id, inicioDelDia, finDelDia);
-            
-            ventasPorDia.add(ventasDelDia != null ? ventasDelDia : BigDecimal.ZERO);
-        }
-
         model.addAttribute("empleado", emp);
         model.addAttribute("totalHistorico", totalHist);
         model.addAttribute("totalHoy", totalHoy);
@@ -610,7 +371,7 @@ public class VentaController {
         model.addAttribute("totalHistoricoEUR", totalHistoricoEUR);
         model.addAttribute("totalHoyUSD", totalHoyUSD);
         model.addAttribute("totalHoyEUR", totalHoyEUR);
-        model.addAttribute("ventasPorDia", ventasPorDia);
+        model.addAttribute("ventasPorDia", resumen.getVentasPorDia());
         model.addAttribute("ultimaActualizacion", exchangeRateService.getUltimaActualizacion());
 
         return "ventas/resumen_ventas";
@@ -620,6 +381,7 @@ public class VentaController {
         EXPORTAR EXCEL
     ============================ */
     @GetMapping("/exportar")
+    @Transactional(readOnly = true) // el cursor de la consulta vive mientras dura la transacción
     public void exportar(HttpServletResponse response, HttpSession session) throws IOException {
         Empleado emp = getEmpleadoLogueado(session);
         if (emp == null || emp.getRolId() != 1) {
@@ -627,24 +389,74 @@ public class VentaController {
             return;
         }
 
-        List<Venta> ventas = ventaRepository.findAll();
+        // Filas planas leídas por bloques; nunca se cargan todas las ventas en memoria
+        try (Stream<LineaVentaView> lineas = ventaRepository.streamLineasVenta(null, null, null, null)) {
+            Iterator<LineaVentaView> it = lineas.iterator();
+
+            if (!it.hasNext()) {
+                response.getWriter().write("No hay ventas.");
+                return;
+            }
+
+            response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+            response.setHeader("Content-Disposition", "attachment; filename=ventas.xlsx");
+
+            new ExportarExcelVentas(it).exportar(response);
+        }
+    }
 
-        if (ventas.isEmpty()) {
-            response.getWriter().write("No hay ventas.");
+    /* ============================
+      EXPORTAR CSV (streaming, opcionalmente gzip)
+      Mismos filtros que /ventas/lista
+    ============================ */
+    @GetMapping("/exportar.csv")
+    @Transactional(readOnly = true)
+    public void exportarCsv(
+            @RequestParam(required = false) String producto,
+            @RequestParam(required = false) String empleado,
+            @RequestParam(required = false) String fecha,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response,
+            HttpSession session) throws IOException {
+
+        Empleado emp = getEmpleadoLogueado(session);
+        if (emp == null || emp.getRolId() != 1) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "No autorizado.");
             return;
         }
 
-        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
-        response.setHeader("Content-Disposition", "attachment; filename=ventas.xlsx");
+        LocalDateTime inicio = null;
+        LocalDateTime fin = null;
+        if (fecha != null && !fecha.isBlank()) {
+            try {
+                inicio = LocalDate.parse(fecha.trim()).atStartOfDay();
+                fin = inicio.plusDays(1);
+            } catch (DateTimeParseException e) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Fecha inválida, use yyyy-MM-dd");
+                return;
+            }
+        }
+
+        String nombreArchivo = "ventas.csv" + (gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip" : "text/csv;charset=UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=" + nombreArchivo);
+
+        try (Stream<LineaVentaView> lineas = ventaRepository.streamLineasVenta(
+                vacioANull(producto), vacioANull(empleado), inicio, fin)) {
+            new ExportarCsvVentas(lineas.iterator()).exportar(response.getOutputStream(), gzip);
+        }
+    }
 
-        new ExportarExcelVentas(ventas).exportar(response);
+    private static String vacioANull(String valor) {
+        return valor == null || valor.isBlank() ? null : valor.trim();
     }
 
     /* ============================
       EXPORTAR MIS VENTAS PDF
     ============================ */
     @GetMapping("/exportar-mis-ventas-pdf")
-    public void exportarMisVentasPDF(HttpServletResponse response,
+    public void exportarMisVentasPDF(@RequestParam(required = false) String fecha,
+                                     HttpServletResponse response,
                                      HttpSession session) throws IOException {
         Empleado empleado = getEmpleadoLogueado(session);
         if (empleado == null) {
@@ -653,7 +465,7 @@ public class VentaController {
         }
 
         try {
-            pdfService.exportarMisVentasPDF(response, session);
+            pdfService.exportarMisVentasPDF(response, session, fecha);
         } catch (Exception e) {
             response.getWriter().write("Error: " + e.getMessage());
         }
@@ -675,7 +487,8 @@ public class VentaController {
     REPORTE DE VENTAS GLOBALES
     ============================ */
     @GetMapping("/reporte-ventas-globales")
-    public void reporteVentasGlobales(HttpServletResponse response) throws Exception {
-        ventasGlobalesReporteService.generarReporteVentasGlobales(response);
+    public void reporteVentasGlobales(@RequestParam(required = false) String fecha,
+                                      HttpServletResponse response) throws Exception {
+        ventasGlobalesReporteService.generarReporteVentasGlobales(response, fecha);
     }
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+package SCRUM3.Bj_Byte.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class VentaRegistradaDTO {
+
+    private Long ventaId;
+    private LocalDateTime fecha;
+    private int lineas;
+
+    private BigDecimal subtotal;
+    private BigDecimal iva;
+    private BigDecimal total;
+
+    // Getters y Setters
+    public Long getVentaId() {
+        return ventaId;
+    }
+
+    public void setVentaId(Long ventaId) {
+        this.ventaId = ventaId;
+    }
+
+    public LocalDateTime getFecha() {
+        return fecha;
+    }
+
+    public void setFecha(LocalDateTime fecha) {
+        this.fecha = fecha;
+    }
+
+    public int getLineas() {
+        return lineas;
+    }
+
+    public void setLineas(int lineas) {
+        this.lineas = lineas;
+    }
+
+    public BigDecimal getSubtotal() {
+        return subtotal;
+    }
+
+    public void setSubtotal(BigDecimal subtotal) {
+        this.subtotal = subtotal;
+    }
+
+    public BigDecimal getIva() {
+        return iva;
+    }
+
+    public void setIva(BigDecimal iva) {
+        this.iva = iva;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public void setTotal(BigDecimal total) {
+        this.total = total;
+    }
+}
@@ -0,0 +1,43 @@
+package SCRUM3.Bj_Byte.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Contador del generador de IDs por tabla ({@link GeneradorIdsPorBloques}): una
+ * fila por segmento. Como entidad, la tabla se crea con el resto del esquema.
+ *
+ * A diferencia de IDENTITY, los IDs se reservan por bloques sin insertar la fila,
+ * lo que permite agrupar los INSERT en lotes JDBC (hibernate.jdbc.batch_size).
+ */
+@Entity
+@Table(name = GeneradorIds.TABLA)
+public class GeneradorIds {
+
+    public static final String TABLA = "id_generadores";
+    public static final String COLUMNA_ENTIDAD = "entidad";
+    public static final String COLUMNA_VALOR = "siguiente_id";
+
+    // IDs reservados por cada acceso a la tabla generadora
+    public static final int BLOQUE = 50;
+
+    @Id
+    @Column(name = COLUMNA_ENTIDAD)
+    private String entidad;
+
+    @Column(name = COLUMNA_VALOR)
+    private Long siguienteId;
+
+    protected GeneradorIds() {
+    }
+
+    public String getEntidad() {
+        return entidad;
+    }
+
+    public Long getSiguienteId() {
+        return siguienteId;
+    }
+}
@@ -0,0 +1,125 @@
+package SCRUM3.Bj_Byte.model;
+
+import org.hibernate.HibernateException;
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.PersistentIdentifierGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Properties;
+
+/**
+ * Generador de IDs por bloques sobre la tabla {@link GeneradorIds#TABLA}, con la
+ * misma semántica que el optimizador "pooled" de Hibernate: leer el contador v
+ * reserva los IDs (v - BLOQUE, v] y lo deja en v + BLOQUE.
+ *
+ * A diferencia del TableGenerator de Hibernate, el bloque no se reserva con una
+ * segunda conexión del pool principal sino con el DataSource que llega en la
+ * propiedad de Hibernate {@value #CONEXIONES} (el pool propio de
+ * {@link SCRUM3.Bj_Byte.config.DataSourceConfig}). Así un checkout nunca espera
+ * por otra conexión del pool que él mismo y los demás checkouts ocupan.
+ *
+ * Si el contador del segmento aún no existe, la primera reserva lo crea por
+ * encima del mayor ID de la tabla de la entidad.
+ */
+public class GeneradorIdsPorBloques implements IdentifierGenerator {
+
+    public static final String SEGMENTO = "segmento";
+
+    /**
+     * Propiedad de Hibernate con el DataSource con el que se reservan los bloques.
+     */
+    public static final String CONEXIONES = "bjbyte.generador_ids.conexiones";
+
+    private DataSource conexiones;
+    private String segmento;
+    private String tablaEntidad;
+    private long siguiente;
+    private long limite = -1;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) {
+        segmento = params.getProperty(SEGMENTO);
+        tablaEntidad = params.getProperty(PersistentIdentifierGenerator.TABLE, segmento);
+        Object ds = serviceRegistry.getService(ConfigurationService.class).getSettings().get(CONEXIONES);
+        if (!(ds instanceof DataSource)) {
+            throw new MappingException("Generador de IDs '" + segmento + "' sin la propiedad " + CONEXIONES);
+        }
+        conexiones = (DataSource) ds;
+    }
+
+    @Override
+    public synchronized Object generate(SharedSessionContractImplementor session, Object object) {
+        if (siguiente > limite) {
+            limite = reservarBloque();
+            siguiente = limite - GeneradorIds.BLOQUE + 1;
+        }
+        return siguiente++;
+    }
+
+    // Lee y avanza el contador en una transacción corta propia; devuelve el último ID del bloque
+    private long reservarBloque() {
+        try (Connection con = conexiones.getConnection()) {
+            con.setAutoCommit(false);
+            try {
+                Long leido = leerContador(con);
+                if (leido == null) {
+                    crearContador(con);
+                    leido = leerContador(con);
+                    if (leido == null) {
+                        throw new HibernateException("Generador de IDs '" + segmento + "' sin contador");
+                    }
+                }
+                long valor = leido;
+                try (PreparedStatement update = con.prepareStatement(
+                        "UPDATE " + GeneradorIds.TABLA + " SET " + GeneradorIds.COLUMNA_VALOR + " = ?"
+                                + " WHERE " + GeneradorIds.COLUMNA_ENTIDAD + " = ?")) {
+                    update.setLong(1, valor + GeneradorIds.BLOQUE);
+                    update.setString(2, segmento);
+                    update.executeUpdate();
+                }
+                con.commit();
+                return valor;
+            } catch (SQLException | RuntimeException e) {
+                con.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new HibernateException("No se pudo reservar un bloque de IDs para '" + segmento + "'", e);
+        }
+    }
+
+    private Long leerContador(Connection con) throws SQLException {
+        try (PreparedStatement select = con.prepareStatement(
+                "SELECT " + GeneradorIds.COLUMNA_VALOR + " FROM " + GeneradorIds.TABLA
+                        + " WHERE " + GeneradorIds.COLUMNA_ENTIDAD + " = ? FOR UPDATE")) {
+            select.setString(1, segmento);
+            try (ResultSet rs = select.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : null;
+            }
+        }
+    }
+
+    // Si otro nodo lo crea a la vez, el INSERT duplicado falla y se lee el suyo
+    private void crearContador(Connection con) throws SQLException {
+        try (PreparedStatement insert = con.prepareStatement(
+                "INSERT INTO " + GeneradorIds.TABLA + " (" + GeneradorIds.COLUMNA_ENTIDAD + ", "
+                        + GeneradorIds.COLUMNA_VALOR + ") SELECT ?, COALESCE(MAX(id), 0) + ? FROM " + tablaEntidad)) {
+            insert.setString(1, segmento);
+            insert.setInt(2, GeneradorIds.BLOQUE);
+            insert.executeUpdate();
+        } catch (SQLException e) {
+            if (e.getSQLState() == null || !e.getSQLState().startsWith("23")) {
+                throw e;
+            }
+        }
+    }
+}
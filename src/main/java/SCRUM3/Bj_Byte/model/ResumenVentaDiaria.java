@@ -0,0 +1,54 @@
+package SCRUM3.Bj_Byte.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+/**
+ * Acumulado de ventas por día × empleado × producto.
+ *
+ * Lo mantiene ResumenVentasService en la misma transacción que registra o elimina
+ * la venta, así que los tableros leen una fila por día en lugar de sumar todas las
+ * ventas. Si se desincroniza se reconstruye desde ventas y venta_detalle.
+ *
+ * - ingresos: suma de totalLinea (con IVA), igual que totalVenta de la venta.
+ * - costo: costoUnitario de la línea (precioBase al vender) × cantidad.
+ * - transacciones: ventas que incluyen el producto ese día; una venta con varios
+ *   productos cuenta una vez en cada uno.
+ */
+@Entity
+@Table(name = ResumenVentaDiaria.TABLA,
+       indexes = @Index(name = "idx_resumen_empleado_dia", columnList = "empleado_id, dia"))
+public class ResumenVentaDiaria {
+
+    public static final String TABLA = "resumen_ventas_diario";
+
+    @EmbeddedId
+    private ResumenVentaDiariaId id;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal ingresos = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    private long unidades;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal costo = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    private long transacciones;
+
+    public ResumenVentaDiariaId getId() { return id; }
+    public void setId(ResumenVentaDiariaId id) { this.id = id; }
+
+    public BigDecimal getIngresos() { return ingresos; }
+    public void setIngresos(BigDecimal ingresos) { this.ingresos = ingresos; }
+
+    public long getUnidades() { return unidades; }
+    public void setUnidades(long unidades) { this.unidades = unidades; }
+
+    public BigDecimal getCosto() { return costo; }
+    public void setCosto(BigDecimal costo) { this.costo = costo; }
+
+    public long getTransacciones() { return transacciones; }
+    public void setTransacciones(long transacciones) { this.transacciones = transacciones; }
+}
@@ -0,0 +1,57 @@
+package SCRUM3.Bj_Byte.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Clave del resumen diario: día × empleado × producto.
+ *
+ * Las ventas sin empleado se guardan con empleadoId = 0 y las ventas antiguas
+ * sin detalles con productoId = 0 (la clave primaria no admite nulos).
+ */
+@Embeddable
+public class ResumenVentaDiariaId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final long SIN_ASIGNAR = 0L;
+
+    @Column(nullable = false)
+    private LocalDate dia;
+
+    @Column(name = "empleado_id", nullable = false)
+    private Long empleadoId;
+
+    @Column(name = "producto_id", nullable = false)
+    private Long productoId;
+
+    public ResumenVentaDiariaId() {}
+
+    public ResumenVentaDiariaId(LocalDate dia, Long empleadoId, Long productoId) {
+        this.dia = dia;
+        this.empleadoId = empleadoId;
+        this.productoId = productoId;
+    }
+
+    public LocalDate getDia() { return dia; }
+    public Long getEmpleadoId() { return empleadoId; }
+    public Long getProductoId() { return productoId; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ResumenVentaDiariaId otro)) return false;
+        return Objects.equals(dia, otro.dia)
+                && Objects.equals(empleadoId, otro.empleadoId)
+                && Objects.equals(productoId, otro.productoId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(dia, empleadoId, productoId);
+    }
+}
@@ -1,6 +1,8 @@
 package SCRUM3.Bj_Byte.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -10,11 +12,16 @@ import java.util.HashSet;
 import java.util.stream.Collectors;
 
 @Entity
-@Table(name = "ventas")
+@Table(name = "ventas", indexes = {
+        // Orden del listado y paginación por cursor (fecha, id)
+        @Index(name = "idx_ventas_fecha_id", columnList = "fecha, id")
+})
 public class Venta {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "ventas_gen")
+    @GenericGenerator(name = "ventas_gen", type = GeneradorIdsPorBloques.class,
+            parameters = @Parameter(name = GeneradorIdsPorBloques.SEGMENTO, value = "ventas"))
     private Long id;
 
     // FECHA Y TOTAL
@@ -1,13 +1,17 @@
 package SCRUM3.Bj_Byte.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import java.math.BigDecimal;
 
 @Entity
 public class VentaDetalle {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "venta_detalle_gen")
+    @GenericGenerator(name = "venta_detalle_gen", type = GeneradorIdsPorBloques.class,
+            parameters = @Parameter(name = GeneradorIdsPorBloques.SEGMENTO, value = "venta_detalle"))
     private Long id;
 
     @ManyToOne
@@ -34,6 +38,10 @@ public class VentaDetalle {
     @Column(precision = 10, scale = 2)
     private BigDecimal totalLinea;
 
+    // Costo unitario (precioBase del producto) en el momento de la venta
+    @Column(precision = 10, scale = 3)
+    private BigDecimal costoUnitario;
+
     // ===== GETTERS & SETTERS =====
 
     public Long getId() {
@@ -95,4 +103,12 @@ public class VentaDetalle {
     public void setTotalLinea(BigDecimal totalLinea) {
         this.totalLinea = totalLinea;
     }
+
+    public BigDecimal getCostoUnitario() {
+        return costoUnitario;
+    }
+
+    public void setCostoUnitario(BigDecimal costoUnitario) {
+        this.costoUnitario = costoUnitario;
+    }
 }
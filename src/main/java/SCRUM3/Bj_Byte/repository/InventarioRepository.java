@@ -1,8 +1,13 @@
 package SCRUM3.Bj_Byte.repository;
 
 import SCRUM3.Bj_Byte.model.Inventario;
+import SCRUM3.Bj_Byte.repository.projection.StockBajoView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,4 +18,45 @@ public interface InventarioRepository extends JpaRepository<Inventario, Long> {
 
     // Productos con bajo stock (menos de 5 unidades)
     List<Inventario> findByCantidadLessThan(int cantidad);
+
+    /**
+     * Inventarios con menos unidades que el límite, con el nombre del producto
+     * en la misma consulta (para la alerta del inicio).
+     */
+    @Query("""
+           SELECT p.nombre AS producto, i.cantidad AS cantidad
+           FROM Inventario i
+           JOIN i.producto p
+           WHERE i.cantidad < :cantidad
+           ORDER BY i.cantidad, p.nombre
+           """)
+    List<StockBajoView> buscarStockBajo(@Param("cantidad") int cantidad);
+
+    /**
+     * Carga en una sola consulta todos los inventarios de una venta,
+     * junto con su producto y los proveedores del producto.
+     */
+    @Query("""
+           SELECT DISTINCT i
+           FROM Inventario i
+           JOIN FETCH i.producto p
+           LEFT JOIN FETCH p.proveedores
+           WHERE i.id IN :ids
+           """)
+    List<Inventario> findAllConProductoByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Descuenta stock de forma atómica: solo actualiza si quedan unidades suficientes.
+     * Devuelve 1 si se descontó, 0 si el stock no alcanzaba (o el inventario no existe).
+     */
+    @Modifying
+    @Query("UPDATE Inventario i SET i.cantidad = i.cantidad - :cantidad WHERE i.id = :id AND i.cantidad >= :cantidad")
+    int descontarStockSiDisponible(@Param("id") Long id, @Param("cantidad") int cantidad);
+
+    /**
+     * Devuelve unidades al stock de forma atómica (por ejemplo, al eliminar una venta).
+     */
+    @Modifying
+    @Query("UPDATE Inventario i SET i.cantidad = i.cantidad + :cantidad WHERE i.id = :id")
+    int reponerStock(@Param("id") Long id, @Param("cantidad") int cantidad);
 }
@@ -1,10 +1,13 @@
 package SCRUM3.Bj_Byte.repository;
 
 import SCRUM3.Bj_Byte.model.Producto;
+import SCRUM3.Bj_Byte.repository.projection.ProductoReporteView;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -20,4 +23,15 @@ public interface ProductoRepository extends JpaRepository<Producto, Long> {
      */
     @Query("SELECT DISTINCT p.nombre FROM Producto p ORDER BY p.nombre ASC")
     List<String> findDistinctNames();
-}
\ No newline at end of file
+
+    /**
+     * Datos de catálogo de los productos indicados para los informes, como filas planas.
+     */
+    @Query("""
+            SELECT p.id AS id, p.nombre AS nombre, p.descripcion AS descripcion,
+                   p.precioBase AS precioBase, p.exento AS exento, p.activo AS activo
+            FROM Producto p
+            WHERE p.id IN :ids
+            """)
+    List<ProductoReporteView> findReporteByIdIn(@Param("ids") Collection<Long> ids);
+}
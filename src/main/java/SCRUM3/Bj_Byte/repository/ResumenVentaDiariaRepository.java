@@ -0,0 +1,46 @@
+package SCRUM3.Bj_Byte.repository;
+
+import SCRUM3.Bj_Byte.model.ResumenVentaDiaria;
+import SCRUM3.Bj_Byte.model.ResumenVentaDiariaId;
+import SCRUM3.Bj_Byte.repository.projection.TotalDiaView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Lecturas del resumen diario de ventas. Las escrituras (sumar/restar una venta y
+ * reconstruir) las hace ResumenVentasService con SQL por lotes.
+ */
+public interface ResumenVentaDiariaRepository extends JpaRepository<ResumenVentaDiaria, ResumenVentaDiariaId> {
+
+    /**
+     * Totales por día en el rango [desde, hasta), opcionalmente de un solo empleado.
+     * Cualquier filtro en null no se aplica. Los días sin ventas no aparecen.
+     */
+    @Query("""
+            SELECT r.id.dia AS dia,
+                   SUM(r.ingresos) AS ingresos,
+                   SUM(r.unidades) AS unidades,
+                   SUM(r.costo) AS costo
+            FROM ResumenVentaDiaria r
+            WHERE (:desde IS NULL OR r.id.dia >= :desde)
+              AND (:hasta IS NULL OR r.id.dia < :hasta)
+              AND (:empleadoId IS NULL OR r.id.empleadoId = :empleadoId)
+            GROUP BY r.id.dia
+            ORDER BY r.id.dia
+            """)
+    List<TotalDiaView> totalesPorDia(
+            @Param("desde") LocalDate desde,
+            @Param("hasta") LocalDate hasta,
+            @Param("empleadoId") Long empleadoId);
+
+    /**
+     * Total vendido de todo el historial (una fila por día × empleado × producto, no por venta).
+     */
+    @Query("SELECT COALESCE(SUM(r.ingresos), 0) FROM ResumenVentaDiaria r")
+    BigDecimal totalIngresosHistorico();
+}
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -30,5 +31,22 @@ public interface VentaDetalleRepository extends JpaRepository<VentaDetalle, Long
         @Param("start") LocalDateTime start, 
         @Param("end") LocalDateTime end
     );
-    
-}
\ No newline at end of file
+
+    /**
+     * Ganancia de las líneas vendidas: SUM((precioUnitario - costoUnitario) * cantidad),
+     * con el costo guardado en cada línea al vender. Rango opcional [inicio, fin)
+     * sobre la fecha de la venta (null = sin límite). Las líneas sin precio o sin
+     * costo no suman.
+     */
+    @Query("""
+           SELECT COALESCE(SUM((d.precioUnitario - d.costoUnitario) * d.cantidad), 0)
+           FROM VentaDetalle d
+           JOIN d.venta v
+           WHERE (:inicio IS NULL OR v.fecha >= :inicio)
+             AND (:fin IS NULL OR v.fecha < :fin)
+           """)
+    BigDecimal calcularGanancia(
+        @Param("inicio") LocalDateTime inicio,
+        @Param("fin") LocalDateTime fin
+    );
+}
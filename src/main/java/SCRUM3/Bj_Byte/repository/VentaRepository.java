@@ -1,16 +1,24 @@
 package SCRUM3.Bj_Byte.repository;
 
 import SCRUM3.Bj_Byte.model.Venta;
+import SCRUM3.Bj_Byte.repository.projection.LineaReporteView;
+import SCRUM3.Bj_Byte.repository.projection.LineaVentaView;
+import SCRUM3.Bj_Byte.repository.projection.RangoIdsView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface VentaRepository extends JpaRepository<Venta, Long> {
@@ -31,28 +39,297 @@ public interface VentaRepository extends JpaRepository<Venta, Long> {
     List<String> findDistinctDates();
 
     /**
-     * Filtro combinado que utiliza parámetros opcionales (producto, empleado, fecha)
-     * para buscar ventas. Soporta paginación.
+     * Filtro combinado que utiliza parámetros opcionales (producto, empleado y rango
+     * de fechas [inicio, fin)) y devuelve solo los IDs de la página pedida.
+     * El producto se filtra con EXISTS para no multiplicar filas (sin DISTINCT).
+     * El orden lo define el Pageable. Los datos se cargan después con
+     * {@link #findConDetallesByIdIn} y {@link #findConProveedoresByIdIn}.
+     */
+    @Query(value = """
+            SELECT v.id
+            FROM Venta v
+            WHERE
+                (:producto IS NULL OR :producto = '' OR EXISTS (
+                    SELECT 1 FROM VentaDetalle d JOIN d.inventario i JOIN i.producto p
+                    WHERE d.venta = v AND LOWER(p.nombre) = LOWER(:producto)))
+                AND
+                (:empleado IS NULL OR :empleado = '' OR LOWER(v.nombreEmpleado) = LOWER(:empleado))
+                AND
+                (:inicio IS NULL OR v.fecha >= :inicio)
+                AND
+                (:fin IS NULL OR v.fecha < :fin)
+            """,
+            countQuery = """
+            SELECT COUNT(v)
+            FROM Venta v
+            WHERE
+                (:producto IS NULL OR :producto = '' OR EXISTS (
+                    SELECT 1 FROM VentaDetalle d JOIN d.inventario i JOIN i.producto p
+                    WHERE d.venta = v AND LOWER(p.nombre) = LOWER(:producto)))
+                AND
+                (:empleado IS NULL OR :empleado = '' OR LOWER(v.nombreEmpleado) = LOWER(:empleado))
+                AND
+                (:inicio IS NULL OR v.fecha >= :inicio)
+                AND
+                (:fin IS NULL OR v.fecha < :fin)
+            """)
+    Page<Long> buscarIdsVentasConFiltros(
+            @Param("producto") String producto,
+            @Param("empleado") String empleado,
+            @Param("inicio") LocalDateTime inicio,
+            @Param("fin") LocalDateTime fin,
+            Pageable pageable);
+
+    /**
+     * Paginación por cursor (keyset): IDs de las ventas posteriores a la posición
+     * (fecha, id) en orden fecha DESC, id DESC. Con cursor null empieza por la más reciente.
+     * Usa el índice (fecha, id) y no hace conteo: el coste no depende de la profundidad.
+     * El Pageable solo limita el número de filas.
+     */
+    @Query("""
+            SELECT v.id
+            FROM Venta v
+            WHERE
+                (:producto IS NULL OR :producto = '' OR EXISTS (
+                    SELECT 1 FROM VentaDetalle d JOIN d.inventario i JOIN i.producto p
+                    WHERE d.venta = v AND LOWER(p.nombre) = LOWER(:producto)))
+                AND
+                (:empleado IS NULL OR :empleado = '' OR LOWER(v.nombreEmpleado) = LOWER(:empleado))
+                AND
+                (:inicio IS NULL OR v.fecha >= :inicio)
+                AND
+                (:fin IS NULL OR v.fecha < :fin)
+                AND
+                (:cursorFecha IS NULL
+                    OR v.fecha < :cursorFecha
+                    OR (v.fecha = :cursorFecha AND v.id < :cursorId))
+            ORDER BY v.fecha DESC, v.id DESC
+            """)
+    List<Long> buscarIdsDespuesDeCursor(
+            @Param("producto") String producto,
+            @Param("empleado") String empleado,
+            @Param("inicio") LocalDateTime inicio,
+            @Param("fin") LocalDateTime fin,
+            @Param("cursorFecha") LocalDateTime cursorFecha,
+            @Param("cursorId") Long cursorId,
+            Pageable limite);
+
+    /**
+     * Igual que {@link #buscarIdsDespuesDeCursor} pero hacia atrás: IDs de las ventas
+     * anteriores a la posición (más recientes que ella), en orden fecha ASC, id ASC.
      */
     @Query("""
-            SELECT DISTINCT v 
-            FROM Venta v 
+            SELECT v.id
+            FROM Venta v
+            WHERE
+                (:producto IS NULL OR :producto = '' OR EXISTS (
+                    SELECT 1 FROM VentaDetalle d JOIN d.inventario i JOIN i.producto p
+                    WHERE d.venta = v AND LOWER(p.nombre) = LOWER(:producto)))
+                AND
+                (:empleado IS NULL OR :empleado = '' OR LOWER(v.nombreEmpleado) = LOWER(:empleado))
+                AND
+                (:inicio IS NULL OR v.fecha >= :inicio)
+                AND
+                (:fin IS NULL OR v.fecha < :fin)
+                AND
+                (v.fecha > :cursorFecha OR (v.fecha = :cursorFecha AND v.id > :cursorId))
+            ORDER BY v.fecha ASC, v.id ASC
+            """)
+    List<Long> buscarIdsAntesDeCursor(
+            @Param("producto") String producto,
+            @Param("empleado") String empleado,
+            @Param("inicio") LocalDateTime inicio,
+            @Param("fin") LocalDateTime fin,
+            @Param("cursorFecha") LocalDateTime cursorFecha,
+            @Param("cursorId") Long cursorId,
+            Pageable limite);
+
+    /**
+     * Carga en una sola consulta las ventas indicadas con sus detalles, el inventario
+     * y el producto de cada detalle y el cliente registrado.
+     */
+    @Query("""
+            SELECT DISTINCT v
+            FROM Venta v
+            LEFT JOIN FETCH v.detalles d
+            LEFT JOIN FETCH d.inventario i
+            LEFT JOIN FETCH i.producto
+            LEFT JOIN FETCH v.clienteRegistrado
+            WHERE v.id IN :ids
+            """)
+    List<Venta> findConDetallesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Inicializa los proveedores de las ventas indicadas (consulta aparte para no
+     * cruzar detalles x proveedores en el mismo resultado).
+     */
+    @Query("SELECT DISTINCT v FROM Venta v LEFT JOIN FETCH v.proveedores WHERE v.id IN :ids")
+    List<Venta> findConProveedoresByIdIn(@Param("ids") Collection<Long> ids);
+
+    // =========================================================
+    // EXPORTACIONES (STREAMING) 📤
+    // =========================================================
+
+    /**
+     * Recorre las líneas de venta como filas planas, en orden de venta.
+     * Filtros opcionales (null = sin filtro): nombre de producto y de empleado
+     * (sin distinguir mayúsculas) y rango de fechas [inicio, fin).
+     * Se lee con un cursor hacia adelante por bloques (fetch size); debe consumirse
+     * dentro de una transacción de solo lectura y cerrarse al terminar.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            SELECT v.id AS ventaId,
+                   v.nombreEmpleado AS nombreEmpleado,
+                   v.fecha AS fecha,
+                   v.totalVenta AS totalVenta,
+                   p.nombre AS producto,
+                   p.precio AS precio,
+                   d.cantidad AS cantidad
+            FROM Venta v
             LEFT JOIN v.detalles d
             LEFT JOIN d.inventario i
             LEFT JOIN i.producto p
-            WHERE 
-                (:producto IS NULL OR :producto = '' OR LOWER(p.nombre) = LOWER(:producto)) 
-                AND 
-                (:empleado IS NULL OR :empleado = '' OR LOWER(v.nombreEmpleado) = LOWER(:empleado))
-                AND
-                (:fecha IS NULL OR :fecha = '' OR FUNCTION('DATE_FORMAT', v.fecha, '%Y-%m-%d') = :fecha)
-            ORDER BY v.fecha DESC
+            WHERE (:producto IS NULL OR LOWER(p.nombre) = LOWER(:producto))
+              AND (:empleado IS NULL OR LOWER(v.nombreEmpleado) = LOWER(:empleado))
+              AND (:inicio IS NULL OR v.fecha >= :inicio)
+              AND (:fin IS NULL OR v.fecha < :fin)
+            ORDER BY v.id, d.id
             """)
-    Page<Venta> buscarVentasConFiltrosPaginadas(
-            @Param("producto") String producto, 
-            @Param("empleado") String empleado, 
-            @Param("fecha") String fecha,
-            Pageable pageable);
+    Stream<LineaVentaView> streamLineasVenta(
+            @Param("producto") String producto,
+            @Param("empleado") String empleado,
+            @Param("inicio") LocalDateTime inicio,
+            @Param("fin") LocalDateTime fin);
+
+    /**
+     * Líneas de venta para los informes, en orden de venta (las líneas de una venta
+     * llegan seguidas). Filtros opcionales (null = sin filtro), sin distinguir
+     * mayúsculas y por coincidencia parcial: solo las líneas de productos cuyo nombre
+     * contiene el texto (las demás líneas de esas ventas no llegan), empleado cuyo
+     * nombre lo contiene, y rango [inicio, fin).
+     * Se lee con cursor por bloques; debe consumirse dentro de una transacción de
+     * solo lectura y cerrarse al terminar.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            SELECT v.id AS ventaId,
+                   v.fecha AS fecha,
+                   v.nombreEmpleado AS nombreEmpleado,
+                   v.totalVenta AS totalVenta,
+                   p.id AS productoId,
+                   p.nombre AS producto,
+                   d.cantidad AS cantidad,
+                   d.precioUnitario AS precioUnitario,
+                   d.totalLinea AS totalLinea,
+                   COALESCE(d.costoUnitario, p.precioBase) AS costoUnitario
+            FROM Venta v
+            LEFT JOIN v.detalles d
+            LEFT JOIN d.inventario i
+            LEFT JOIN i.producto p
+            WHERE (:producto IS NULL OR LOWER(p.nombre) LIKE LOWER(CONCAT('%', :producto, '%')))
+              AND (:empleado IS NULL OR LOWER(v.nombreEmpleado) LIKE LOWER(CONCAT('%', :empleado, '%')))
+              AND (:inicio IS NULL OR v.fecha >= :inicio)
+              AND (:fin IS NULL OR v.fecha < :fin)
+            ORDER BY v.id, d.id
+            """)
+    Stream<LineaReporteView> streamLineasReporte(
+            @Param("producto") String producto,
+            @Param("empleado") String empleado,
+            @Param("inicio") LocalDateTime inicio,
+            @Param("fin") LocalDateTime fin);
+
+    /**
+     * Líneas de las ventas de un empleado (null = todas) en [inicio, fin) (null = sin
+     * límite), en orden de venta, para los PDF de ventas. El precio unitario es el cobrado en la línea; las líneas
+     * anteriores a ese campo usan el precio actual del producto. Debe consumirse
+     * dentro de una transacción de solo lectura y cerrarse al terminar.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            SELECT v.id AS ventaId,
+                   v.fecha AS fecha,
+                   v.nombreEmpleado AS nombreEmpleado,
+                   v.totalVenta AS totalVenta,
+                   p.id AS productoId,
+                   p.nombre AS producto,
+                   d.cantidad AS cantidad,
+                   COALESCE(d.precioUnitario, p.precio) AS precioUnitario,
+                   d.totalLinea AS totalLinea,
+                   COALESCE(d.costoUnitario, p.precioBase) AS costoUnitario
+            FROM Venta v
+            LEFT JOIN v.detalles d
+            LEFT JOIN d.inventario i
+            LEFT JOIN i.producto p
+            WHERE (:empleadoId IS NULL OR v.empleado.id = :empleadoId)
+              AND (:inicio IS NULL OR v.fecha >= :inicio)
+              AND (:fin IS NULL OR v.fecha < :fin)
+            ORDER BY v.id, d.id
+            """)
+    Stream<LineaReporteView> streamLineasEmpleado(
+            @Param("empleadoId") Long empleadoId,
+            @Param("inicio") LocalDateTime inicio,
+            @Param("fin") LocalDateTime fin);
+
+    /**
+     * Menor y mayor id de las ventas que cumplen los filtros del informe financiero
+     * (nombre exacto de producto incluido en la venta, nombre exacto de empleado y
+     * rango [inicio, fin); null = sin filtro). Sirve para repartir el recorrido por tramos.
+     */
+    @Query("""
+            SELECT MIN(v.id) AS minimo, MAX(v.id) AS maximo
+            FROM Venta v
+            WHERE (:producto IS NULL OR EXISTS (
+                      SELECT 1 FROM VentaDetalle d2 JOIN d2.inventario i2 JOIN i2.producto p2
+                      WHERE d2.venta = v AND p2.nombre = :producto))
+              AND (:empleado IS NULL OR v.nombreEmpleado = :empleado)
+              AND (:inicio IS NULL OR v.fecha >= :inicio)
+              AND (:fin IS NULL OR v.fecha < :fin)
+            """)
+    RangoIdsView rangoIdsInforme(
+            @Param("producto") String producto,
+            @Param("empleado") String empleado,
+            @Param("inicio") LocalDateTime inicio,
+            @Param("fin") LocalDateTime fin);
+
+    /**
+     * Líneas del informe financiero de las ventas con id en [idDesde, idHasta],
+     * con los mismos filtros que {@link #rangoIdsInforme}. Orden por venta: las líneas
+     * de una venta llegan seguidas. Debe consumirse dentro de una transacción de solo
+     * lectura y cerrarse al terminar.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            SELECT v.id AS ventaId,
+                   v.fecha AS fecha,
+                   v.nombreEmpleado AS nombreEmpleado,
+                   v.totalVenta AS totalVenta,
+                   p.id AS productoId,
+                   p.nombre AS producto,
+                   d.cantidad AS cantidad,
+                   d.precioUnitario AS precioUnitario,
+                   d.totalLinea AS totalLinea,
+                   COALESCE(d.costoUnitario, p.precioBase) AS costoUnitario
+            FROM Venta v
+            LEFT JOIN v.detalles d
+            LEFT JOIN d.inventario i
+            LEFT JOIN i.producto p
+            WHERE v.id >= :idDesde AND v.id <= :idHasta
+              AND (:producto IS NULL OR EXISTS (
+                      SELECT 1 FROM VentaDetalle d2 JOIN d2.inventario i2 JOIN i2.producto p2
+                      WHERE d2.venta = v AND p2.nombre = :producto))
+              AND (:empleado IS NULL OR v.nombreEmpleado = :empleado)
+              AND (:inicio IS NULL OR v.fecha >= :inicio)
+              AND (:fin IS NULL OR v.fecha < :fin)
+            ORDER BY v.id, d.id
+            """)
+    Stream<LineaReporteView> streamLineasInforme(
+            @Param("producto") String producto,
+            @Param("empleado") String empleado,
+            @Param("inicio") LocalDateTime inicio,
+            @Param("fin") LocalDateTime fin,
+            @Param("idDesde") Long idDesde,
+            @Param("idHasta") Long idHasta);
 
     // =========================================================
     // CONSULTAS DE BÚSQUEDA DIRECTA 🔍
@@ -0,0 +1,32 @@
+package SCRUM3.Bj_Byte.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Fila plana "venta x línea" para los informes: datos de la venta repetidos en
+ * cada línea, sin entidades ni contexto de persistencia. Una venta sin detalles
+ * produce una sola fila con los campos de la línea en null.
+ */
+public interface LineaReporteView {
+
+    Long getVentaId();
+
+    LocalDateTime getFecha();
+
+    String getNombreEmpleado();
+
+    BigDecimal getTotalVenta();
+
+    Long getProductoId();
+
+    String getProducto();
+
+    Integer getCantidad();
+
+    BigDecimal getPrecioUnitario();
+
+    BigDecimal getTotalLinea();
+
+    BigDecimal getCostoUnitario();
+}
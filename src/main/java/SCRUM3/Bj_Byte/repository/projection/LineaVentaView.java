@@ -0,0 +1,26 @@
+package SCRUM3.Bj_Byte.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Fila plana "venta x línea" para exportaciones: solo las columnas necesarias,
+ * sin cargar entidades. Una venta sin detalles produce una fila con los campos
+ * de la línea en null.
+ */
+public interface LineaVentaView {
+
+    Long getVentaId();
+
+    String getNombreEmpleado();
+
+    LocalDateTime getFecha();
+
+    BigDecimal getTotalVenta();
+
+    String getProducto();
+
+    BigDecimal getPrecio();
+
+    Integer getCantidad();
+}
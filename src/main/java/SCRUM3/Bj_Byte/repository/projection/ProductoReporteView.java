@@ -0,0 +1,22 @@
+package SCRUM3.Bj_Byte.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Datos de catálogo de un producto que muestran los informes (sin proveedores
+ * ni inventario, y sin pasar por el contexto de persistencia).
+ */
+public interface ProductoReporteView {
+
+    Long getId();
+
+    String getNombre();
+
+    String getDescripcion();
+
+    BigDecimal getPrecioBase();
+
+    Boolean getExento();
+
+    Boolean getActivo();
+}
@@ -0,0 +1,11 @@
+package SCRUM3.Bj_Byte.repository.projection;
+
+/**
+ * Menor y mayor id de un conjunto de ventas (ambos null si no hay ninguna).
+ */
+public interface RangoIdsView {
+
+    Long getMinimo();
+
+    Long getMaximo();
+}
@@ -0,0 +1,11 @@
+package SCRUM3.Bj_Byte.repository.projection;
+
+/**
+ * Inventario con pocas unidades: solo lo que muestra la alerta del inicio.
+ */
+public interface StockBajoView {
+
+    String getProducto();
+
+    Integer getCantidad();
+}
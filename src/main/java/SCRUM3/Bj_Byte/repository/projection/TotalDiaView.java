@@ -0,0 +1,18 @@
+package SCRUM3.Bj_Byte.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Totales de un día leídos del resumen diario de ventas.
+ */
+public interface TotalDiaView {
+
+    LocalDate getDia();
+
+    BigDecimal getIngresos();
+
+    Long getUnidades();
+
+    BigDecimal getCosto();
+}
@@ -0,0 +1,77 @@
+package SCRUM3.Bj_Byte.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Completa, una sola vez, el costo unitario de las líneas de venta anteriores a ese campo.
+ *
+ * Las ventas nuevas guardan el precioBase del producto al venderse; para las
+ * antiguas se toma el precioBase actual (es el mismo valor que usaba el cálculo
+ * de ganancias hasta ahora). Solo toca filas con el costo en null.
+ *
+ * Se ejecuta cuando la aplicación ya está lista, por tramos de IDs (cada UPDATE
+ * bloquea pocas filas), y al terminar queda registrada en la tabla de migraciones:
+ * las líneas cuyo producto no tiene precioBase siguen en null y no se vuelven a
+ * recorrer en cada arranque.
+ */
+@Component
+public class CostoVentaDetalleInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(CostoVentaDetalleInitializer.class);
+
+    static final String TABLA_MIGRACIONES = "migraciones_datos";
+    static final String MIGRACION = "costo_unitario_venta_detalle";
+
+    // IDs de venta_detalle por cada UPDATE
+    private static final int LOTE = 5000;
+
+    private static final String SQL_COMPLETAR = "UPDATE venta_detalle d SET costo_unitario = ("
+            + " SELECT p.precio_base FROM inventarios i JOIN producto p ON p.id = i.producto_id"
+            + " WHERE i.id = d.inventario_id)"
+            + " WHERE d.costo_unitario IS NULL AND d.id >= ? AND d.id < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CostoVentaDetalleInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void completarCostos() {
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLA_MIGRACIONES + " ("
+                    + "nombre VARCHAR(100) NOT NULL, aplicada_en TIMESTAMP, PRIMARY KEY (nombre))");
+            Integer aplicada = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM " + TABLA_MIGRACIONES + " WHERE nombre = ?", Integer.class, MIGRACION);
+            if (aplicada != null && aplicada > 0) {
+                return;
+            }
+
+            Map<String, Object> rango = jdbcTemplate.queryForMap(
+                    "SELECT MIN(id) AS desde, MAX(id) AS hasta FROM venta_detalle WHERE costo_unitario IS NULL");
+            int filas = 0;
+            if (rango.get("desde") != null) {
+                long hasta = ((Number) rango.get("hasta")).longValue();
+                for (long desde = ((Number) rango.get("desde")).longValue(); desde <= hasta; desde += LOTE) {
+                    filas += jdbcTemplate.update(SQL_COMPLETAR, desde, desde + LOTE);
+                }
+            }
+
+            jdbcTemplate.update("INSERT INTO " + TABLA_MIGRACIONES + " (nombre, aplicada_en) VALUES (?, ?)",
+                    MIGRACION, Timestamp.valueOf(LocalDateTime.now()));
+            logger.info("Costo unitario completado en {} líneas de venta", filas);
+        } catch (DataAccessException e) {
+            logger.warn("No se pudo completar el costo de las líneas de venta: {}", e.getMessage());
+        }
+    }
+}
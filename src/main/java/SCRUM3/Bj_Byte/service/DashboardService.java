@@ -0,0 +1,169 @@
+package SCRUM3.Bj_Byte.service;
+
+import SCRUM3.Bj_Byte.repository.CitaRepository;
+import SCRUM3.Bj_Byte.repository.InventarioRepository;
+import SCRUM3.Bj_Byte.repository.ResumenVentaDiariaRepository;
+import SCRUM3.Bj_Byte.repository.projection.TotalDiaView;
+import SCRUM3.Bj_Byte.service.dto.ResumenDashboard;
+import SCRUM3.Bj_Byte.service.event.VentaEliminadaEvent;
+import SCRUM3.Bj_Byte.service.event.VentaRegistradaEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tablero de inicio compartido.
+ *
+ * Los totales salen del resumen diario (una consulta agrupada por día para la semana
+ * y una suma para el histórico), así que el coste no crece con el número de ventas.
+ * El resultado se guarda en una instantánea común con un TTL corto; registrar o
+ * eliminar una venta la marca como caducada. Solo un hilo la recalcula a la vez y,
+ * mientras tanto, los demás reciben la anterior en lugar de esperar.
+ */
+@Service
+public class DashboardService {
+
+    // Menos unidades que esto = alerta de bajo stock
+    private static final int LIMITE_STOCK_BAJO = 5;
+
+    private final ResumenVentaDiariaRepository resumenRepository;
+    private final CitaRepository citaRepository;
+    private final InventarioRepository inventarioRepository;
+    private final long ttlMillis;
+
+    private volatile Instantanea actual;
+
+    // Cambia con cada venta: una instantánea que pudo no verla se publica ya caducada
+    private final AtomicLong generacion = new AtomicLong();
+    private final ReentrantLock recalculo = new ReentrantLock();
+
+    public DashboardService(ResumenVentaDiariaRepository resumenRepository,
+                            CitaRepository citaRepository,
+                            InventarioRepository inventarioRepository,
+                            @Value("${ventas.dashboard.ttl-segundos:30}") long ttlSegundos) {
+        this.resumenRepository = resumenRepository;
+        this.citaRepository = citaRepository;
+        this.inventarioRepository = inventarioRepository;
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSegundos);
+    }
+
+    /**
+     * Devuelve la instantánea vigente o la recalcula si caducó, cambió el día o hubo ventas.
+     * Si otro hilo ya la está recalculando se devuelve la del día que haya, aunque esté caducada.
+     */
+    public ResumenDashboard obtenerResumen() {
+        LocalDate hoy = LocalDate.now();
+        Instantanea vigente = actual;
+        if (vigente != null && vigente.esValida(hoy)) {
+            return vigente.resumen;
+        }
+
+        if (vigente != null && vigente.esDelDia(hoy)) {
+            if (!recalculo.tryLock()) {
+                return vigente.resumen;
+            }
+        } else {
+            // Sin nada que servir de hoy (arranque o cambio de día) se espera al cálculo
+            recalculo.lock();
+        }
+        try {
+            vigente = actual;
+            if (vigente != null && vigente.esValida(hoy)) {
+                return vigente.resumen; // otro hilo la acaba de recalcular
+            }
+            long gen = generacion.get();
+            ResumenDashboard resumen = calcular(hoy);
+            // Se publica siempre: solo contiene ventas confirmadas. Si entró otra venta
+            // mientras se calculaba, queda caducada y la siguiente petición la refresca
+            Instantanea nueva = new Instantanea(resumen, System.currentTimeMillis() + ttlMillis);
+            actual = nueva;
+            if (generacion.get() != gen) {
+                actual = nueva.caducada();
+            }
+            return resumen;
+        } finally {
+            recalculo.unlock();
+        }
+    }
+
+    public void invalidar() {
+        generacion.incrementAndGet();
+        Instantanea vigente = actual;
+        if (vigente != null) {
+            actual = vigente.caducada();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void alRegistrarVenta(VentaRegistradaEvent evento) {
+        invalidar();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void alEliminarVenta(VentaEliminadaEvent evento) {
+        invalidar();
+    }
+
+    private ResumenDashboard calcular(LocalDate hoy) {
+        LocalDate lunes = hoy.with(DayOfWeek.MONDAY);
+
+        // Semana de lunes a domingo en una sola consulta; los días sin ventas quedan en 0
+        BigDecimal[] semana = new BigDecimal[7];
+        Arrays.fill(semana, BigDecimal.ZERO);
+        for (TotalDiaView d : resumenRepository.totalesPorDia(lunes, lunes.plusDays(7), null)) {
+            semana[(int) ChronoUnit.DAYS.between(lunes, d.getDia())] = d.getIngresos();
+        }
+        List<Double> ventasSemana = new ArrayList<>(7);
+        for (BigDecimal total : semana) {
+            ventasSemana.add(total.doubleValue());
+        }
+        BigDecimal ventasHoy = semana[(int) ChronoUnit.DAYS.between(lunes, hoy)];
+
+        BigDecimal ventasHistoricas = resumenRepository.totalIngresosHistorico();
+
+        return new ResumenDashboard(
+                hoy,
+                ventasHoy,
+                ventasHistoricas != null ? ventasHistoricas : BigDecimal.ZERO,
+                citaRepository.countByEstado("Pendiente"),
+                inventarioRepository.count(),
+                ventasSemana,
+                inventarioRepository.buscarStockBajo(LIMITE_STOCK_BAJO),
+                LocalDateTime.now());
+    }
+
+    private static final class Instantanea {
+        final ResumenDashboard resumen;
+        final long expiraEn;
+
+        Instantanea(ResumenDashboard resumen, long expiraEn) {
+            this.resumen = resumen;
+            this.expiraEn = expiraEn;
+        }
+
+        boolean esValida(LocalDate hoy) {
+            return esDelDia(hoy) && System.currentTimeMillis() < expiraEn;
+        }
+
+        boolean esDelDia(LocalDate hoy) {
+            return resumen.getDia().equals(hoy);
+        }
+
+        Instantanea caducada() {
+            return new Instantanea(resumen, 0);
+        }
+    }
+}
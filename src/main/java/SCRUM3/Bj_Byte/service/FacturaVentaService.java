@@ -0,0 +1,355 @@
+package SCRUM3.Bj_Byte.service;
+
+import SCRUM3.Bj_Byte.dto.DetalleFacturaDTO;
+import SCRUM3.Bj_Byte.model.Producto;
+import SCRUM3.Bj_Byte.model.Venta;
+import SCRUM3.Bj_Byte.model.VentaDetalle;
+import SCRUM3.Bj_Byte.repository.VentaRepository;
+import SCRUM3.Bj_Byte.service.cache.CacheLruBytes;
+import SCRUM3.Bj_Byte.service.event.VentaRegistradaEvent;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.thymeleaf.context.Context;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Facturas PDF de las ventas.
+ *
+ * Cada venta confirmada se renderiza en segundo plano (después del commit) y el PDF
+ * se guarda en disco; las descargas y los escaneos del QR sirven ese archivo. Si aún
+ * no existe (venta anterior, cola llena o error), se renderiza en el momento y se guarda.
+ *
+ * Además se mantiene en memoria una caché LRU acotada por bytes. Mientras haya
+ * operaciones en curso sobre la factura de una venta (renderizados, lecturas,
+ * invalidaciones) se lleva su versión: al eliminar o modificar la venta se
+ * incrementa, y un renderizado o lectura que empezó antes ya no se guarda ni en
+ * la caché ni en disco. Guardar e invalidar se excluyen entre sí por venta; la
+ * versión se descarta cuando ya nadie la usa.
+ */
+@Service
+public class FacturaVentaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FacturaVentaService.class);
+
+    // --- Configuración de URL Fija para QR ---
+    public static final String APP_BASE_URL = "https://intuitive-generosity-bj-bytes.up.railway.app";
+    public static final String RUTA_DESCARGA = "/ventas/descargar-factura/";
+
+    private static final BigDecimal IVA = new BigDecimal("0.19");
+
+    private final VentaRepository ventaRepository;
+    private final InvoicePdfService invoicePdfService;
+    private final RecursosFacturaRegistry recursos;
+    private final TransactionTemplate lectura;
+    private final Path directorio;
+    private final boolean prerenderizar;
+    private final ThreadPoolExecutor executor;
+    private final CacheLruBytes<Long> cache;
+    private final Map<Long, EstadoFactura> estados = new ConcurrentHashMap<>();
+
+    public FacturaVentaService(
+            VentaRepository ventaRepository,
+            InvoicePdfService invoicePdfService,
+            RecursosFacturaRegistry recursos,
+            PlatformTransactionManager transactionManager,
+            @Value("${ventas.facturas.directorio:${java.io.tmpdir}/bjbyte/facturas}") String directorio,
+            @Value("${ventas.facturas.prerenderizar:true}") boolean prerenderizar,
+            @Value("${ventas.facturas.hilos:2}") int hilos,
+            @Value("${ventas.facturas.cola:100}") int cola,
+            @Value("${ventas.facturas.cache-max-mb:64}") long cacheMaxMb) {
+        this.ventaRepository = ventaRepository;
+        this.invoicePdfService = invoicePdfService;
+        this.recursos = recursos;
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+        this.directorio = Paths.get(directorio);
+        this.prerenderizar = prerenderizar;
+        this.cache = new CacheLruBytes<>(cacheMaxMb * 1024 * 1024);
+
+        AtomicInteger contador = new AtomicInteger();
+        // Pool y cola acotados: si se llenan, la factura se renderiza al descargarla
+        this.executor = new ThreadPoolExecutor(hilos, hilos, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(cola), r -> {
+                    Thread t = new Thread(r, "factura-pdf-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @PreDestroy
+    public void detener() {
+        executor.shutdown();
+    }
+
+    /**
+     * Encola el renderizado de la factura cuando la venta ya está confirmada.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void alRegistrarVenta(VentaRegistradaEvent evento) {
+        if (!prerenderizar) return;
+        Long ventaId = evento.getVentaId();
+        try {
+            executor.execute(() -> {
+                EstadoFactura estado = adquirir(ventaId);
+                try {
+                    if (!Files.exists(archivo(ventaId))) {
+                        long version = estado.version();
+                        byte[] pdf = renderizar(ventaId);
+                        guardar(ventaId, estado, version, pdf);
+                    }
+                } catch (Exception e) {
+                    logger.warn("No se pudo pre-renderizar la factura {}: {}", ventaId, e.getMessage());
+                } finally {
+                    liberar(ventaId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("Cola de facturas llena; la factura {} se generará al descargarla", ventaId);
+        }
+    }
+
+    /**
+     * Devuelve el PDF de la factura: desde la caché en memoria, desde disco o,
+     * si no existe, lo genera y lo guarda.
+     *
+     * @throws NoSuchElementException Si la venta no existe
+     */
+    public byte[] obtenerPdf(Long ventaId) throws Exception {
+        byte[] pdf = cache.obtener(ventaId);
+        if (pdf != null) {
+            return pdf;
+        }
+
+        EstadoFactura estado = adquirir(ventaId);
+        try {
+            long version = estado.version();
+            try {
+                pdf = Files.readAllBytes(archivo(ventaId));
+                synchronized (estado) {
+                    if (estado.version == version) {
+                        cache.guardar(ventaId, pdf);
+                    }
+                }
+            } catch (NoSuchFileException e) {
+                pdf = renderizar(ventaId);
+                guardar(ventaId, estado, version, pdf);
+            }
+            return pdf;
+        } finally {
+            liberar(ventaId);
+        }
+    }
+
+    /**
+     * Invalida la factura de una venta (al eliminarla o modificarla): sube su versión,
+     * la quita de la caché y borra el PDF guardado.
+     */
+    public void invalidar(Long ventaId) {
+        EstadoFactura estado = adquirir(ventaId);
+        try {
+            synchronized (estado) {
+                estado.version++;
+                cache.invalidar(ventaId);
+                try {
+                    Files.deleteIfExists(archivo(ventaId));
+                } catch (IOException e) {
+                    logger.warn("No se pudo borrar la factura guardada {}: {}", ventaId, e.getMessage());
+                }
+            }
+        } finally {
+            liberar(ventaId);
+        }
+    }
+
+    /**
+     * Ventas con operaciones de factura en curso (las que tienen versión en memoria).
+     */
+    int ventasEnCurso() {
+        return estados.size();
+    }
+
+    private byte[] renderizar(Long ventaId) throws Exception {
+        // Los datos se leen dentro de una transacción; el layout del PDF se hace fuera
+        Context ctx = lectura.execute(status -> construirContexto(ventaRepository.findById(ventaId)
+                .orElseThrow(() -> new NoSuchElementException("Venta no encontrada con ID: " + ventaId))));
+
+        ByteArrayOutputStream pdfOutputStream = new ByteArrayOutputStream();
+        invoicePdfService.generatePdf(RecursosFacturaRegistry.PLANTILLA_FACTURA, ctx, APP_BASE_URL, pdfOutputStream);
+        return pdfOutputStream.toByteArray();
+    }
+
+    /**
+     * Aciertos, fallos, expulsiones y ocupación de la caché de facturas.
+     */
+    public Map<String, Object> estadisticasCache() {
+        return cache.estadisticas();
+    }
+
+    // Registra una operación en curso sobre la factura; mientras dure, su versión se conserva
+    private EstadoFactura adquirir(Long ventaId) {
+        return estados.compute(ventaId, (id, estado) -> {
+            EstadoFactura e = estado != null ? estado : new EstadoFactura();
+            e.enUso++;
+            return e;
+        });
+    }
+
+    // Sin operaciones en curso la versión ya no hace falta: nada de lo que esté por
+    // guardarse puede ser anterior a la última invalidación
+    private void liberar(Long ventaId) {
+        estados.computeIfPresent(ventaId, (id, e) -> --e.enUso == 0 ? null : e);
+    }
+
+    private void guardar(Long ventaId, EstadoFactura estado, long version, byte[] pdf) {
+        Path temporal = null;
+        try {
+            Files.createDirectories(directorio);
+            // Se escribe en un temporal y se mueve, para no servir nunca un archivo a medias
+            temporal = Files.createTempFile(directorio, "FV-" + ventaId, ".tmp");
+            Files.write(temporal, pdf);
+            synchronized (estado) {
+                // Si la venta se invalidó mientras se renderizaba, el resultado ya no sirve
+                if (estado.version != version) return;
+                cache.guardar(ventaId, pdf);
+                Files.move(temporal, archivo(ventaId), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                temporal = null;
+            }
+        } catch (IOException e) {
+            logger.warn("No se pudo guardar la factura {}: {}", ventaId, e.getMessage());
+        } finally {
+            if (temporal != null) {
+                try {
+                    Files.deleteIfExists(temporal);
+                } catch (IOException e) {
+                    logger.debug("No se pudo borrar el temporal {}: {}", temporal, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * QR (data URI PNG) con la URL de descarga de la factura; lo usan el PDF y la vista del resumen.
+     *
+     * @return El data URI o null si no se pudo generar
+     */
+    public String qrDescarga(Long ventaId) {
+        try {
+            String qrDownloadUrl = APP_BASE_URL + RUTA_DESCARGA + ventaId;
+
+            QRCodeWriter qr = new QRCodeWriter();
+            BitMatrix matrix = qr.encode(qrDownloadUrl, BarcodeFormat.QR_CODE, 150, 150);
+
+            ByteArrayOutputStream outQR = new ByteArrayOutputStream();
+            MatrixToImageWriter.writeToStream(matrix, "PNG", outQR);
+
+            return "data:image/png;base64," + Base64.getEncoder().encodeToString(outQR.toByteArray());
+
+        } catch (Exception e) {
+            logger.warn("Error QR: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private Path archivo(Long ventaId) {
+        return directorio.resolve("FV-" + ventaId + ".pdf");
+    }
+
+    private Context construirContexto(Venta venta) {
+        Context ctx = new Context();
+        ctx.setVariable("venta", venta);
+        ctx.setVariable("baseUrl", APP_BASE_URL);
+
+        // Lógica de llenado de variables de empresa
+        ctx.setVariable("empresaNombre", "BJ.BYTES");
+        ctx.setVariable("empresaDireccion", "Calle 123 - Bogotá");
+        ctx.setVariable("empresaTelefono", "+57 300 000 0000");
+        ctx.setVariable("empresaNIT", "NIT 123456789-0");
+
+        // --- Cálculo de Totales y Detalles DTO ---
+        List<DetalleFacturaDTO> detallesDto = new ArrayList<>();
+        BigDecimal subtotal = BigDecimal.ZERO;
+        BigDecimal ivaTotal = BigDecimal.ZERO;
+
+        for (VentaDetalle d : venta.getDetalles()) {
+            Producto prod = d.getInventario().getProducto();
+            boolean exento = prod.getExento() != null && prod.getExento();
+
+            DetalleFacturaDTO dto = new DetalleFacturaDTO();
+            dto.setNombre(prod.getNombre());
+            dto.setDescripcion(prod.getDescripcion() != null ? prod.getDescripcion() : "Producto vendido");
+            dto.setCantidad(d.getCantidad());
+            dto.setPrecio(prod.getPrecio());
+            dto.setExento(exento);
+
+            BigDecimal precio = prod.getPrecio();
+            BigDecimal lineaSubtotal = precio.multiply(BigDecimal.valueOf(d.getCantidad()));
+            BigDecimal iva = exento ? BigDecimal.ZERO : lineaSubtotal.multiply(IVA);
+            BigDecimal totalLinea = lineaSubtotal.add(iva);
+
+            dto.setIva(iva);
+            dto.setTotalLinea(totalLinea);
+
+            subtotal = subtotal.add(lineaSubtotal);
+            ivaTotal = ivaTotal.add(iva);
+
+            detallesDto.add(dto);
+        }
+
+        ctx.setVariable("detallesDto", detallesDto);
+        ctx.setVariable("subtotal", subtotal);
+        ctx.setVariable("ivaTotal", ivaTotal);
+        ctx.setVariable("totalPagar", subtotal.add(ivaTotal));
+
+        // --- Llenado de Cliente ---
+        ctx.setVariable("clienteNombre", venta.getCliente() != null ? venta.getCliente() : "Cliente Final");
+        ctx.setVariable("clienteDocumento", venta.getClienteDocumento() != null ? venta.getClienteDocumento() : "");
+        ctx.setVariable("clienteTelefono", venta.getClienteTelefono() != null ? venta.getClienteTelefono() : "");
+        ctx.setVariable("clienteDireccion", venta.getClienteDireccion() != null ? venta.getClienteDireccion() : "");
+
+        // --- Logo (precargado) y QR con la URL de DESCARGA ---
+        ctx.setVariable("logoBase64", recursos.getLogoDataUri());
+        ctx.setVariable("qrBase64", qrDescarga(venta.getId()));
+
+        return ctx;
+    }
+
+    // Versión de la factura de una venta y operaciones que la están usando
+    private static final class EstadoFactura {
+        long version;
+        int enUso;
+
+        synchronized long version() {
+            return version;
+        }
+    }
+}
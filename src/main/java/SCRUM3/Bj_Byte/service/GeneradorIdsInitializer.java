@@ -0,0 +1,71 @@
+package SCRUM3.Bj_Byte.service;
+
+import SCRUM3.Bj_Byte.model.GeneradorIds;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sincroniza los contadores de la tabla de generadores de IDs al arrancar.
+ *
+ * Las ventas existentes se crearon con AUTO_INCREMENT, y una copia de seguridad
+ * restaurada puede traer contadores por detrás de sus datos: cada contador se
+ * coloca por encima del mayor ID ya usado para que los nuevos IDs nunca choquen
+ * con los antiguos.
+ */
+@Component
+public class GeneradorIdsInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeneradorIdsInitializer.class);
+
+    // Segmento del generador -> tabla cuyos IDs genera
+    private static final Map<String, String> SEGMENTOS = Map.of(
+            "ventas", "ventas",
+            "venta_detalle", "venta_detalle");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Se inyecta la EntityManagerFactory para ejecutarse después de que Hibernate cree/actualice el esquema
+    public GeneradorIdsInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void sincronizarContadores() {
+        SEGMENTOS.forEach((segmento, tabla) -> {
+            try {
+                sincronizar(segmento, tabla);
+            } catch (DataAccessException e) {
+                logger.warn("No se pudo sincronizar el generador de IDs '{}': {}", segmento, e.getMessage());
+            }
+        });
+    }
+
+    private void sincronizar(String segmento, String tabla) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + tabla, Long.class);
+        long minimo = (maxId != null ? maxId : 0L) + GeneradorIds.BLOQUE;
+
+        List<Long> actual = jdbcTemplate.queryForList(
+                "SELECT " + GeneradorIds.COLUMNA_VALOR + " FROM " + GeneradorIds.TABLA
+                        + " WHERE " + GeneradorIds.COLUMNA_ENTIDAD + " = ?",
+                Long.class, segmento);
+
+        if (actual.isEmpty()) {
+            jdbcTemplate.update("INSERT INTO " + GeneradorIds.TABLA + " ("
+                    + GeneradorIds.COLUMNA_ENTIDAD + ", " + GeneradorIds.COLUMNA_VALOR + ") VALUES (?, ?)",
+                    segmento, minimo);
+            logger.info("Generador de IDs '{}' inicializado en {}", segmento, minimo);
+        } else if (actual.get(0) == null || actual.get(0) < minimo) {
+            jdbcTemplate.update("UPDATE " + GeneradorIds.TABLA + " SET " + GeneradorIds.COLUMNA_VALOR
+                    + " = ? WHERE " + GeneradorIds.COLUMNA_ENTIDAD + " = ?", minimo, segmento);
+            logger.info("Generador de IDs '{}' ajustado a {}", segmento, minimo);
+        }
+    }
+}
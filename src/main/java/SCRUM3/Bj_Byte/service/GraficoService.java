@@ -0,0 +1,67 @@
+package SCRUM3.Bj_Byte.service;
+
+import SCRUM3.Bj_Byte.service.pdf.GraficoPdf;
+import com.lowagie.text.BadElementException;
+import com.lowagie.text.Image;
+import com.lowagie.text.pdf.PdfContentByte;
+import com.lowagie.text.pdf.PdfWriter;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dibuja los gráficos de los reportes y cuenta cuántos se dibujaron y cuánto
+ * tiempo llevó.
+ *
+ * Los gráficos son vectoriales y se dibujan directamente en el documento: no se
+ * guardan en caché porque importar uno ya dibujado (volver a leer su PDF) no
+ * resulta más rápido que dibujarlo.
+ */
+@Service
+public class GraficoService {
+
+    private final AtomicLong dibujados = new AtomicLong();
+    private final AtomicLong nanosDibujo = new AtomicLong();
+
+    /**
+     * El gráfico como elemento para agregar al documento del escritor.
+     */
+    public Image imagen(GraficoPdf grafico, PdfWriter writer) throws BadElementException {
+        long inicio = System.nanoTime();
+        try {
+            return grafico.comoImagen(writer);
+        } finally {
+            contar(inicio);
+        }
+    }
+
+    /**
+     * Dibuja el gráfico en el lienzo (p. ej. una plantilla reservada) con la
+     * esquina inferior izquierda en (x, y).
+     */
+    public void dibujar(GraficoPdf grafico, PdfContentByte lienzo, float x, float y) {
+        long inicio = System.nanoTime();
+        try {
+            grafico.dibujar(lienzo, x, y);
+        } finally {
+            contar(inicio);
+        }
+    }
+
+    private void contar(long inicio) {
+        nanosDibujo.addAndGet(System.nanoTime() - inicio);
+        dibujados.incrementAndGet();
+    }
+
+    /**
+     * Gráficos dibujados y tiempo total de dibujo.
+     */
+    public Map<String, Object> estadisticas() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("dibujados", dibujados.get());
+        stats.put("msDibujo", nanosDibujo.get() / 1_000_000.0);
+        return stats;
+    }
+}
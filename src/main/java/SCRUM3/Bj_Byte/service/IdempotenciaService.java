@@ -0,0 +1,202 @@
+package SCRUM3.Bj_Byte.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Almacén de claves de idempotencia (cabecera Idempotency-Key).
+ *
+ * Garantiza que un reintento con la misma clave (por ejemplo, una tablet POS con
+ * red inestable) devuelva el resultado original en lugar de ejecutar la operación
+ * otra vez. El almacén está acotado en número de claves y cada clave expira tras
+ * un tiempo configurable. Si la operación falla, la clave se libera para que el
+ * cliente pueda reintentar. Al llegar al límite solo se descartan claves cuya
+ * operación ya terminó; si todas siguen en curso, la petición nueva se rechaza.
+ */
+@Service
+public class IdempotenciaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotenciaService.class);
+
+    private final int maxClaves;
+    private final long ttlMillis;
+    private final long esperaMillis;
+
+    // Orden de inserción: las claves más antiguas quedan al principio
+    private final LinkedHashMap<String, Entrada> entradas = new LinkedHashMap<>();
+
+    public IdempotenciaService(
+            @Value("${ventas.idempotencia.max-claves:10000}") int maxClaves,
+            @Value("${ventas.idempotencia.ttl-minutos:1440}") long ttlMinutos,
+            @Value("${ventas.idempotencia.espera-segundos:30}") long esperaSegundos) {
+        this.maxClaves = maxClaves;
+        this.ttlMillis = TimeUnit.MINUTES.toMillis(ttlMinutos);
+        this.esperaMillis = TimeUnit.SECONDS.toMillis(esperaSegundos);
+    }
+
+    /**
+     * Ejecuta la acción una sola vez por clave.
+     *
+     * @param clave Clave de idempotencia (ya acotada al usuario que la envía)
+     * @param huella Huella del contenido de la petición; reutilizar una clave con otro contenido es un error
+     * @param accion Operación a ejecutar
+     * @return Resultado de la acción, indicando si es una repetición de uno anterior
+     * @throws ClaveReutilizadaException Si la clave ya se usó con una petición distinta
+     * @throws AlmacenLlenoException Si el almacén está lleno de claves en curso
+     */
+    public <T> Resultado<T> ejecutar(String clave, String huella, Supplier<T> accion) {
+        Entrada entrada;
+        boolean propietario = false;
+
+        synchronized (entradas) {
+            purgar(System.currentTimeMillis());
+            entrada = entradas.get(clave);
+            if (entrada == null) {
+                if (!hacerSitio()) {
+                    throw new AlmacenLlenoException();
+                }
+                entrada = new Entrada(huella, System.currentTimeMillis() + ttlMillis);
+                entradas.put(clave, entrada);
+                propietario = true;
+            }
+        }
+
+        if (!Objects.equals(entrada.huella, huella)) {
+            throw new ClaveReutilizadaException(clave);
+        }
+
+        if (propietario) {
+            try {
+                T valor = accion.get();
+                entrada.resultado.complete(valor);
+                return new Resultado<>(valor, false);
+            } catch (Throwable e) {
+                // Se libera la clave (también ante un Error): el fallo no se memoriza, quien
+                // espera recibe la misma excepción y el cliente puede reintentar
+                synchronized (entradas) {
+                    entradas.remove(clave, entrada);
+                }
+                entrada.resultado.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        // Otra petición con la misma clave está en curso o ya terminó: se espera su resultado
+        try {
+            @SuppressWarnings("unchecked")
+            T valor = (T) entrada.resultado.get(esperaMillis, TimeUnit.MILLISECONDS);
+            logger.info("Petición repetida con Idempotency-Key {}: se devuelve el resultado original", clave);
+            return new Resultado<>(valor, true);
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException re) throw re;
+            if (causa instanceof Error err) throw err;
+            throw new IllegalStateException(causa);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("La petición original con esta clave sigue en proceso");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Espera interrumpida");
+        }
+    }
+
+    public int getTotalClaves() {
+        synchronized (entradas) {
+            return entradas.size();
+        }
+    }
+
+    // Elimina las claves expiradas cuya operación ya terminó
+    private void purgar(long ahora) {
+        Iterator<Map.Entry<String, Entrada>> it = entradas.entrySet().iterator();
+        while (it.hasNext()) {
+            Entrada e = it.next().getValue();
+            if (!e.resultado.isDone()) {
+                continue;
+            }
+            if (e.expiraEn > ahora) {
+                // Las siguientes son más recientes: tampoco han expirado
+                break;
+            }
+            it.remove();
+        }
+    }
+
+    // Descarta las claves terminadas más antiguas hasta dejar sitio para una nueva.
+    // Una clave en curso nunca se descarta: su reintento registraría la venta otra vez
+    private boolean hacerSitio() {
+        Iterator<Map.Entry<String, Entrada>> it = entradas.entrySet().iterator();
+        while (entradas.size() >= maxClaves && it.hasNext()) {
+            if (it.next().getValue().resultado.isDone()) {
+                it.remove();
+            }
+        }
+        return entradas.size() < maxClaves;
+    }
+
+    private static class Entrada {
+        final String huella;
+        final long expiraEn;
+        final CompletableFuture<Object> resultado = new CompletableFuture<>();
+
+        Entrada(String huella, long expiraEn) {
+            this.huella = huella;
+            this.expiraEn = expiraEn;
+        }
+    }
+
+    /**
+     * Resultado de una ejecución idempotente.
+     */
+    public static class Resultado<T> {
+        private final T valor;
+        private final boolean repetido;
+
+        public Resultado(T valor, boolean repetido) {
+            this.valor = valor;
+            this.repetido = repetido;
+        }
+
+        public T getValor() {
+            return valor;
+        }
+
+        public boolean isRepetido() {
+            return repetido;
+        }
+    }
+
+    /**
+     * La clave ya se usó con una petición de contenido distinto.
+     */
+    public static class ClaveReutilizadaException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public ClaveReutilizadaException(String clave) {
+            super("La Idempotency-Key ya se usó con una petición diferente: " + clave);
+        }
+    }
+
+    /**
+     * Todas las claves del almacén corresponden a operaciones en curso.
+     */
+    public static class AlmacenLlenoException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public AlmacenLlenoException() {
+            super("Demasiadas ventas en curso, intente de nuevo en unos segundos");
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package SCRUM3.Bj_Byte.service;
+
+import SCRUM3.Bj_Byte.service.cache.CacheLruBytes;
+import SCRUM3.Bj_Byte.service.cache.ClaveInforme;
+import SCRUM3.Bj_Byte.service.cache.RespuestaEnMemoria;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Caché de los PDF de informes financieros, por tipo de informe y filtros normalizados.
+ *
+ * Acotada por tamaño total (LRU). Registrar o eliminar una venta invalida solo los
+ * informes cuyo rango de fechas incluye la fecha de la venta (lo avisa
+ * {@link InvalidacionInformesService}), así que los informes de periodos cerrados
+ * se siguen sirviendo desde memoria.
+ */
+@Service
+public class InformeCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InformeCacheService.class);
+
+    /**
+     * Genera el informe escribiendo en la respuesta recibida.
+     */
+    @FunctionalInterface
+    public interface GeneradorInforme {
+        void generar(HttpServletResponse response) throws Exception;
+    }
+
+    /**
+     * Genera el PDF del informe escribiendo en el flujo recibido.
+     */
+    @FunctionalInterface
+    public interface GeneradorPdf {
+        void generar(OutputStream salida) throws Exception;
+    }
+
+    private final CacheLruBytes<ClaveInforme> cache;
+    private final InvalidacionInformesService invalidaciones;
+
+    public InformeCacheService(@Value("${informes.cache.max-mb:32}") long maxMb,
+                               InvalidacionInformesService invalidaciones) {
+        this.cache = new CacheLruBytes<>(maxMb * 1024 * 1024);
+        this.invalidaciones = invalidaciones;
+        invalidaciones.suscribir(this::descartar);
+    }
+
+    /**
+     * Envía el informe desde la caché o, si no está, lo genera, lo guarda y lo envía.
+     * Solo se guardan los PDF generados sin error.
+     *
+     * @param clave Tipo de informe y filtros normalizados
+     * @param response Respuesta HTTP de destino
+     * @param generador Genera el informe cuando no está en caché
+     */
+    public void servir(ClaveInforme clave, HttpServletResponse response, GeneradorInforme generador) throws Exception {
+        byte[] guardado = cache.obtener(clave);
+        if (guardado != null) {
+            response.setContentType("application/pdf");
+            response.setHeader("Content-Disposition",
+                    "attachment; filename=" + clave.getTipo() + "_" + System.currentTimeMillis() + ".pdf");
+            escribir(response, guardado);
+            return;
+        }
+
+        long versionInicial = invalidaciones.version();
+        RespuestaEnMemoria enMemoria = new RespuestaEnMemoria(response);
+        generador.generar(enMemoria);
+        byte[] contenido = enMemoria.getContenido();
+
+        if (esPdf(response)) {
+            guardarSiVigente(clave, contenido, versionInicial);
+        }
+        escribir(response, contenido);
+    }
+
+    /**
+     * Devuelve el PDF desde la caché o lo genera en memoria y lo guarda.
+     * Si el generador lanza una excepción no se guarda nada.
+     *
+     * @param clave Tipo de informe y filtros normalizados
+     * @param generador Genera el PDF cuando no está en caché
+     * @return Contenido del PDF
+     */
+    public byte[] obtenerOGenerar(ClaveInforme clave, GeneradorPdf generador) throws Exception {
+        byte[] guardado = cache.obtener(clave);
+        if (guardado != null) {
+            return guardado;
+        }
+
+        long versionInicial = invalidaciones.version();
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(64 * 1024);
+        generador.generar(salida);
+        byte[] contenido = salida.toByteArray();
+        guardarSiVigente(clave, contenido, versionInicial);
+        return contenido;
+    }
+
+    /**
+     * Descarta los informes que pueden incluir una venta de esa fecha (null = todos).
+     */
+    private void descartar(LocalDateTime fecha) {
+        cache.invalidarSi(clave -> clave.cubre(fecha));
+        logger.debug("Informes en caché invalidados para la fecha {}", fecha);
+    }
+
+    /**
+     * Aciertos, fallos, expulsiones y ocupación de la caché de informes.
+     */
+    public Map<String, Object> estadisticas() {
+        return cache.estadisticas();
+    }
+
+    // Si hubo una invalidación mientras se generaba, el resultado puede no incluir la venta
+    private void guardarSiVigente(ClaveInforme clave, byte[] contenido, long versionInicial) {
+        if (invalidaciones.vigente(versionInicial)) {
+            cache.guardar(clave, contenido);
+        }
+    }
+
+    private static boolean esPdf(HttpServletResponse response) {
+        String tipo = response.getContentType();
+        return response.getStatus() < 400 && tipo != null && tipo.startsWith("application/pdf");
+    }
+
+    private static void escribir(HttpServletResponse response, byte[] contenido) throws Exception {
+        response.setContentLength(contenido.length);
+        OutputStream os = response.getOutputStream();
+        os.write(contenido);
+        os.flush();
+    }
+}
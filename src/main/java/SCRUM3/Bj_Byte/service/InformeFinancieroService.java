@@ -1,23 +1,38 @@
 package SCRUM3.Bj_Byte.service;
 
-import SCRUM3.Bj_Byte.model.Venta;
-import SCRUM3.Bj_Byte.model.VentaDetalle;
 import SCRUM3.Bj_Byte.repository.VentaRepository;
+import SCRUM3.Bj_Byte.repository.projection.LineaReporteView;
+import SCRUM3.Bj_Byte.repository.projection.RangoIdsView;
 import SCRUM3.Bj_Byte.service.dto.GenerarInformeFinancieroRequest;
+import SCRUM3.Bj_Byte.service.cache.ClaveInforme;
 import SCRUM3.Bj_Byte.service.dto.MetricasFinancieras;
 import SCRUM3.Bj_Byte.service.exception.InformeFinancieroException;
+import SCRUM3.Bj_Byte.service.informe.AcumuladorInforme;
 import SCRUM3.Bj_Byte.service.pdf.GeneradorPdfInforme;
+import jakarta.annotation.PreDestroy;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 /**
  * RESUMEN EJECUTIVO:
@@ -31,11 +46,11 @@ import java.util.stream.Collectors;
  * Salidas: Documento PDF con métricas, gráficos y tablas.
  * Flujo Interno:
  *   1. Validar entrada
- *   2. Obtener y filtrar datos de ventas
- *   3. Calcular métricas financieras
- *   4. Agrupar datos para visualizaciones
- *   5. Delegar renderización al GeneradorPdfInforme
- *   6. Manejar errores de forma centralizada
+ *   2. Recorrer una sola vez las líneas de las ventas filtradas (filtros en la consulta)
+ *      acumulando métricas, totales por empleado y artículos por producto; con muchas
+ *      ventas el recorrido se reparte por rangos de id y los acumuladores se combinan
+ *   3. Delegar renderización al GeneradorPdfInforme
+ *   4. Manejar errores de forma centralizada
  *
  * ESTRUCTURA:
  * - Inyección de dependencias: VentaRepository, GeneradorPdfInforme
@@ -57,26 +72,60 @@ public class InformeFinancieroService {
     private static final String CODIGO_ERROR_DATOS = "INFORME_DATOS_VACIO";
     private static final String CODIGO_ERROR_GENERACION = "INFORME_GENERACION_FALLO";
     private static final int ESCALA_DECIMAL = 2;
+    private static final int TAMANO_MUESTRA = 8;
+    private static final String TIPO_INFORME = "informe_financiero";
 
     private final VentaRepository ventaRepository;
     private final GeneradorPdfInforme generadorPdf;
+    private final InformeCacheService informeCache;
+    private final TransactionTemplate lectura;
+    private final ThreadPoolExecutor lectores;
+    private final long ventasPorTramo;
 
     /**
      * Constructor con inyección de dependencias.
      *
      * @param ventaRepository Repositorio de acceso a datos de ventas
      * @param generadorPdf Implementación del generador de PDF
+     * @param informeCache Caché de informes ya generados
+     * @param transactionManager Gestor de transacciones (lecturas de cada tramo)
+     * @param paralelismo Tramos que se leen a la vez entre todos los informes (cada uno
+     *                    ocupa una conexión del pool mientras lee)
+     * @param ventasPorTramo Rango de ids que recorre cada tramo
      */
     @Autowired
     public InformeFinancieroService(VentaRepository ventaRepository,
-                                    GeneradorPdfInforme generadorPdf) {
+                                    GeneradorPdfInforme generadorPdf,
+                                    InformeCacheService informeCache,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${informes.financiero.paralelismo:4}") int paralelismo,
+                                    @Value("${informes.financiero.ventas-por-tramo:50000}") long ventasPorTramo) {
         this.ventaRepository = ventaRepository;
         this.generadorPdf = generadorPdf;
+        this.informeCache = informeCache;
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+        this.ventasPorTramo = Math.max(1, ventasPorTramo);
+
+        AtomicInteger contador = new AtomicInteger();
+        // Hilos fijos compartidos por todos los informes: acotan las conexiones que
+        // ocupan las lecturas; los tramos de más esperan en la cola (no en el pool JDBC)
+        int hilos = Math.max(1, paralelismo);
+        this.lectores = new ThreadPoolExecutor(hilos, hilos, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "informe-tramo-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @PreDestroy
+    public void detener() {
+        lectores.shutdown();
     }
 
     /**
-     * Genera un informe financiero basado en criterios de filtro.
-     * Orquesta el flujo de obtención de datos, cálculo de métricas y generación de PDF.
+     * Genera un informe financiero basado en criterios de filtro y lo escribe en la respuesta.
      *
      * @param request Objeto con criterios de filtro (producto, empleado, fecha)
      * @param response Respuesta HTTP para escribir el PDF
@@ -84,31 +133,45 @@ public class InformeFinancieroService {
      */
     public void generarInforme(GenerarInformeFinancieroRequest request,
                                HttpServletResponse response) {
+        byte[] pdf = generarInformePdf(request);
+        try {
+            configuraRespuestaHttp(response);
+            response.setContentLength(pdf.length);
+            response.getOutputStream().write(pdf);
+            response.getOutputStream().flush();
+        } catch (IOException e) {
+            throw new InformeFinancieroException(
+                    CODIGO_ERROR_GENERACION,
+                    "Error al enviar el informe financiero",
+                    e.getMessage(),
+                    e
+            );
+        }
+    }
+
+    /**
+     * Genera un informe financiero basado en criterios de filtro.
+     * Orquesta el flujo de obtención de datos, cálculo de métricas y generación de PDF.
+     * Un informe ya generado con los mismos filtros se sirve desde la caché mientras
+     * no se registren ni eliminen ventas dentro de su rango de fechas.
+     *
+     * @param request Objeto con criterios de filtro (producto, empleado, fecha)
+     * @return Contenido del PDF
+     * @throws InformeFinancieroException Si los datos son insuficientes o la generación falla
+     */
+    public byte[] generarInformePdf(GenerarInformeFinancieroRequest request) {
         try {
             logger.info("Iniciando generacion de informe financiero");
 
             validarEntrada(request);
 
-            List<Venta> ventasFiltradas = obtenerYFiltrarVentas(request);
-
-            if (ventasFiltradas.isEmpty()) {
-                logger.warn("No se encontraron ventas con los filtros especificados");
-                throw new InformeFinancieroException(
-                        CODIGO_ERROR_DATOS,
-                        "No hay datos disponibles para generar el informe con los filtros especificados"
-                );
-            }
-
-            MetricasFinancieras metricas = calcularMetricas(ventasFiltradas);
-
-            Map<String, BigDecimal> ventasPorEmpleado = agruparVentasPorEmpleado(ventasFiltradas);
-            Map<String, Integer> distribucionArticulos = agruparDistribucionArticulos(ventasFiltradas);
-
-            configuraRespuestaHttp(response);
-            generadorPdf.generarInforme(response, metricas, ventasFiltradas,
-                    ventasPorEmpleado, distribucionArticulos);
+            Filtros filtros = new Filtros(request);
+            ClaveInforme clave = new ClaveInforme(TIPO_INFORME,
+                    filtros.producto, filtros.empleado, filtros.inicio, filtros.fin);
+            byte[] pdf = informeCache.obtenerOGenerar(clave, salida -> generarPdf(filtros, salida));
 
             logger.info("Informe financiero generado exitosamente");
+            return pdf;
 
         } catch (InformeFinancieroException e) {
             logger.error("Error de negocio en generacion de informe: {} - {}", e.getCodigo(), e.getMessage());
@@ -124,6 +187,23 @@ public class InformeFinancieroService {
         }
     }
 
+    private void generarPdf(Filtros filtros, OutputStream salida) throws Exception {
+        AcumuladorInforme acumulado = acumular(filtros);
+
+        if (acumulado.getTransacciones() == 0) {
+            logger.warn("No se encontraron ventas con los filtros especificados");
+            throw new InformeFinancieroException(
+                    CODIGO_ERROR_DATOS,
+                    "No hay datos disponibles para generar el informe con los filtros especificados"
+            );
+        }
+
+        MetricasFinancieras metricas = calcularMetricas(acumulado);
+
+        generadorPdf.generarInforme(salida, metricas, acumulado.getMuestra(),
+                acumulado.getVentasPorEmpleado(), acumulado.getDistribucionArticulos());
+    }
+
     /**
      * Valida que los parámetros de entrada sean correctos.
      * Realiza validaciones básicas de negocio.
@@ -141,138 +221,111 @@ public class InformeFinancieroService {
     }
 
     /**
-     * Obtiene todas las ventas y aplica filtros según criterios.
-     * Implementa lógica funcional para filtrado eficiente.
+     * Recorre las ventas que cumplen los filtros y acumula todo el informe en una pasada.
+     * Los filtros (producto exacto incluido en la venta, empleado exacto y día) se
+     * aplican en la consulta. El rango de ids se corta en tramos que leen los hilos
+     * de informes (a lo sumo {@code paralelismo} a la vez entre todos los informes)
+     * y sus acumuladores se combinan en orden de id.
      *
      * @param request Objeto con criterios de filtro
-     * @return Lista de ventas filtradas
+     * @return Acumulador con métricas, totales por empleado y distribución de artículos
      */
-    private List<Venta> obtenerYFiltrarVentas(GenerarInformeFinancieroRequest request) {
-        List<Venta> todasLasVentas = ventaRepository.findAll();
-
-        return todasLasVentas.stream()
-                .filter(v -> cumpleFiltroProducto(v, request.getProductoFiltro()))
-                .filter(v -> cumpleFiltroEmpleado(v, request.getEmpleadoFiltro()))
-                .filter(v -> cumpleFiltroFecha(v, request.getFechaFiltro()))
-                .collect(Collectors.toList());
+    AcumuladorInforme acumular(GenerarInformeFinancieroRequest request) {
+        return acumular(new Filtros(request));
     }
 
-    /**
-     * Verifica si una venta cumple con el filtro de producto.
-     *
-     * @param venta Venta a evaluar
-     * @param productoFiltro Filtro de producto (null o vacío = sin filtro)
-     * @return true si cumple o no hay filtro
-     */
-    private boolean cumpleFiltroProducto(Venta venta, String productoFiltro) {
-        if (productoFiltro == null || productoFiltro.isEmpty()) {
-            return true;
+    private AcumuladorInforme acumular(Filtros filtros) {
+        RangoIdsView rango = lectura.execute(status -> ventaRepository.rangoIdsInforme(
+                filtros.producto, filtros.empleado, filtros.inicio, filtros.fin));
+        if (rango == null || rango.getMinimo() == null) {
+            return new AcumuladorInforme(TAMANO_MUESTRA);
         }
-        return venta.getDetalles().stream()
-                .anyMatch(d -> d.getInventario() != null &&
-                        d.getInventario().getProducto() != null &&
-                        d.getInventario().getProducto().getNombre().equals(productoFiltro));
-    }
 
-    /**
-     * Verifica si una venta cumple con el filtro de empleado.
-     *
-     * @param venta Venta a evaluar
-     * @param empleadoFiltro Filtro de empleado (null o vacío = sin filtro)
-     * @return true si cumple o no hay filtro
-     */
-    private boolean cumpleFiltroEmpleado(Venta venta, String empleadoFiltro) {
-        if (empleadoFiltro == null || empleadoFiltro.isEmpty()) {
-            return true;
+        List<Future<AcumuladorInforme>> tramos = new ArrayList<>();
+        try {
+            for (long desde = rango.getMinimo(); desde <= rango.getMaximo(); desde += ventasPorTramo) {
+                long inicioTramo = desde;
+                long finTramo = Math.min(rango.getMaximo(), desde + ventasPorTramo - 1);
+                tramos.add(lectores.submit(() -> acumularTramo(filtros, inicioTramo, finTramo)));
+            }
+            AcumuladorInforme acumulado = new AcumuladorInforme(TAMANO_MUESTRA);
+            for (Future<AcumuladorInforme> tramo : tramos) {
+                acumulado.combinar(tramo.get());
+            }
+            return acumulado;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InformeFinancieroException(CODIGO_ERROR_GENERACION, "Generación del informe interrumpida");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new InformeFinancieroException(CODIGO_ERROR_GENERACION,
+                    "Error al leer las ventas del informe", e.getCause().getMessage(), e.getCause());
+        } finally {
+            // Si un tramo falló, los pendientes no llegan a ocupar conexión
+            tramos.forEach(t -> t.cancel(false));
         }
-        return venta.getNombreEmpleado() != null &&
-                venta.getNombreEmpleado().equals(empleadoFiltro);
+    }
+
+    private AcumuladorInforme acumularTramo(Filtros filtros, long desde, long hasta) {
+        return lectura.execute(status -> {
+            AcumuladorInforme acumulado = new AcumuladorInforme(TAMANO_MUESTRA);
+            try (Stream<LineaReporteView> lineas = ventaRepository.streamLineasInforme(
+                    filtros.producto, filtros.empleado, filtros.inicio, filtros.fin, desde, hasta)) {
+                lineas.forEach(acumulado::agregar);
+            }
+            return acumulado;
+        });
     }
 
     /**
-     * Verifica si una venta cumple con el filtro de fecha.
-     *
-     * @param venta Venta a evaluar
-     * @param fechaFiltro Filtro de fecha (null = sin filtro)
-     * @return true si cumple o no hay filtro
+     * Filtros del request normalizados para la consulta (vacío = sin filtro,
+     * la fecha se convierte en el rango [00:00, 00:00 del día siguiente)).
      */
-    private boolean cumpleFiltroFecha(Venta venta, java.time.LocalDate fechaFiltro) {
-        if (fechaFiltro == null) {
-            return true;
+    private static class Filtros {
+
+        final String producto;
+        final String empleado;
+        final LocalDateTime inicio;
+        final LocalDateTime fin;
+
+        Filtros(GenerarInformeFinancieroRequest request) {
+            this.producto = vacioANull(request.getProductoFiltro());
+            this.empleado = vacioANull(request.getEmpleadoFiltro());
+            LocalDate fecha = request.getFechaFiltro();
+            this.inicio = fecha != null ? fecha.atStartOfDay() : null;
+            this.fin = fecha != null ? fecha.plusDays(1).atStartOfDay() : null;
+        }
+
+        private static String vacioANull(String valor) {
+            return valor == null || valor.isEmpty() ? null : valor;
         }
-        return venta.getFecha() != null &&
-                venta.getFecha().toLocalDate().equals(fechaFiltro);
     }
 
     /**
-     * Calcula las métricas financieras principales a partir de las ventas.
+     * Calcula las métricas financieras principales a partir del acumulado.
      *
-     * @param ventas Lista de ventas
+     * @param acumulado Resultado del recorrido de las ventas
      * @return Objeto con métricas calculadas
      */
-    private MetricasFinancieras calcularMetricas(List<Venta> ventas) {
-        BigDecimal totalVentas = ventas.stream()
-                .map(Venta::getTotalVenta)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        int totalArticulos = ventas.stream()
-                .mapToInt(v -> v.getDetalles().stream()
-                        .mapToInt(VentaDetalle::getCantidad)
-                        .sum())
-                .sum();
-
-        BigDecimal promedioVenta = ventas.size() > 0
-                ? totalVentas.divide(new BigDecimal(ventas.size()), ESCALA_DECIMAL, RoundingMode.HALF_UP)
+    private MetricasFinancieras calcularMetricas(AcumuladorInforme acumulado) {
+        BigDecimal totalVentas = acumulado.getTotalVentas();
+        long transacciones = acumulado.getTransacciones();
+
+        BigDecimal promedioVenta = transacciones > 0
+                ? totalVentas.divide(BigDecimal.valueOf(transacciones), ESCALA_DECIMAL, RoundingMode.HALF_UP)
                 : BigDecimal.ZERO;
 
         return new MetricasFinancieras(
                 totalVentas,
-                totalArticulos,
-                ventas.size(),
+                (int) acumulado.getTotalArticulos(),
+                (int) transacciones,
                 promedioVenta,
                 LocalDateTime.now()
         );
     }
 
-    /**
-     * Agrupa las ventas por nombre de empleado.
-     *
-     * @param ventas Lista de ventas
-     * @return Mapa con totales por empleado
-     */
-    private Map<String, BigDecimal> agruparVentasPorEmpleado(List<Venta> ventas) {
-        return ventas.stream()
-                .collect(Collectors.groupingBy(
-                        v -> v.getNombreEmpleado() != null ? v.getNombreEmpleado() : "Sin asignar",
-                        Collectors.reducing(
-                                BigDecimal.ZERO,
-                                Venta::getTotalVenta,
-                                BigDecimal::add
-                        )
-                ));
-    }
-
-    /**
-     * Agrupa la cantidad de artículos vendidos por producto.
-     *
-     * @param ventas Lista de ventas
-     * @return Mapa con distribución de artículos por producto
-     */
-    private Map<String, Integer> agruparDistribucionArticulos(List<Venta> ventas) {
-        Map<String, Integer> distribucion = new HashMap<>();
-        for (Venta venta : ventas) {
-            for (VentaDetalle detalle : venta.getDetalles()) {
-                if (detalle.getInventario() != null &&
-                    detalle.getInventario().getProducto() != null) {
-                    String nombreProducto = detalle.getInventario().getProducto().getNombre();
-                    distribucion.put(nombreProducto,
-                            distribucion.getOrDefault(nombreProducto, 0) + detalle.getCantidad());
-                }
-            }
-        }
-        return distribucion;
-    }
-
     /**
      * Configura los headers HTTP necesarios para la descarga del PDF.
      *
@@ -293,7 +346,7 @@ public class InformeFinancieroService {
      *    - Notificar via email al usuario
      *
      * 2. Cacheo de reportes:
-     *    - Implementar Redis para cachear reportes por hash de criterios
+     *    - Compartir la caché entre instancias (Redis) en lugar de memoria local
      *    - Generar reportes overnight para acceso inmediato
      *
      * 3. Múltiples formatos:
@@ -314,8 +367,6 @@ public class InformeFinancieroService {
      *    - Rastrear quién generó, cuándo y qué filtros usó
      *
      * 7. Optimizaciones de performance:
-     *    - Paginación para listas muy grandes
-     *    - Usar queries optimizadas con @Query personalizadas
      *    - Índices en filtros frecuentes
      *
      * EJEMPLO DE USO:
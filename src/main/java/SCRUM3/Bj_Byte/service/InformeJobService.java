@@ -0,0 +1,203 @@
+package SCRUM3.Bj_Byte.service;
+
+import SCRUM3.Bj_Byte.service.cache.CacheLruBytes;
+import SCRUM3.Bj_Byte.service.dto.GenerarInformeFinancieroRequest;
+import SCRUM3.Bj_Byte.service.exception.InformeFinancieroException;
+import SCRUM3.Bj_Byte.service.informe.TrabajoInforme;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Genera informes financieros en segundo plano para no ocupar un hilo de Tomcat
+ * mientras se construye el PDF.
+ *
+ * El pool y la cola están acotados: si la cola está llena el envío se rechaza
+ * en lugar de acumular trabajo. Los PDF terminados se guardan en una caché LRU
+ * acotada por tamaño total: si no caben, se descartan los usados hace más tiempo
+ * y su trabajo deja de existir, igual que al caducar.
+ *
+ * Cada trabajo recuerda qué empleado lo envió; el estado y la descarga solo se
+ * le muestran a él.
+ */
+@Service
+public class InformeJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InformeJobService.class);
+
+    public static final String CODIGO_COLA_LLENA = "INFORME_COLA_LLENA";
+
+    private final InformeFinancieroService informeService;
+    private final ThreadPoolExecutor executor;
+    private final Duration expiracion;
+    private final Map<String, TrabajoInforme> trabajos = new ConcurrentHashMap<>();
+    private final CacheLruBytes<String> resultados;
+    private final long maxBytesResultados;
+
+    public InformeJobService(
+            InformeFinancieroService informeService,
+            @Value("${informes.jobs.hilos:2}") int hilos,
+            @Value("${informes.jobs.cola:20}") int cola,
+            @Value("${informes.jobs.expiracion-minutos:30}") long expiracionMinutos,
+            @Value("${informes.jobs.resultados-max-mb:64}") long resultadosMaxMb) {
+        this.informeService = informeService;
+        this.expiracion = Duration.ofMinutes(expiracionMinutos);
+        this.maxBytesResultados = resultadosMaxMb * 1024 * 1024;
+        this.resultados = new CacheLruBytes<>(maxBytesResultados);
+
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(hilos, hilos, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(cola), r -> {
+                    Thread t = new Thread(r, "informe-job-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @PreDestroy
+    public void detener() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Encola la generación del informe financiero con los filtros recibidos.
+     *
+     * @param propietarioId Empleado que lo pide
+     * @return Trabajo creado, en estado EN_COLA
+     * @throws InformeFinancieroException Si la cola de trabajos está llena
+     */
+    public TrabajoInforme enviar(GenerarInformeFinancieroRequest request, Long propietarioId) {
+        String descripcion = "producto=" + request.getProductoFiltro()
+                + ", empleado=" + request.getEmpleadoFiltro()
+                + ", fecha=" + request.getFechaFiltro();
+        return enviar(descripcion, propietarioId, () -> informeService.generarInformePdf(request));
+    }
+
+    TrabajoInforme enviar(String descripcion, Long propietarioId, Callable<byte[]> tarea) {
+        TrabajoInforme trabajo = new TrabajoInforme(UUID.randomUUID().toString(), descripcion,
+                propietarioId, Instant.now());
+        trabajos.put(trabajo.getId(), trabajo);
+        try {
+            executor.execute(new Ejecucion(trabajo, tarea));
+        } catch (RejectedExecutionException e) {
+            trabajos.remove(trabajo.getId());
+            logger.warn("Cola de informes llena ({} en espera), trabajo rechazado", executor.getQueue().size());
+            throw new InformeFinancieroException(CODIGO_COLA_LLENA,
+                    "Hay demasiados informes en preparación, intente de nuevo en unos minutos", null);
+        }
+        logger.info("Informe encolado: {} ({})", trabajo.getId(), descripcion);
+        return trabajo;
+    }
+
+    /**
+     * Trabajo del empleado dado; vacío si no existe, caducó, su PDF se descartó
+     * por falta de espacio o lo envió otro empleado.
+     */
+    public Optional<TrabajoInforme> buscar(String id, Long propietarioId) {
+        TrabajoInforme trabajo = trabajos.get(id);
+        if (trabajo == null || !trabajo.esDe(propietarioId)) {
+            return Optional.empty();
+        }
+        if (trabajo.getEstado() == TrabajoInforme.Estado.COMPLETADO && !resultados.contiene(id)) {
+            trabajos.remove(id, trabajo);
+            return Optional.empty();
+        }
+        return Optional.of(trabajo);
+    }
+
+    /**
+     * Estado del trabajo para la API, con su posición si sigue en la cola.
+     */
+    public Optional<Map<String, Object>> estado(String id, Long propietarioId) {
+        return buscar(id, propietarioId).map(t -> t.resumen(posicionEnCola(t)));
+    }
+
+    /**
+     * PDF de un trabajo completado; vacío si ya se descartó.
+     */
+    public Optional<byte[]> resultado(TrabajoInforme trabajo) {
+        return Optional.ofNullable(resultados.obtener(trabajo.getId()));
+    }
+
+    // Trabajos por delante en la cola (0 = el siguiente en ejecutarse)
+    private Integer posicionEnCola(TrabajoInforme trabajo) {
+        if (trabajo.getEstado() != TrabajoInforme.Estado.EN_COLA) return null;
+        int posicion = 0;
+        for (Runnable r : executor.getQueue()) {
+            if (r instanceof Ejecucion e && e.trabajo == trabajo) return posicion;
+            posicion++;
+        }
+        return null;
+    }
+
+    @Scheduled(fixedDelayString = "${informes.jobs.purga-ms:60000}")
+    public void purgarCaducados() {
+        purgar(Instant.now());
+    }
+
+    int purgar(Instant ahora) {
+        Instant limite = ahora.minus(expiracion);
+        int purgados = 0;
+        // Los que siguen en la cola o en proceso se conservan aunque lleven tiempo esperando
+        for (TrabajoInforme t : trabajos.values()) {
+            if (t.caducado(limite) && trabajos.remove(t.getId(), t)) {
+                resultados.invalidar(t.getId());
+                purgados++;
+            }
+        }
+        if (purgados > 0) {
+            logger.debug("Trabajos de informe caducados descartados: {}", purgados);
+        }
+        return purgados;
+    }
+
+    private final class Ejecucion implements Runnable {
+
+        private final TrabajoInforme trabajo;
+        private final Callable<byte[]> tarea;
+
+        Ejecucion(TrabajoInforme trabajo, Callable<byte[]> tarea) {
+            this.trabajo = trabajo;
+            this.tarea = tarea;
+        }
+
+        @Override
+        public void run() {
+            trabajo.iniciar(Instant.now());
+            try {
+                byte[] pdf = tarea.call();
+                if (pdf.length > maxBytesResultados) {
+                    trabajo.fallar("El informe es demasiado grande para guardarlo", Instant.now());
+                    logger.warn("Informe {} descartado: {} bytes", trabajo.getId(), pdf.length);
+                    return;
+                }
+                // Puede expulsar los PDF usados hace más tiempo para hacer sitio
+                resultados.guardar(trabajo.getId(), pdf);
+                trabajo.completar(pdf.length, Instant.now());
+                logger.info("Informe {} completado", trabajo.getId());
+            } catch (InformeFinancieroException e) {
+                trabajo.fallar(e.getMessage(), Instant.now());
+                logger.warn("Informe {} fallido: {} - {}", trabajo.getId(), e.getCodigo(), e.getMessage());
+            } catch (Exception e) {
+                trabajo.fallar("Error interno al generar el informe", Instant.now());
+                logger.error("Error inesperado en el informe {}", trabajo.getId(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package SCRUM3.Bj_Byte.service;
+
+import SCRUM3.Bj_Byte.service.cache.ClaveInforme;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Informes de periodos cerrados precalculados en disco.
+ *
+ * Cada PDF se guarda junto a un .properties con su clave (tipo y filtros) y datos
+ * de la generación; al arrancar se vuelve a leer el índice desde esos ficheros.
+ * Una venta registrada o eliminada con fecha dentro del rango de un informe lo
+ * descarta (lo avisa {@link InvalidacionInformesService}), y ese informe vuelve a
+ * generarse al pedirlo.
+ *
+ * Los metadatos guardan además una huella de las ventas del rango (número, id
+ * máximo, total y unidades vendidas). Los cambios hechos por fuera de la
+ * aplicación (SQL a mano, una copia de seguridad restaurada) no lanzan eventos:
+ * al arrancar y en cada pasada de precálculo se descartan los informes cuya
+ * huella ya no coincide con la base de datos.
+ */
+@Service
+public class InformePrecalculadoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InformePrecalculadoService.class);
+
+    private static final DateTimeFormatter FORMATO_ARCHIVO = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    static final String HUELLA = "huella";
+
+    // Límites para claves sin inicio o sin fin
+    private static final LocalDateTime SIN_INICIO = LocalDateTime.of(1900, 1, 1, 0, 0);
+    private static final LocalDateTime SIN_FIN = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    private static final String SQL_HUELLA = "SELECT COUNT(*), COALESCE(MAX(id), 0), COALESCE(SUM(total_venta), 0),"
+            + " (SELECT COALESCE(SUM(d.cantidad), 0) FROM venta_detalle d JOIN ventas vd ON vd.id = d.venta_id"
+            + " WHERE vd.fecha >= ? AND vd.fecha < ?)"
+            + " FROM ventas WHERE fecha >= ? AND fecha < ?";
+
+    private final Path directorio;
+    private final JdbcTemplate jdbcTemplate;
+    private final InvalidacionInformesService invalidaciones;
+    private final Map<ClaveInforme, Path> indice = new ConcurrentHashMap<>();
+
+    public InformePrecalculadoService(
+            @Value("${informes.precalculados.directorio:${java.io.tmpdir}/bjbyte/informes}") String directorio,
+            JdbcTemplate jdbcTemplate, InvalidacionInformesService invalidaciones) {
+        this.directorio = Paths.get(directorio);
+        this.jdbcTemplate = jdbcTemplate;
+        this.invalidaciones = invalidaciones;
+        invalidaciones.suscribir(this::descartar);
+    }
+
+    /**
+     * Reconstruye el índice desde los metadatos. Se ejecuta con la aplicación ya
+     * lista porque compara las huellas con la base de datos.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        Map<String, String> huellas = new HashMap<>();
+        int descartados = 0;
+        try {
+            Files.createDirectories(directorio);
+            try (DirectoryStream<Path> metadatos = Files.newDirectoryStream(directorio, "*.properties")) {
+                for (Path archivo : metadatos) {
+                    Properties p = leer(archivo);
+                    Path pdf = pdfDe(archivo);
+                    if (p == null || !Files.exists(pdf)) {
+                        Files.deleteIfExists(archivo);
+                        continue;
+                    }
+                    ClaveInforme clave = claveDe(p);
+                    String actual = huellas.computeIfAbsent(rangoDe(clave), r -> huella(clave));
+                    if (actual == null) {
+                        // Sin base de datos no se puede comprobar: no se sirve, pero tampoco se borra
+                        continue;
+                    }
+                    if (actual.equals(p.getProperty(HUELLA))) {
+                        indice.put(clave, pdf);
+                    } else {
+                        eliminar(clave, pdf);
+                        descartados++;
+                    }
+                }
+            }
+            logger.info("Informes precalculados en {}: {} ({} descartados por cambios en las ventas)",
+                    directorio, indice.size(), descartados);
+        } catch (IOException e) {
+            logger.warn("No se pudo leer el directorio de informes precalculados {}: {}", directorio, e.getMessage());
+        }
+    }
+
+    /**
+     * Descarta los informes del índice cuya huella ya no coincide con la base de
+     * datos, o cuyos ficheros ya no están.
+     *
+     * @return Número de informes descartados
+     */
+    int descartarDesactualizados() {
+        Map<String, String> huellas = new HashMap<>();
+        int descartados = 0;
+        for (Map.Entry<ClaveInforme, Path> e : indice.entrySet()) {
+            ClaveInforme clave = e.getKey();
+            Properties p = leer(metadatosDe(e.getValue()));
+            String actual = huellas.computeIfAbsent(rangoDe(clave), r -> huella(clave));
+            if (p == null || !Files.exists(e.getValue()) || (actual != null && !actual.equals(p.getProperty(HUELLA)))) {
+                eliminar(clave, e.getValue());
+                descartados++;
+            }
+        }
+        return descartados;
+    }
+
+    /**
+     * Huella de las ventas del rango de la clave: cambia si se añade, borra o
+     * modifica cualquier venta o línea de ese rango.
+     *
+     * @return La huella, o null si no se pudo consultar
+     */
+    String huella(ClaveInforme clave) {
+        Timestamp inicio = Timestamp.valueOf(clave.getInicio() != null ? clave.getInicio() : SIN_INICIO);
+        Timestamp fin = Timestamp.valueOf(clave.getFin() != null ? clave.getFin() : SIN_FIN);
+        try {
+            return jdbcTemplate.queryForObject(SQL_HUELLA, (rs, i) -> rs.getLong(1) + ":" + rs.getLong(2) + ":"
+                    + rs.getBigDecimal(3).stripTrailingZeros().toPlainString() + ":" + rs.getLong(4),
+                    inicio, fin, inicio, fin);
+        } catch (DataAccessException e) {
+            logger.warn("No se pudo calcular la huella de {}: {}", clave, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Envía el informe precalculado con esa clave, si existe.
+     *
+     * @param nombreArchivo Nombre del adjunto en la respuesta
+     * @return true si se envió; false si hay que generarlo
+     */
+    public boolean servir(ClaveInforme clave, HttpServletResponse response, String nombreArchivo) throws IOException {
+        Path pdf = indice.get(clave);
+        if (pdf == null) {
+            return false;
+        }
+        byte[] contenido;
+        try {
+            contenido = Files.readAllBytes(pdf);
+        } catch (IOException e) {
+            // Borrado por fuera: se genera de nuevo
+            indice.remove(clave, pdf);
+            return false;
+        }
+
+        response.setContentType("application/pdf");
+        response.setHeader("Content-Disposition", "attachment; filename=" + nombreArchivo);
+        response.setContentLength(contenido.length);
+        OutputStream os = response.getOutputStream();
+        os.write(contenido);
+        os.flush();
+        return true;
+    }
+
+    public boolean existe(ClaveInforme clave) {
+        return indice.containsKey(clave);
+    }
+
+    long version() {
+        return invalidaciones.version();
+    }
+
+    /**
+     * Guarda el PDF y sus metadatos, salvo que haya habido una invalidación desde
+     * {@code versionInicial}. El PDF se escribe en un temporal y se mueve, así que
+     * nunca se sirve un fichero a medias.
+     *
+     * @param huella Huella de las ventas tomada antes de generar el PDF
+     * @return true si quedó guardado
+     */
+    boolean guardar(ClaveInforme clave, byte[] contenido, String huella, Map<String, String> extra,
+                    long versionInicial) throws IOException {
+        Files.createDirectories(directorio);
+        String base = nombreBase(clave);
+        Path pdf = directorio.resolve(base + ".pdf");
+        Path tmp = directorio.resolve(base + ".pdf.tmp");
+        Files.write(tmp, contenido);
+        Files.move(tmp, pdf, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        Properties p = new Properties();
+        p.setProperty("tipo", clave.getTipo());
+        if (clave.getProducto() != null) p.setProperty("producto", clave.getProducto());
+        if (clave.getEmpleado() != null) p.setProperty("empleado", clave.getEmpleado());
+        if (clave.getInicio() != null) p.setProperty("inicio", clave.getInicio().toString());
+        if (clave.getFin() != null) p.setProperty("fin", clave.getFin().toString());
+        p.setProperty("generado", Instant.now().toString());
+        p.setProperty("bytes", String.valueOf(contenido.length));
+        p.setProperty(HUELLA, huella);
+        extra.forEach(p::setProperty);
+        try (Writer w = Files.newBufferedWriter(directorio.resolve(base + ".properties"), StandardCharsets.UTF_8)) {
+            p.store(w, "Informe precalculado");
+        }
+
+        if (!invalidaciones.vigente(versionInicial)) {
+            eliminar(clave, pdf);
+            return false;
+        }
+        indice.put(clave, pdf);
+        return true;
+    }
+
+    /**
+     * Descarta los informes cuyo rango incluye la fecha (null = todos).
+     */
+    private void descartar(LocalDateTime fecha) {
+        for (Map.Entry<ClaveInforme, Path> e : indice.entrySet()) {
+            if (e.getKey().cubre(fecha)) {
+                eliminar(e.getKey(), e.getValue());
+            }
+        }
+    }
+
+    /**
+     * Borra los informes que no están en el conjunto (periodos que dejaron de ser
+     * los estándar, o empleados que ya no existen).
+     */
+    void conservarSolo(Set<ClaveInforme> vigentes) {
+        for (Map.Entry<ClaveInforme, Path> e : indice.entrySet()) {
+            if (!vigentes.contains(e.getKey())) {
+                eliminar(e.getKey(), e.getValue());
+            }
+        }
+    }
+
+    /**
+     * Metadatos de los informes disponibles, del más reciente al más antiguo.
+     */
+    public List<Map<String, Object>> listar() {
+        List<Map<String, Object>> lista = new ArrayList<>();
+        for (Path pdf : indice.values()) {
+            Properties p = leer(metadatosDe(pdf));
+            if (p == null) continue;
+            Map<String, Object> datos = new LinkedHashMap<>();
+            p.stringPropertyNames().stream().sorted().forEach(k -> datos.put(k, p.getProperty(k)));
+            lista.add(datos);
+        }
+        lista.sort(Comparator.comparing((Map<String, Object> m) -> String.valueOf(m.get("generado"))).reversed());
+        return lista;
+    }
+
+    private void eliminar(ClaveInforme clave, Path pdf) {
+        indice.remove(clave, pdf);
+        try {
+            Files.deleteIfExists(pdf);
+            Files.deleteIfExists(metadatosDe(pdf));
+        } catch (IOException e) {
+            logger.warn("No se pudo borrar el informe precalculado {}: {}", pdf, e.getMessage());
+        }
+    }
+
+    private static String rangoDe(ClaveInforme clave) {
+        return clave.getInicio() + "/" + clave.getFin();
+    }
+
+    private static ClaveInforme claveDe(Properties p) {
+        String inicio = p.getProperty("inicio");
+        String fin = p.getProperty("fin");
+        return new ClaveInforme(p.getProperty("tipo"), p.getProperty("producto"), p.getProperty("empleado"),
+                inicio != null ? LocalDateTime.parse(inicio) : null,
+                fin != null ? LocalDateTime.parse(fin) : null);
+    }
+
+    // p. ej. mis_ventas_e12_20240901_20241001
+    private static String nombreBase(ClaveInforme clave) {
+        StringBuilder sb = new StringBuilder(clave.getTipo());
+        if (clave.getProducto() != null) sb.append("_p").append(seguro(clave.getProducto()));
+        if (clave.getEmpleado() != null) sb.append("_e").append(seguro(clave.getEmpleado()));
+        sb.append('_').append(clave.getInicio() != null ? clave.getInicio().format(FORMATO_ARCHIVO) : "inicio");
+        sb.append('_').append(clave.getFin() != null ? clave.getFin().format(FORMATO_ARCHIVO) : "fin");
+        return sb.toString();
+    }
+
+    private static String seguro(String valor) {
+        return valor.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-");
+    }
+
+    private static Path pdfDe(Path metadatos) {
+        String nombre = metadatos.getFileName().toString();
+        return metadatos.resolveSibling(nombre.substring(0, nombre.length() - ".properties".length()) + ".pdf");
+    }
+
+    private static Path metadatosDe(Path pdf) {
+        String nombre = pdf.getFileName().toString();
+        return pdf.resolveSibling(nombre.substring(0, nombre.length() - ".pdf".length()) + ".properties");
+    }
+
+    private static Properties leer(Path archivo) {
+        try (Reader r = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            Properties p = new Properties();
+            p.load(r);
+            return p.getProperty("tipo") != null ? p : null;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+}
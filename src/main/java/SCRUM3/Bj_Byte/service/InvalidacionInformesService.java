@@ -0,0 +1,70 @@
+package SCRUM3.Bj_Byte.service;
+
+import SCRUM3.Bj_Byte.service.event.VentaEliminadaEvent;
+import SCRUM3.Bj_Byte.service.event.VentaRegistradaEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Invalidación de los informes guardados (en memoria y en disco) cuando cambian
+ * las ventas.
+ *
+ * Al confirmarse una venta registrada o eliminada avisa a cada almacén con la
+ * fecha de la venta, y cada uno descarta los informes cuyo rango la incluye.
+ * La versión cambia con cada invalidación: un informe que se generaba mientras
+ * tanto no se guarda.
+ */
+@Service
+public class InvalidacionInformesService {
+
+    private final AtomicLong version = new AtomicLong();
+    private final List<Consumer<LocalDateTime>> almacenes = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registra un almacén de informes; recibe la fecha de la venta (null = todas).
+     */
+    void suscribir(Consumer<LocalDateTime> almacen) {
+        almacenes.add(almacen);
+    }
+
+    /**
+     * Versión actual, que se toma antes de generar un informe.
+     */
+    long version() {
+        return version.get();
+    }
+
+    /**
+     * @return true si no hubo ninguna invalidación desde {@code versionInicial}
+     */
+    boolean vigente(long versionInicial) {
+        return version.get() == versionInicial;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void alRegistrarVenta(VentaRegistradaEvent evento) {
+        invalidar(evento.getFecha());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void alEliminarVenta(VentaEliminadaEvent evento) {
+        invalidar(evento.getFecha());
+    }
+
+    /**
+     * Descarta en todos los almacenes los informes cuyo rango incluye la fecha (null = todos).
+     */
+    public void invalidar(LocalDateTime fecha) {
+        version.incrementAndGet();
+        for (Consumer<LocalDateTime> almacen : almacenes) {
+            almacen.accept(fecha);
+        }
+    }
+}
@@ -1,13 +1,22 @@
 package SCRUM3.Bj_Byte.service;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.context.Context;
-import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.xhtmlrenderer.pdf.ITextOutputDevice;
 import org.xhtmlrenderer.pdf.ITextRenderer;
+import org.xhtmlrenderer.pdf.ITextUserAgent;
+import org.xhtmlrenderer.resource.ImageResource;
+import org.xhtmlrenderer.util.ImageUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 @Service
@@ -16,16 +25,73 @@ public class InvoicePdfService {
     // Se recomienda usar un logger para seguimiento de errores
     private static final Logger logger = LoggerFactory.getLogger(InvoicePdfService.class);
 
-    private final SpringTemplateEngine templateEngine;
+    // Conversiones de muestra por renderizador al arrancar
+    private static final int RONDAS_CALENTAMIENTO = 10;
+
+    // Logo, fuentes y motor de plantillas con caché, preparados al arrancar
+    private final RecursosFacturaRegistry recursos;
+    private final int renderizadores;
+
+    // Renderizadores listos para usar: fuentes registradas, clases cargadas y el
+    // logo decodificado en la caché de su user agent
+    private final BlockingQueue<ITextRenderer> disponibles;
+    private final boolean calentar;
+    private final AtomicInteger creados = new AtomicInteger();
 
     // Inyección de dependencias a través del constructor
-    public InvoicePdfService(SpringTemplateEngine templateEngine) {
-        this.templateEngine = templateEngine;
+    public InvoicePdfService(RecursosFacturaRegistry recursos,
+                             @Value("${ventas.facturas.renderizadores:2}") int renderizadores,
+                             @Value("${ventas.facturas.calentar:true}") boolean calentar) {
+        this.recursos = recursos;
+        this.renderizadores = Math.max(1, renderizadores);
+        this.disponibles = new ArrayBlockingQueue<>(this.renderizadores);
+        this.calentar = calentar;
+    }
+
+    /**
+     * Con la aplicación ya arrancada, calienta el pool en un hilo aparte: no retrasa
+     * el arranque, y las facturas pedidas mientras tanto crean su propio renderizador.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void calentarAlArrancar() {
+        if (!calentar) return;
+        Thread hilo = new Thread(this::calentar, "factura-calentamiento");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Llena el pool con renderizadores que ya convirtieron varias veces una factura
+     * de muestra: así las primeras facturas tras el arranque no pagan la carga de clases,
+     * fuentes y CSS ni el código aún sin compilar por el JIT.
+     */
+    void calentar() {
+        long inicio = System.currentTimeMillis();
+        String html = recursos.getMotorFactura().process(RecursosFacturaRegistry.PLANTILLA_FACTURA,
+                recursos.contextoDeMuestra());
+        // Como mucho uno por hueco: las facturas en curso también devuelven renderizadores al pool
+        for (int n = 0; n < renderizadores && disponibles.remainingCapacity() > 0; n++) {
+            ITextRenderer renderer = crearRenderer();
+            try {
+                for (int i = 0; i < RONDAS_CALENTAMIENTO; i++) {
+                    convertir(renderer, html, null, OutputStream.nullOutputStream());
+                }
+            } catch (Exception e) {
+                logger.warn("No se pudo calentar el renderizador de facturas: {}", e.getMessage());
+                return;
+            }
+            disponibles.offer(renderer);
+        }
+        logger.info("Renderizadores de factura listos: {} ({} ms)",
+                disponibles.size(), System.currentTimeMillis() - inicio);
     }
 
     /**
      * Renderiza la plantilla Thymeleaf a HTML y la convierte a PDF usando Flying Saucer (ITextRenderer).
      *
+     * El renderizador se toma del pool; si está vacío (todos ocupados o aún
+     * calentándose) se crea uno nuevo, que se queda en el pool si al terminar hay hueco.
+     *
      * @param templateName Nombre de la plantilla Thymeleaf (ej: "invoice").
      * @param thymeleafContext Contexto con las variables de datos.
      * @param baseUrl URL base para recursos estáticos (ej: http://localhost:8080) necesaria para resolver imágenes, CSS, etc.
@@ -33,26 +99,84 @@ public class InvoicePdfService {
      * @throws Exception Si ocurre un error durante el procesamiento o la generación del PDF.
      */
     public void generatePdf(String templateName, Context thymeleafContext, String baseUrl, OutputStream out) throws Exception {
-        
+
         // 1. Renderizar la plantilla Thymeleaf a una cadena HTML
-        logger.info("Renderizando plantilla Thymeleaf: {}", templateName);
-        String html = templateEngine.process(templateName, thymeleafContext);
+        logger.debug("Renderizando plantilla Thymeleaf: {}", templateName);
+        String html = recursos.getMotorFactura().process(templateName, thymeleafContext);
 
         // 2. Usar Flying Saucer (ITextRenderer) para convertir el HTML a PDF
-        ITextRenderer renderer = new ITextRenderer();
-        
+        ITextRenderer renderer = disponibles.poll();
+        if (renderer == null) {
+            renderer = crearRenderer();
+        }
+        convertir(renderer, html, baseUrl, out);
+        // Uno que falló a medias no vuelve al pool
+        disponibles.offer(renderer);
+
+        logger.debug("PDF generado y escrito en el OutputStream con éxito.");
+    }
+
+    /**
+     * Renderizadores creados desde el arranque (los del pool más los de picos de carga).
+     */
+    int renderizadoresCreados() {
+        return creados.get();
+    }
+
+    int renderizadoresDisponibles() {
+        return disponibles.size();
+    }
+
+    // Las fuentes TTF se analizan una vez: BaseFont las guarda en su caché y todos los renderizadores las comparten
+    private ITextRenderer crearRenderer() {
+        ITextOutputDevice salida = new ITextOutputDevice(ITextRenderer.DEFAULT_DOTS_PER_POINT);
+        ITextRenderer renderer = new ITextRenderer(ITextRenderer.DEFAULT_DOTS_PER_POINT,
+                ITextRenderer.DEFAULT_DOTS_PER_PIXEL, salida,
+                new UserAgentFactura(salida, recursos.getLogoDataUri()));
+        recursos.registrarFuentes(renderer.getFontResolver());
+        creados.incrementAndGet();
+        return renderer;
+    }
+
+    private static void convertir(ITextRenderer renderer, String html, String baseUrl, OutputStream out) throws Exception {
         // El 'baseUrl' es crucial. Permite que ITextRenderer resuelva rutas de imágenes, como el logo o el QR Base64.
         // El QR Base64 (data:image/png;base64,...) también se maneja correctamente a través de esta configuración.
         renderer.setDocumentFromString(html, baseUrl);
-        
+
         // 3. Aplicar diseño y paginación
-        logger.info("Generando layout del PDF.");
         renderer.layout();
-        
+
         // 4. Generar el PDF y escribirlo en el OutputStream
         renderer.createPDF(out);
         out.flush();
+    }
+
+    /**
+     * User agent que solo conserva en su caché de imágenes el logo y las imágenes
+     * por URL. Las demás imágenes embebidas (p. ej. un QR por factura) se
+     * decodifican cada vez: en un renderizador reutilizado la caché crecería con
+     * cada factura.
+     */
+    static final class UserAgentFactura extends ITextUserAgent {
+
+        private final String logo;
+
+        UserAgentFactura(ITextOutputDevice salida, String logo) {
+            super(salida);
+            this.logo = logo;
+        }
+
+        @Override
+        public ImageResource getImageResource(String uri) {
+            ImageResource recurso = super.getImageResource(uri);
+            if (uri != null && ImageUtil.isEmbeddedBase64Image(uri) && !uri.equals(logo)) {
+                _imageCache.remove(uri);
+            }
+            return recurso;
+        }
 
-        logger.info("PDF generado y escrito en el OutputStream con éxito.");
+        int imagenesEnCache() {
+            return _imageCache.size();
+        }
     }
-}
\ No newline at end of file
+}
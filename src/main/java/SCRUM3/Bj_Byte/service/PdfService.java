@@ -2,13 +2,12 @@ package SCRUM3.Bj_Byte.service;
 
 import com.lowagie.text.*;
 import com.lowagie.text.pdf.*;
-import org.jfree.chart.ChartFactory;
-import org.jfree.chart.JFreeChart;
-import org.jfree.chart.plot.PlotOrientation;
-import org.jfree.data.category.DefaultCategoryDataset;
-import org.jfree.chart.ChartUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
 
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
@@ -17,18 +16,23 @@ import java.awt.Color;
 import java.io.*;
 import java.math.BigDecimal;
 import java.time.DayOfWeek;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.time.format.TextStyle;
 import java.util.*;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import SCRUM3.Bj_Byte.model.Venta;
 import SCRUM3.Bj_Byte.model.Empleado;
 import SCRUM3.Bj_Byte.repository.VentaRepository;
+import SCRUM3.Bj_Byte.repository.projection.LineaReporteView;
+import SCRUM3.Bj_Byte.service.cache.ClaveInforme;
+import SCRUM3.Bj_Byte.service.informe.FiltroFecha;
+import SCRUM3.Bj_Byte.service.pdf.GraficoPdf;
 
 
 @Service
@@ -37,11 +41,45 @@ public class PdfService {
     @Autowired
     private VentaRepository ventaRepository;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private InformePrecalculadoService informesPrecalculados;
+
+    @Autowired
+    private GraficoService graficos;
+
+    // Lecturas de las exportaciones: el cursor de líneas necesita una transacción abierta
+    private TransactionTemplate lecturaTemplate;
+
     // @Autowired
     // private EmpleadoRepository empleadoRepository; // Actualmente no utilizado
 
+    static final String TIPO_MIS_VENTAS = "mis_ventas";
+
+    // Filas que se acumulan en la tabla antes de pasarlas al documento
+    static final int FILAS_POR_BLOQUE = 500;
+
+    private static final float ANCHO_GRAFICO = 500;
+    private static final float ALTO_GRAFICO = 300;
+
+    /**
+     * Abre el flujo donde se escribe el PDF; solo se llama si hay algo que escribir.
+     */
+    @FunctionalInterface
+    interface DestinoPdf {
+        OutputStream abrir() throws IOException;
+    }
+
     private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
+    @PostConstruct
+    void init() {
+        lecturaTemplate = new TransactionTemplate(transactionManager);
+        lecturaTemplate.setReadOnly(true);
+    }
+
     // ------------------------
     // Helpers seguros (evitan NPEs)
     // ------------------------
@@ -81,7 +119,11 @@ public class PdfService {
     }
 
     private String safeDateFormatted(Venta v) {
-        return v.getFecha() != null ? v.getFecha().format(DATE_FMT) : "N/A";
+        return safeDateFormatted(v.getFecha());
+    }
+
+    private String safeDateFormatted(LocalDateTime fecha) {
+        return fecha != null ? fecha.format(DATE_FMT) : "N/A";
     }
 
     private String formatCurrency(BigDecimal amount) {
@@ -91,10 +133,20 @@ public class PdfService {
     // =========================
     // 1) REPORTE PARA EMPLEADO (con gráficas)
     // =========================
-    public ByteArrayInputStream generarReporteEmpleado(String nombreEmpleado, List<Venta> ventas) throws Exception {
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
+    /**
+     * Reporte de ventas a partir de las líneas planas (ordenadas por venta: las líneas
+     * de una venta llegan seguidas). La tabla y los totales por día se llenan en
+     * el mismo recorrido.
+     *
+     * El PDF se escribe en {@code salida} a medida que se recorren las líneas: la
+     * tabla se agrega al documento cada {@link #FILAS_POR_BLOQUE} filas y las páginas
+     * completas se envían, así que la memoria no depende del número de líneas. El
+     * gráfico va arriba en un marco reservado que se dibuja al terminar, cuando ya
+     * se conocen los totales por día. Cierra {@code salida}.
+     */
+    void escribirReporteEmpleado(OutputStream salida, String nombreEmpleado, Iterator<LineaReporteView> lineas) throws Exception {
         Document documento = new Document(PageSize.A4);
-        PdfWriter.getInstance(documento, out);
+        PdfWriter writer = PdfWriter.getInstance(documento, salida);
         documento.open();
 
         // Título
@@ -104,48 +156,19 @@ public class PdfService {
         titulo.setSpacingAfter(20);
         documento.add(titulo);
 
-        // Dataset para gráfico (ventas por día)
-        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
-        Map<DayOfWeek, BigDecimal> ventasPorDiaSemana = new EnumMap<>(DayOfWeek.class);
-        for (DayOfWeek d : DayOfWeek.values()) ventasPorDiaSemana.put(d, BigDecimal.ZERO);
-
-        for (Venta v : ventas) {
-            if (v == null) continue;
-            if (v.getFecha() == null) continue; // saltar si no hay fecha
-            BigDecimal valor = safeTotal(v);
-            DayOfWeek dia = v.getFecha().getDayOfWeek();
-            ventasPorDiaSemana.put(dia, ventasPorDiaSemana.getOrDefault(dia, BigDecimal.ZERO).add(valor));
-        }
-
-        for (DayOfWeek d : DayOfWeek.values()) {
-            dataset.addValue(ventasPorDiaSemana.get(d), "Ventas", d.getDisplayName(TextStyle.SHORT, Locale.forLanguageTag("es-ES")));
-        }
-
-        // Crear gráfico
-        JFreeChart chart = ChartFactory.createLineChart(
-                "Ventas por Día de la Semana",
-                "Día",
-                "Total Ventas",
-                dataset,
-                PlotOrientation.VERTICAL,
-                false, true, false
-        );
-        chart.setBackgroundPaint(Color.WHITE);
-        if (chart.getPlot() != null) chart.getPlot().setBackgroundPaint(new Color(230, 230, 250));
-
-        ByteArrayOutputStream chartOut = new ByteArrayOutputStream();
-        ChartUtils.writeChartAsPNG(chartOut, chart, 500, 300);
-        Image chartImage = Image.getInstance(chartOut.toByteArray());
-        chartImage.setAlignment(Element.ALIGN_CENTER);
-        chartImage.scaleToFit(500, 300);
-        documento.add(chartImage);
+        // Marco del gráfico: se llena al final, el PDF lo escribe al cerrar
+        PdfTemplate grafico = writer.getDirectContent().createTemplate(ANCHO_GRAFICO, ALTO_GRAFICO);
+        Image marco = Image.getInstance(grafico);
+        marco.setAlignment(Element.ALIGN_CENTER);
+        documento.add(marco);
 
         documento.add(new Paragraph(" "));
 
-        // Tabla de ventas
+        // Tabla de ventas, incompleta hasta la última línea
         PdfPTable tabla = new PdfPTable(5);
         tabla.setWidthPercentage(100);
         tabla.setWidths(new float[]{2f, 3f, 2f, 2f, 2f});
+        tabla.setComplete(false);
 
         Stream.of("Fecha", "Producto", "Cantidad", "Precio Unitario", "Total")
                 .forEach(header -> {
@@ -154,42 +177,53 @@ public class PdfService {
                     cell.setHorizontalAlignment(Element.ALIGN_CENTER);
                     tabla.addCell(cell);
                 });
+        tabla.setHeaderRows(1);
+
+        // Ventas por día de la semana (total de cada venta una sola vez)
+        Map<DayOfWeek, BigDecimal> ventasPorDiaSemana = new EnumMap<>(DayOfWeek.class);
+        for (DayOfWeek d : DayOfWeek.values()) ventasPorDiaSemana.put(d, BigDecimal.ZERO);
 
         BigDecimal totalVentas = BigDecimal.ZERO;
-        for (Venta v : ventas) {
-            if (v == null) continue;
-            if (v.getDetalles() == null || v.getDetalles().isEmpty()) {
-                tabla.addCell(safeDateFormatted(v));
+        Long ventaActual = null;
+        int filas = 0;
+        while (lineas.hasNext()) {
+            LineaReporteView l = lineas.next();
+            BigDecimal totalVenta = l.getTotalVenta() != null ? l.getTotalVenta() : BigDecimal.ZERO;
+            if (!l.getVentaId().equals(ventaActual)) {
+                ventaActual = l.getVentaId();
+                if (l.getFecha() != null) {
+                    ventasPorDiaSemana.merge(l.getFecha().getDayOfWeek(), totalVenta, BigDecimal::add);
+                }
+            }
+
+            tabla.addCell(safeDateFormatted(l.getFecha()));
+            if (l.getCantidad() == null) {
+                // Venta sin detalles
                 tabla.addCell("N/A");
                 tabla.addCell("0");
                 tabla.addCell("N/A");
-                tabla.addCell(formatCurrency(safeTotal(v)));
-                totalVentas = totalVentas.add(safeTotal(v));
-                continue;
-            }
-
-            for (var d : v.getDetalles()) {
-                tabla.addCell(safeDateFormatted(v));
-                String prod = "N/A";
+                tabla.addCell(formatCurrency(totalVenta));
+                totalVentas = totalVentas.add(totalVenta);
+            } else {
                 String unit = "N/A";
-                String qty = String.valueOf(d.getCantidad());
                 BigDecimal subtotal = BigDecimal.ZERO;
-                if (d.getInventario() != null && d.getInventario().getProducto() != null) {
-                    var prodObj = d.getInventario().getProducto();
-                    prod = prodObj.getNombre() != null ? prodObj.getNombre() : "N/A";
-                    if (prodObj.getPrecio() != null) {
-                        unit = formatCurrency(prodObj.getPrecio());
-                        subtotal = prodObj.getPrecio().multiply(BigDecimal.valueOf(d.getCantidad()));
-                    }
+                if (l.getPrecioUnitario() != null) {
+                    unit = formatCurrency(l.getPrecioUnitario());
+                    subtotal = l.getPrecioUnitario().multiply(BigDecimal.valueOf(l.getCantidad()));
                 }
-                tabla.addCell(prod);
-                tabla.addCell(qty);
+                tabla.addCell(l.getProducto() != null ? l.getProducto() : "N/A");
+                tabla.addCell(String.valueOf(l.getCantidad()));
                 tabla.addCell(unit);
                 tabla.addCell(formatCurrency(subtotal));
                 totalVentas = totalVentas.add(subtotal);
             }
-        }
 
+            // Las filas ya agregadas se descartan de la tabla; el encabezado se conserva
+            if (++filas % FILAS_POR_BLOQUE == 0) {
+                documento.add(tabla);
+            }
+        }
+        tabla.setComplete(true);
         documento.add(tabla);
         documento.add(new Paragraph(" "));
 
@@ -200,8 +234,18 @@ public class PdfService {
         resumen.setAlignment(Element.ALIGN_CENTER);
         documento.add(resumen);
 
+        // Gráfico de ventas por día, en el marco reservado arriba
+        GraficoPdf ventasPorDia = new GraficoPdf(GraficoPdf.Tipo.LINEA, ANCHO_GRAFICO, ALTO_GRAFICO)
+                .titulo("Ventas por Día de la Semana")
+                .ejes("Día", "Total Ventas")
+                .color(new Color(220, 60, 60))
+                .fondo(new Color(230, 230, 250));
+        for (DayOfWeek d : DayOfWeek.values()) {
+            ventasPorDia.punto(d.getDisplayName(TextStyle.SHORT, Locale.forLanguageTag("es-ES")), ventasPorDiaSemana.get(d));
+        }
+        graficos.dibujar(ventasPorDia, grafico, 0, 0);
+
         documento.close();
-        return new ByteArrayInputStream(out.toByteArray());
     }
 
     // =========================
@@ -286,15 +330,12 @@ public class PdfService {
     // 3) EXPORTACIONES (métodos públicos que usa el controlador)
     // =========================
     public void exportarVentasPDF(HttpServletResponse response) throws Exception {
-        List<Venta> listaVentas = ventaRepository.findAll();
-        if (listaVentas == null || listaVentas.isEmpty()) {
+        boolean escrito = escribirReporteLineas(() -> abrirRespuestaPdf(response, "ventas.pdf"),
+                "TODAS LAS VENTAS", null, null, null);
+        if (!escrito) {
             response.setContentType("text/plain");
             response.getWriter().write("No hay ventas para exportar.");
-            return;
         }
-
-        ByteArrayInputStream bis = generarReporteEmpleado("TODAS LAS VENTAS", listaVentas);
-        writeStreamToResponse(bis, response, "ventas.pdf");
     }
 
     public void exportarVentaPDF(Long id, HttpServletResponse response) throws Exception {
@@ -311,6 +352,15 @@ public class PdfService {
     }
 
     public void exportarMisVentasPDF(HttpServletResponse response, HttpSession session) throws Exception {
+        exportarMisVentasPDF(response, session, null);
+    }
+
+    /**
+     * Ventas del empleado en sesión, opcionalmente de un periodo (mismo formato de
+     * fecha que el reporte financiero). Los periodos cerrados estándar se envían
+     * precalculados si existen.
+     */
+    public void exportarMisVentasPDF(HttpServletResponse response, HttpSession session, String filtroFecha) throws Exception {
         Empleado empleado = (Empleado) session.getAttribute("empleadoLogueado");
         if (empleado == null) {
             response.setContentType("text/plain");
@@ -318,18 +368,66 @@ public class PdfService {
             return;
         }
 
-        List<Venta> ventasEmpleado = ventaRepository.findAll().stream()
-                .filter(v -> v.getEmpleado() != null && v.getEmpleado().getId().equals(empleado.getId()))
-                .collect(Collectors.toList());
+        LocalDateTime[] rango;
+        try {
+            rango = FiltroFecha.rango(filtroFecha);
+        } catch (DateTimeParseException e) {
+            response.setContentType("text/plain");
+            response.getWriter().write("Filtro de fecha inválido: " + filtroFecha);
+            return;
+        }
 
-        if (ventasEmpleado.isEmpty()) {
+        String nombreArchivo = "mis_ventas_" + empleado.getId() + ".pdf";
+        if (informesPrecalculados.servir(claveMisVentas(empleado.getId(), rango), response, nombreArchivo)) {
+            return;
+        }
+
+        boolean escrito = escribirReporteLineas(() -> abrirRespuestaPdf(response, nombreArchivo),
+                empleado.getNombre(), empleado.getId(), rango[0], rango[1]);
+        if (!escrito) {
             response.setContentType("text/plain");
             response.getWriter().write("No hay ventas del empleado para exportar.");
-            return;
         }
+    }
 
-        ByteArrayInputStream bis = generarReporteEmpleado(empleado.getNombre(), ventasEmpleado);
-        writeStreamToResponse(bis, response, "mis_ventas_" + empleado.getId() + ".pdf");
+    static ClaveInforme claveMisVentas(Long empleadoId, LocalDateTime[] rango) {
+        return new ClaveInforme(TIPO_MIS_VENTAS, null, String.valueOf(empleadoId), rango[0], rango[1]);
+    }
+
+    // Recorre las líneas del empleado (null = todas) en [inicio, fin) con el cursor; null si no hay ventas
+    byte[] generarReporteLineas(String titulo, Long empleadoId, LocalDateTime inicio, LocalDateTime fin) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32 * 1024);
+        return escribirReporteLineas(() -> out, titulo, empleadoId, inicio, fin) ? out.toByteArray() : null;
+    }
+
+    /**
+     * Escribe el PDF de las líneas del empleado (null = todas) en [inicio, fin)
+     * mientras se leen con el cursor, dentro de la transacción de lectura. El
+     * destino se abre con la primera línea.
+     *
+     * @return false si no hay ventas (el destino no se abre)
+     */
+    boolean escribirReporteLineas(DestinoPdf destino, String titulo, Long empleadoId,
+                                  LocalDateTime inicio, LocalDateTime fin) {
+        return lecturaTemplate.execute(status -> {
+            try (Stream<LineaReporteView> lineas = ventaRepository.streamLineasEmpleado(empleadoId, inicio, fin)) {
+                Iterator<LineaReporteView> it = lineas.iterator();
+                if (!it.hasNext()) return false;
+                escribirReporteEmpleado(destino.abrir(), titulo, it);
+                return true;
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("Error al generar el PDF de ventas: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    // Cabeceras del adjunto; sin Content-Length, el PDF sale por partes
+    private OutputStream abrirRespuestaPdf(HttpServletResponse response, String filename) throws IOException {
+        response.setContentType("application/pdf");
+        response.setHeader("Content-Disposition", "attachment; filename=" + filename);
+        return response.getOutputStream();
     }
 
     // Helper para escribir el PDF en la respuesta
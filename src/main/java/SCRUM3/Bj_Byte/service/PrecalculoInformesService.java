@@ -0,0 +1,146 @@
+package SCRUM3.Bj_Byte.service;
+
+import SCRUM3.Bj_Byte.model.Empleado;
+import SCRUM3.Bj_Byte.repository.EmpleadoRepository;
+import SCRUM3.Bj_Byte.service.cache.ClaveInforme;
+import SCRUM3.Bj_Byte.service.informe.PeriodoEstandar;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Precalcula de madrugada los reportes más pedidos de periodos cerrados (ayer,
+ * la semana pasada y el mes pasado): el global de ventas, el financiero sin
+ * filtros y el de ventas de cada empleado. Los guarda en
+ * {@link InformePrecalculadoService}, desde donde los endpoints los envían
+ * cuando los filtros coinciden.
+ *
+ * Un periodo cerrado solo cambia si se registra o elimina una venta con fecha
+ * dentro de él (lo que borra el fichero) o si se tocan sus ventas por fuera de
+ * la aplicación (lo detecta la huella guardada con cada informe), así que los
+ * que siguen vigentes no se regeneran.
+ */
+@Service
+public class PrecalculoInformesService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrecalculoInformesService.class);
+
+    /**
+     * Genera el PDF en memoria; null si no hay nada que guardar.
+     */
+    @FunctionalInterface
+    interface GeneradorPrecalculado {
+        byte[] generar() throws Exception;
+    }
+
+    private final VentasGlobalesReporteService ventasGlobales;
+    private final ReporteFinancieroService reporteFinanciero;
+    private final PdfService pdfService;
+    private final EmpleadoRepository empleadoRepository;
+    private final InformePrecalculadoService almacen;
+
+    public PrecalculoInformesService(VentasGlobalesReporteService ventasGlobales,
+                                     ReporteFinancieroService reporteFinanciero,
+                                     PdfService pdfService,
+                                     EmpleadoRepository empleadoRepository,
+                                     InformePrecalculadoService almacen) {
+        this.ventasGlobales = ventasGlobales;
+        this.reporteFinanciero = reporteFinanciero;
+        this.pdfService = pdfService;
+        this.empleadoRepository = empleadoRepository;
+        this.almacen = almacen;
+    }
+
+    @Scheduled(cron = "${informes.precalculados.cron:0 0 2 * * *}")
+    public void precalcularProgramado() {
+        try {
+            precalcular(LocalDate.now());
+        } catch (RuntimeException e) {
+            logger.error("No se pudieron precalcular los informes de periodos cerrados", e);
+        }
+    }
+
+    /**
+     * Genera los informes estándar que falten vistos desde {@code hoy} y borra los
+     * de periodos que ya no son estándar.
+     *
+     * @return Número de informes generados
+     */
+    int precalcular(LocalDate hoy) {
+        long inicio = System.currentTimeMillis();
+        int descartados = almacen.descartarDesactualizados();
+        List<Empleado> empleados = empleadoRepository.findAll();
+        Set<ClaveInforme> vigentes = new HashSet<>();
+        int generados = 0;
+
+        for (PeriodoEstandar periodo : PeriodoEstandar.values()) {
+            String filtro = periodo.filtro(hoy);
+            LocalDateTime[] rango = periodo.rango(hoy);
+
+            generados += precalcular(vigentes, periodo,
+                    new ClaveInforme(VentasGlobalesReporteService.TIPO_REPORTE, null, null, rango[0], rango[1]),
+                    () -> {
+                        ByteArrayOutputStream salida = new ByteArrayOutputStream(32 * 1024);
+                        ventasGlobales.escribirReporte(salida, rango[0], rango[1]);
+                        return salida.toByteArray();
+                    });
+
+            generados += precalcular(vigentes, periodo,
+                    new ClaveInforme(ReporteFinancieroService.TIPO_REPORTE, null, null, rango[0], rango[1]),
+                    () -> {
+                        ByteArrayOutputStream salida = new ByteArrayOutputStream(64 * 1024);
+                        reporteFinanciero.escribirReporte(salida, null, null, filtro);
+                        return salida.toByteArray();
+                    });
+
+            for (Empleado empleado : empleados) {
+                generados += precalcular(vigentes, periodo,
+                        PdfService.claveMisVentas(empleado.getId(), rango),
+                        () -> pdfService.generarReporteLineas(
+                                empleado.getNombre(), empleado.getId(), rango[0], rango[1]));
+            }
+        }
+
+        almacen.conservarSolo(vigentes);
+        logger.info("Informes de periodos cerrados precalculados: {} nuevos, {} vigentes, {} descartados ({} ms)",
+                generados, vigentes.size(), descartados, System.currentTimeMillis() - inicio);
+        return generados;
+    }
+
+    // Un fallo en un informe no impide generar los demás
+    private int precalcular(Set<ClaveInforme> vigentes, PeriodoEstandar periodo,
+                            ClaveInforme clave, GeneradorPrecalculado generador) {
+        vigentes.add(clave);
+        if (almacen.existe(clave)) {
+            return 0;
+        }
+        try {
+            long version = almacen.version();
+            String huella = almacen.huella(clave);
+            if (huella == null) {
+                return 0;
+            }
+            long inicio = System.currentTimeMillis();
+            byte[] pdf = generador.generar();
+            if (pdf == null) {
+                return 0;
+            }
+            Map<String, String> extra = Map.of(
+                    "periodo", periodo.getCodigo(),
+                    "duracionMs", String.valueOf(System.currentTimeMillis() - inicio));
+            return almacen.guardar(clave, pdf, huella, extra, version) ? 1 : 0;
+        } catch (Exception e) {
+            logger.warn("No se pudo precalcular {}: {}", clave, e.getMessage());
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package SCRUM3.Bj_Byte.service;
+
+import SCRUM3.Bj_Byte.dto.DetalleFacturaDTO;
+import SCRUM3.Bj_Byte.model.Venta;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import org.xhtmlrenderer.pdf.ITextFontResolver;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Recursos de la factura que se preparan una sola vez al arrancar y se comparten
+ * entre el PDF (InvoicePdfService) y la vista HTML del resumen de venta:
+ * - el logo ya codificado como data URI,
+ * - las fuentes TTF/OTF encontradas en classpath:fonts/,
+ * - un motor Thymeleaf propio con caché, de modo que la plantilla de la factura se
+ *   analiza una vez aunque spring.thymeleaf.cache esté desactivado para desarrollo.
+ */
+@Component
+public class RecursosFacturaRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecursosFacturaRegistry.class);
+
+    public static final String PLANTILLA_FACTURA = "invoice";
+
+    private static final String[] RUTAS_LOGO = {
+            "static/images/logo.png", "static/images/logo.jpg", "images/logo.png",
+            "images/logo.jpg", "logo.png", "logo.jpg"
+    };
+
+    private String logoDataUri;
+    private List<String> fuentes = Collections.emptyList();
+    private SpringTemplateEngine motorFactura;
+
+    @PostConstruct
+    public void inicializar() {
+        logoDataUri = cargarLogo();
+        fuentes = buscarFuentes();
+        motorFactura = crearMotor();
+
+        // Primer procesamiento: deja la plantilla analizada en la caché del motor
+        try {
+            motorFactura.process(PLANTILLA_FACTURA, contextoDeMuestra());
+        } catch (Exception e) {
+            logger.warn("No se pudo precargar la plantilla de factura: {}", e.getMessage());
+        }
+        logger.info("Recursos de factura listos (logo: {}, fuentes: {})", logoDataUri != null, fuentes.size());
+    }
+
+    /**
+     * @return El logo como "data:image/...;base64,..." o null si no hay logo
+     */
+    public String getLogoDataUri() {
+        return logoDataUri;
+    }
+
+    /**
+     * Motor Thymeleaf con caché usado para renderizar la factura.
+     */
+    public SpringTemplateEngine getMotorFactura() {
+        return motorFactura;
+    }
+
+    /**
+     * Registra en el renderer las fuentes encontradas al arrancar.
+     */
+    public void registrarFuentes(ITextFontResolver fontResolver) {
+        for (String fuente : fuentes) {
+            try {
+                fontResolver.addFont(fuente, true);
+            } catch (Exception e) {
+                logger.warn("No se pudo registrar la fuente {}: {}", fuente, e.getMessage());
+            }
+        }
+    }
+
+    private String cargarLogo() {
+        for (String ruta : RUTAS_LOGO) {
+            ClassPathResource res = new ClassPathResource(ruta);
+            if (!res.exists()) continue;
+            try {
+                byte[] bytes = res.getInputStream().readAllBytes();
+                String mime = ruta.endsWith(".png") ? "image/png" : "image/jpeg";
+                return "data:" + mime + ";base64," + Base64.getEncoder().encodeToString(bytes);
+            } catch (IOException e) {
+                logger.warn("No se pudo leer el logo {}: {}", ruta, e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private List<String> buscarFuentes() {
+        List<String> encontradas = new ArrayList<>();
+        try {
+            Resource[] recursos = new PathMatchingResourcePatternResolver()
+                    .getResources("classpath*:fonts/*.{ttf,otf}");
+            for (Resource r : recursos) {
+                encontradas.add(r.getURL().toExternalForm());
+            }
+        } catch (IOException e) {
+            logger.warn("No se pudieron buscar fuentes: {}", e.getMessage());
+        }
+        return encontradas;
+    }
+
+    private SpringTemplateEngine crearMotor() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        resolver.setCacheable(true);
+
+        SpringTemplateEngine motor = new SpringTemplateEngine();
+        motor.setTemplateResolver(resolver);
+        return motor;
+    }
+
+    /**
+     * Factura de muestra con una línea, para precargar la plantilla y calentar el
+     * renderizador del PDF.
+     */
+    Context contextoDeMuestra() {
+        Venta muestra = new Venta();
+        muestra.setId(0L);
+        muestra.setFecha(LocalDateTime.now());
+        muestra.setMetodoPago("Efectivo");
+
+        DetalleFacturaDTO linea = new DetalleFacturaDTO();
+        linea.setNombre("Muestra");
+        linea.setDescripcion("Producto vendido");
+        linea.setCantidad(1);
+        linea.setPrecio(BigDecimal.ONE);
+        linea.setIva(BigDecimal.ZERO);
+        linea.setTotalLinea(BigDecimal.ONE);
+        linea.setExento(true);
+
+        Context ctx = new Context();
+        ctx.setVariable("venta", muestra);
+        ctx.setVariable("detallesDto", List.of(linea));
+        ctx.setVariable("subtotal", BigDecimal.ONE);
+        ctx.setVariable("ivaTotal", BigDecimal.ZERO);
+        ctx.setVariable("totalPagar", BigDecimal.ONE);
+        ctx.setVariable("logoBase64", logoDataUri);
+        return ctx;
+    }
+}
@@ -0,0 +1,257 @@
+package SCRUM3.Bj_Byte.service;
+
+import SCRUM3.Bj_Byte.model.Producto;
+import SCRUM3.Bj_Byte.model.ResumenVentaDiaria;
+import SCRUM3.Bj_Byte.model.ResumenVentaDiariaId;
+import SCRUM3.Bj_Byte.model.Venta;
+import SCRUM3.Bj_Byte.model.VentaDetalle;
+import SCRUM3.Bj_Byte.repository.ResumenVentaDiariaRepository;
+import SCRUM3.Bj_Byte.repository.projection.TotalDiaView;
+import SCRUM3.Bj_Byte.service.dto.ResumenVentasEmpleado;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Mantiene el resumen diario de ventas (día × empleado × producto).
+ *
+ * Registrar o eliminar una venta suma o resta sus líneas en la misma transacción,
+ * con un único lote de UPSERT; si la venta hace rollback el resumen también.
+ * La reconstrucción recalcula toda la tabla desde ventas y venta_detalle: se usa
+ * para el relleno inicial y como conciliación nocturna. Va día a día, cada uno en
+ * su propia transacción corta, para no bloquear la tabla mientras se recorre
+ * todo el historial.
+ */
+@Service
+public class ResumenVentasService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResumenVentasService.class);
+
+    private static final String TABLA = ResumenVentaDiaria.TABLA;
+
+    // Los incrementos se acumulan sobre la fila existente o crean la fila del día
+    private static final String SQL_UPSERT = "INSERT INTO " + TABLA
+            + " (dia, empleado_id, producto_id, ingresos, unidades, costo, transacciones)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?)"
+            + " ON DUPLICATE KEY UPDATE ingresos = ingresos + VALUES(ingresos),"
+            + " unidades = unidades + VALUES(unidades),"
+            + " costo = costo + VALUES(costo),"
+            + " transacciones = transacciones + VALUES(transacciones)";
+
+    // Mismo criterio que aplicar(): ingreso de la línea = totalLinea (o lo más cercano
+    // en filas antiguas) y una venta sin detalles cuenta con su total en el producto 0
+    private static final String SQL_RECONSTRUIR_DIA = "INSERT INTO " + TABLA
+            + " (dia, empleado_id, producto_id, ingresos, unidades, costo, transacciones)"
+            + " SELECT CAST(v.fecha AS DATE), COALESCE(v.empleado_id, 0), COALESCE(i.producto_id, 0),"
+            + "  SUM(CASE WHEN d.id IS NULL THEN v.total_venta"
+            + "      ELSE COALESCE(d.total_linea, d.subtotal, d.precio_unitario * d.cantidad, 0) END),"
+            + "  SUM(COALESCE(d.cantidad, 0)),"
+            + "  SUM(COALESCE(d.costo_unitario, p.precio_base, 0) * COALESCE(d.cantidad, 0)),"
+            + "  COUNT(DISTINCT v.id)"
+            + " FROM ventas v"
+            + " LEFT JOIN venta_detalle d ON d.venta_id = v.id"
+            + " LEFT JOIN inventarios i ON i.id = d.inventario_id"
+            + " LEFT JOIN producto p ON p.id = i.producto_id"
+            + " WHERE v.fecha >= ? AND v.fecha < ?"
+            + " GROUP BY CAST(v.fecha AS DATE), COALESCE(v.empleado_id, 0), COALESCE(i.producto_id, 0)";
+
+    // Días de la serie del resumen por empleado (hoy incluido)
+    private static final int DIAS_SERIE = 7;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ResumenVentaDiariaRepository resumenRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public ResumenVentasService(JdbcTemplate jdbcTemplate, ResumenVentaDiariaRepository resumenRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.resumenRepository = resumenRepository;
+        // READ COMMITTED: en MySQL el INSERT ... SELECT lee ventas sin bloquearlas, así que
+        // la reconstrucción solo bloquea las filas del resumen del día, igual que un checkout
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    /**
+     * Suma una venta recién registrada. Debe llamarse dentro de la transacción del checkout.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void sumarVenta(Venta venta) {
+        aplicar(venta, venta.getDetalles(), 1);
+    }
+
+    /**
+     * Resta una venta que se va a eliminar. Debe llamarse dentro de la misma
+     * transacción que la borra.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void restarVenta(Venta venta, Collection<VentaDetalle> detalles) {
+        aplicar(venta, detalles, -1);
+    }
+
+    /**
+     * Resumen de un empleado leído del resumen diario en una sola consulta agrupada por día:
+     * el histórico es la suma de todos los días y la serie toma los 7 últimos.
+     * Cada día es el rango natural [00:00, 00:00 del día siguiente).
+     */
+    @Transactional(readOnly = true)
+    public ResumenVentasEmpleado resumenEmpleado(Long empleadoId, LocalDate hoy) {
+        LocalDate desde = hoy.minusDays(DIAS_SERIE - 1);
+        BigDecimal[] serie = new BigDecimal[DIAS_SERIE];
+        Arrays.fill(serie, BigDecimal.ZERO);
+        BigDecimal historico = BigDecimal.ZERO;
+
+        for (TotalDiaView d : resumenRepository.totalesPorDia(null, hoy.plusDays(1), empleadoId)) {
+            historico = historico.add(d.getIngresos());
+            if (!d.getDia().isBefore(desde)) {
+                serie[(int) ChronoUnit.DAYS.between(desde, d.getDia())] = d.getIngresos();
+            }
+        }
+
+        List<LocalDate> dias = new ArrayList<>(DIAS_SERIE);
+        for (int i = 0; i < DIAS_SERIE; i++) {
+            dias.add(desde.plusDays(i));
+        }
+        return new ResumenVentasEmpleado(historico, serie[DIAS_SERIE - 1], dias, Arrays.asList(serie));
+    }
+
+    /**
+     * Recalcula todo el resumen a partir del historial de ventas, un día por
+     * transacción: los días con ventas y los que tienen filas en el resumen (que
+     * quedan vacíos si ya no tienen ventas).
+     *
+     * @return Filas generadas
+     */
+    public int reconstruir() {
+        long inicio = System.currentTimeMillis();
+        SortedSet<LocalDate> dias = new TreeSet<>();
+        dias.addAll(jdbcTemplate.queryForList("SELECT DISTINCT CAST(fecha AS DATE) FROM ventas", LocalDate.class));
+        dias.addAll(jdbcTemplate.queryForList("SELECT DISTINCT dia FROM " + TABLA, LocalDate.class));
+
+        int filas = 0;
+        for (LocalDate dia : dias) {
+            filas += reconstruirDia(dia);
+        }
+        logger.info("Resumen diario de ventas reconstruido: {} filas en {} días ({} ms)",
+                filas, dias.size(), System.currentTimeMillis() - inicio);
+        return filas;
+    }
+
+    private int reconstruirDia(LocalDate dia) {
+        Integer filas = transactionTemplate.execute(status -> {
+            jdbcTemplate.update("DELETE FROM " + TABLA + " WHERE dia = ?", Date.valueOf(dia));
+            return jdbcTemplate.update(SQL_RECONSTRUIR_DIA,
+                    Timestamp.valueOf(dia.atStartOfDay()), Timestamp.valueOf(dia.plusDays(1).atStartOfDay()));
+        });
+        return filas != null ? filas : 0;
+    }
+
+    /**
+     * Conciliación periódica (por defecto cada noche): corrige cualquier desvío
+     * por cambios hechos directamente en la base de datos.
+     */
+    @Scheduled(cron = "${ventas.resumen.cron-reconstruccion:0 30 3 * * *}")
+    public void reconstruirProgramado() {
+        try {
+            reconstruir();
+        } catch (RuntimeException e) {
+            logger.error("No se pudo reconstruir el resumen diario de ventas", e);
+        }
+    }
+
+    /**
+     * Relleno inicial: si el resumen está vacío pero ya hay ventas, se construye al arrancar.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rellenarSiVacio() {
+        try {
+            Long filas = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + TABLA, Long.class);
+            Long ventas = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ventas", Long.class);
+            if ((filas == null || filas == 0) && ventas != null && ventas > 0) {
+                reconstruir();
+            }
+        } catch (RuntimeException e) {
+            logger.warn("No se pudo rellenar el resumen diario de ventas: {}", e.getMessage());
+        }
+    }
+
+    private void aplicar(Venta venta, Collection<VentaDetalle> detalles, int signo) {
+        LocalDate dia = venta.getFecha().toLocalDate();
+        long empleadoId = venta.getEmpleado() != null && venta.getEmpleado().getId() != null
+                ? venta.getEmpleado().getId()
+                : ResumenVentaDiariaId.SIN_ASIGNAR;
+
+        // Orden por producto: las ventas concurrentes bloquean las filas del resumen en el mismo orden
+        Map<Long, Acumulado> porProducto = new TreeMap<>();
+        if (detalles == null || detalles.isEmpty()) {
+            Acumulado a = porProducto.computeIfAbsent(ResumenVentaDiariaId.SIN_ASIGNAR, k -> new Acumulado());
+            a.ingresos = venta.getTotalVenta() != null ? venta.getTotalVenta() : BigDecimal.ZERO;
+        } else {
+            for (VentaDetalle d : detalles) {
+                Producto p = d.getInventario() != null ? d.getInventario().getProducto() : null;
+                Long productoId = p != null ? p.getId() : ResumenVentaDiariaId.SIN_ASIGNAR;
+
+                Acumulado a = porProducto.computeIfAbsent(productoId, k -> new Acumulado());
+                a.ingresos = a.ingresos.add(ingresoLinea(d));
+                a.unidades += d.getCantidad();
+                BigDecimal costoUnitario = costoUnitario(d, p);
+                if (costoUnitario != null) {
+                    a.costo = a.costo.add(costoUnitario.multiply(BigDecimal.valueOf(d.getCantidad())));
+                }
+            }
+        }
+
+        BigDecimal factor = BigDecimal.valueOf(signo);
+        List<Object[]> filas = new ArrayList<>(porProducto.size());
+        for (Map.Entry<Long, Acumulado> e : porProducto.entrySet()) {
+            Acumulado a = e.getValue();
+            filas.add(new Object[] {
+                    Date.valueOf(dia), empleadoId, e.getKey(),
+                    a.ingresos.multiply(factor), (long) signo * a.unidades,
+                    a.costo.multiply(factor), (long) signo });
+        }
+        jdbcTemplate.batchUpdate(SQL_UPSERT, filas);
+    }
+
+    private static BigDecimal ingresoLinea(VentaDetalle d) {
+        if (d.getTotalLinea() != null) return d.getTotalLinea();
+        if (d.getSubtotal() != null) return d.getSubtotal();
+        if (d.getPrecioUnitario() != null) return d.getPrecioUnitario().multiply(BigDecimal.valueOf(d.getCantidad()));
+        return BigDecimal.ZERO;
+    }
+
+    // Costo guardado en la línea; las líneas anteriores a ese campo usan el precioBase actual
+    private static BigDecimal costoUnitario(VentaDetalle d, Producto p) {
+        if (d.getCostoUnitario() != null) return d.getCostoUnitario();
+        return p != null ? p.getPrecioBase() : null;
+    }
+
+    private static class Acumulado {
+        BigDecimal ingresos = BigDecimal.ZERO;
+        long unidades;
+        BigDecimal costo = BigDecimal.ZERO;
+    }
+}
@@ -2,20 +2,32 @@ package SCRUM3.Bj_Byte.service;
 
 import SCRUM3.Bj_Byte.model.*;
 import SCRUM3.Bj_Byte.repository.*;
+import SCRUM3.Bj_Byte.service.dto.PaginaVentasCursor;
+import SCRUM3.Bj_Byte.service.event.VentaEliminadaEvent;
+import SCRUM3.Bj_Byte.service.event.VentaRegistradaEvent;
+import SCRUM3.Bj_Byte.service.exception.StockInsuficienteException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page; // 👈 Importación clave
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable; // 👈 Importación clave
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class VentaService {
 
+    private static final BigDecimal IVA = new BigDecimal("0.19");
+
     @Autowired
     private VentaRepository ventaRepository;
 
@@ -29,6 +41,12 @@ public class VentaService {
     @Autowired
     private ProductoRepository productoRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ResumenVentasService resumenVentasService;
+
 
     // =========================================================
     // MÉTODOS DE BÚSQUEDA Y FILTRADO (CON PAGINACIÓN) 🔎
@@ -37,6 +55,11 @@ public class VentaService {
     /**
      * Busca ventas aplicando filtros opcionales de producto, empleado y fecha, 
      * y maneja la paginación.
+     *
+     * Primero se obtiene la página de IDs y después, en dos consultas por lotes, las
+     * ventas con detalles → inventario → producto, cliente y proveedores. Así la vista
+     * no dispara cargas perezosas por fila y el número de sentencias no depende de
+     * cuántas líneas tenga cada venta.
      * * @param producto Nombre del producto a filtrar (o null/vacío)
      * @param empleado Nombre del empleado a filtrar (o null/vacío)
      * @param fecha Fecha en formato 'yyyy-MM-dd' a filtrar (o null/vacío)
@@ -50,7 +73,112 @@ public class VentaService {
             String fecha,
             Pageable pageable) {
 
-        return ventaRepository.buscarVentasConFiltrosPaginadas(producto, empleado, fecha, pageable);
+        LocalDateTime[] dia;
+        try {
+            dia = rangoDelDia(fecha);
+        } catch (DateTimeParseException e) {
+            return Page.empty(pageable); // una fecha inválida no coincide con ninguna venta
+        }
+
+        Page<Long> ids = ventaRepository.buscarIdsVentasConFiltros(producto, empleado, dia[0], dia[1], pageable);
+        return new PageImpl<>(cargarVentasParaListado(ids.getContent()), pageable, ids.getTotalElements());
+    }
+
+    /**
+     * Lista de ventas paginada por cursor (fecha, id), de la más reciente a la más antigua.
+     *
+     * A diferencia de la paginación por offset no hay conteo ni OFFSET: cada página
+     * parte de la última venta mostrada, así que la página 500 cuesta lo mismo que la 1.
+     *
+     * @param cursor Cursor recibido del enlace (null o inválido = primera página)
+     * @param haciaAtras true para la página anterior al cursor, false para la siguiente
+     * @param size Ventas por página
+     */
+    @Transactional(readOnly = true)
+    public PaginaVentasCursor buscarVentasPorCursor(
+            String producto,
+            String empleado,
+            String fecha,
+            String cursor,
+            boolean haciaAtras,
+            int size) {
+
+        LocalDateTime[] dia;
+        try {
+            dia = rangoDelDia(fecha);
+        } catch (DateTimeParseException e) {
+            return new PaginaVentasCursor(new ArrayList<>(), size, null, null);
+        }
+
+        PaginaVentasCursor.Posicion pos = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                pos = PaginaVentasCursor.Posicion.leer(cursor);
+            } catch (IllegalArgumentException e) {
+                pos = null; // se empieza desde la primera página
+            }
+        }
+
+        // Se pide una fila de más para saber si hay otra página en esa dirección
+        Pageable limite = PageRequest.of(0, size + 1);
+
+        if (haciaAtras && pos != null) {
+            List<Long> ids = ventaRepository.buscarIdsAntesDeCursor(
+                    producto, empleado, dia[0], dia[1], pos.getFecha(), pos.getId(), limite);
+            if (ids.size() > size) {
+                List<Long> pagina = new ArrayList<>(ids.subList(0, size));
+                Collections.reverse(pagina);
+                List<Venta> ventas = cargarVentasParaListado(pagina);
+                return new PaginaVentasCursor(ventas, size,
+                        cursorDeUltima(ventas), ventas.isEmpty() ? null : PaginaVentasCursor.cursorDe(ventas.get(0)));
+            }
+            // No hay más páginas antes: se muestra la primera completa
+            pos = null;
+        }
+
+        List<Long> ids = ventaRepository.buscarIdsDespuesDeCursor(producto, empleado, dia[0], dia[1],
+                pos != null ? pos.getFecha() : null, pos != null ? pos.getId() : null, limite);
+        boolean haySiguiente = ids.size() > size;
+        List<Venta> ventas = cargarVentasParaListado(haySiguiente ? ids.subList(0, size) : ids);
+
+        return new PaginaVentasCursor(ventas, size,
+                haySiguiente ? cursorDeUltima(ventas) : null,
+                pos != null && !ventas.isEmpty() ? PaginaVentasCursor.cursorDe(ventas.get(0)) : null);
+    }
+
+    private static String cursorDeUltima(List<Venta> ventas) {
+        return ventas.isEmpty() ? null : PaginaVentasCursor.cursorDe(ventas.get(ventas.size() - 1));
+    }
+
+    /**
+     * Convierte 'yyyy-MM-dd' en el rango [inicio del día, inicio del día siguiente).
+     * Sin fecha devuelve {null, null}.
+     */
+    private static LocalDateTime[] rangoDelDia(String fecha) {
+        if (fecha == null || fecha.isBlank()) {
+            return new LocalDateTime[] { null, null };
+        }
+        LocalDateTime inicio = LocalDate.parse(fecha.trim()).atStartOfDay();
+        return new LocalDateTime[] { inicio, inicio.plusDays(1) };
+    }
+
+    /**
+     * Carga las ventas con todo lo que muestra el listado, respetando el orden de los IDs.
+     */
+    private List<Venta> cargarVentasParaListado(List<Long> ids) {
+        if (ids.isEmpty()) return new ArrayList<>();
+
+        Map<Long, Venta> porId = ventaRepository.findConDetallesByIdIn(ids).stream()
+                .collect(Collectors.toMap(Venta::getId, Function.identity()));
+        // Mismas instancias (mismo contexto de persistencia): solo se inicializan los proveedores
+        ventaRepository.findConProveedoresByIdIn(ids);
+
+        List<Venta> ordenadas = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Venta v = porId.get(id);
+            if (v != null) ordenadas.add(v);
+        }
+        return ordenadas;
     }
 
 
@@ -93,72 +221,162 @@ public class VentaService {
     // =========================================================
     // MÉTODOS DE LÓGICA DE NEGOCIO (REGISTRAR VENTA) 🛒
     // =========================================================
-    
+
     /**
-     * Registra una venta con varios productos.
-     * NOTA: Este método es redundante ya que el VentaController maneja el registro
-     * con @Transactional, pero lo mantengo por completitud del servicio.
+     * Registra una venta con varios productos (checkout).
+     *
+     * Carga todos los inventarios solicitados en una sola consulta y descuenta el stock
+     * con un UPDATE condicional por inventario (solo si quedan unidades suficientes),
+     * de modo que dos terminales vendiendo la misma pieza nunca dejan el stock negativo.
+     * Si alguna línea no tiene stock se lanza StockInsuficienteException con las líneas
+     * que fallaron y se hace rollback de toda la venta.
+     *
+     * @param venta Venta con los datos generales (cliente, método de pago...)
+     * @param inventarioIds IDs de inventario de cada línea
+     * @param cantidades Cantidad vendida de cada línea (mismo orden que inventarioIds)
+     * @param empleado Empleado que registra la venta
+     * @return La venta guardada
      */
     @Transactional
-    public void registrarVenta(List<VentaDetalle> detalles, String cliente, String metodoPago, Long empleadoId) {
+    public Venta registrarVenta(Venta venta, List<Long> inventarioIds, List<Integer> cantidades, Empleado empleado) {
 
-        if (detalles == null || detalles.isEmpty()) {
+        if (inventarioIds == null || inventarioIds.isEmpty()) {
             throw new IllegalArgumentException("No se puede registrar una venta sin productos.");
         }
+        if (cantidades == null || cantidades.size() != inventarioIds.size()) {
+            throw new IllegalArgumentException("Cada producto debe tener una cantidad.");
+        }
 
-        // Obtener empleado
-        Empleado empleado = empleadoRepository.findById(empleadoId)
-                .orElseThrow(() -> new IllegalArgumentException("Empleado no encontrado."));
+        // Cantidad total pedida por inventario (una misma pieza puede venir en varias líneas)
+        Map<Long, Integer> cantidadPorInventario = new TreeMap<>();
+        for (int i = 0; i < inventarioIds.size(); i++) {
+            Long idInv = inventarioIds.get(i);
+            Integer cant = cantidades.get(i);
+            if (idInv == null || cant == null || cant <= 0) {
+                throw new IllegalArgumentException("Cantidad inválida en la línea " + (i + 1));
+            }
+            cantidadPorInventario.merge(idInv, cant, Integer::sum);
+        }
+
+        /* ============================
+          CARGA EN LOTE + VALIDACIONES
+        ============================ */
+        Map<Long, Inventario> inventarios = inventarioRepository
+                .findAllConProductoByIdIn(cantidadPorInventario.keySet()).stream()
+                .collect(Collectors.toMap(Inventario::getId, Function.identity()));
+
+        for (Long idInv : cantidadPorInventario.keySet()) {
+            Inventario inv = inventarios.get(idInv);
+            if (inv == null) {
+                throw new IllegalArgumentException("Inventario no encontrado: " + idInv);
+            }
+            if (!Boolean.TRUE.equals(inv.getProducto().getActivo())) {
+                throw new IllegalArgumentException("Producto deshabilitado: " + inv.getProducto().getNombre());
+            }
+        }
+
+        /* ============================
+          DETALLES Y TOTALES
+        ============================ */
+        Set<Proveedor> proveedoresAsociados = new HashSet<>();
+        BigDecimal totalVenta = BigDecimal.ZERO;
+
+        for (int i = 0; i < inventarioIds.size(); i++) {
+            Inventario inv = inventarios.get(inventarioIds.get(i));
+            Producto prod = inv.getProducto();
+            int cant = cantidades.get(i);
+
+            if (prod.getProveedores() != null)
+                proveedoresAsociados.addAll(prod.getProveedores());
+
+            BigDecimal precioUnit = prod.getPrecio();
+            BigDecimal subtotalLinea = precioUnit.multiply(BigDecimal.valueOf(cant));
+
+            // IVA 19% SOLO si el producto NO es exento
+            BigDecimal ivaLinea = BigDecimal.ZERO;
+            if (!Boolean.TRUE.equals(prod.getExento())) {
+                ivaLinea = subtotalLinea.multiply(IVA);
+            }
+
+            BigDecimal totalLinea = subtotalLinea.add(ivaLinea);
+
+            VentaDetalle det = new VentaDetalle();
+            det.setInventario(inv);
+            det.setCantidad(cant);
+            det.setPrecioUnitario(precioUnit);
+            det.setCostoUnitario(prod.getPrecioBase());
+            det.setSubtotal(subtotalLinea);
+            det.setIva(ivaLinea);
+            det.setTotalLinea(totalLinea);
+            venta.agregarDetalle(det);
+
+            totalVenta = totalVenta.add(totalLinea);
+        }
 
-        // Crear venta principal
-        Venta venta = new Venta();
-        venta.setFecha(LocalDateTime.now());
-        venta.setCliente(cliente);
-        venta.setMetodoPago(metodoPago);
         venta.setEmpleado(empleado);
         venta.setNombreEmpleado(empleado.getNombre());
+        venta.setFecha(LocalDateTime.now());
+        venta.setTotalVenta(totalVenta);
+        venta.setProveedores(proveedoresAsociados);
 
-        BigDecimal totalGeneral = BigDecimal.ZERO;
+        // Los detalles se guardan por cascada junto con la venta. Se persiste antes de
+        // bloquear el stock: si el generador de IDs tiene que reservar un bloque nuevo
+        // (con su propia conexión) esta transacción aún no retiene filas de inventario.
+        Venta guardada = ventaRepository.save(venta);
 
-        // Procesar cada detalle de venta
-        for (VentaDetalle detalle : detalles) {
-            Inventario inventario = inventarioRepository.findById(detalle.getInventario().getId())
-                    .orElseThrow(() -> new IllegalArgumentException("Inventario no encontrado."));
+        /* ============================
+          DESCONTAR INVENTARIO (atómico)
+          Se recorre en orden de ID para que las ventas concurrentes
+          bloqueen las filas siempre en el mismo orden.
+        ============================ */
+        List<StockInsuficienteException.LineaSinStock> sinStock = new ArrayList<>();
+        for (Map.Entry<Long, Integer> e : cantidadPorInventario.entrySet()) {
+            if (inventarioRepository.descontarStockSiDisponible(e.getKey(), e.getValue()) == 0) {
+                Inventario inv = inventarios.get(e.getKey());
+                sinStock.add(new StockInsuficienteException.LineaSinStock(
+                        inv.getId(), inv.getProducto().getNombre(), e.getValue()));
+            }
+        }
+        if (!sinStock.isEmpty()) {
+            throw new StockInsuficienteException(sinStock);
+        }
 
-            int cantidadVendida = detalle.getCantidad();
+        // Resumen diario en la misma transacción: si la venta hace rollback, el resumen también
+        resumenVentasService.sumarVenta(guardada);
 
-            if (inventario.getCantidad() < cantidadVendida) {
-                throw new IllegalArgumentException("No hay suficiente stock para el producto: "
-                        + inventario.getProducto().getNombre());
-            }
+        // Los oyentes "después del commit" (p. ej. la factura en segundo plano) solo se ejecutan si se confirma
+        eventPublisher.publishEvent(new VentaRegistradaEvent(guardada.getId(), guardada.getFecha()));
 
-            // Descontar inventario
-            inventario.setCantidad(inventario.getCantidad() - cantidadVendida);
-            inventarioRepository.save(inventario);
-
-            // Calcular subtotal (Este cálculo es muy básico y no incluye IVA. 
-            // El Controller tiene una lógica de cálculo más robusta, usar esta como referencia)
-            BigDecimal precioUnitario = inventario.getProducto().getPrecio();
-            BigDecimal subtotal = precioUnitario.multiply(BigDecimal.valueOf(cantidadVendida));
-
-
-            // Crear y configurar el nuevo detalle
-            VentaDetalle nuevoDetalle = new VentaDetalle();
-            nuevoDetalle.setVenta(venta);
-            nuevoDetalle.setInventario(inventario);
-            nuevoDetalle.setCantidad(cantidadVendida);
-            
-            // Asumo que Venta tiene un método para agregar detalles
-            // y que los detalles tienen campos para subtotal, iva y totalLinea
-            // Si el objeto VentaDetalle está usando el subtotal/iva/totalLinea del Controller, 
-            // este método necesitaría esos campos en los detalles que se le pasan.
-            
-            venta.agregarDetalle(nuevoDetalle);
-            totalGeneral = totalGeneral.add(subtotal); // Sumar el subtotal (simplificado)
+        return guardada;
+    }
+
+    /**
+     * Elimina una venta: devuelve su stock, la resta del resumen diario y la borra
+     * junto con sus detalles, todo en una transacción.
+     *
+     * @return true si la venta existía
+     */
+    @Transactional
+    public boolean eliminarVenta(Long id) {
+        List<Venta> encontradas = ventaRepository.findConDetallesByIdIn(List.of(id));
+        if (encontradas.isEmpty()) {
+            return false;
         }
+        Venta venta = encontradas.get(0);
+
+        // Unidades a devolver por inventario, en orden de ID (mismo orden de bloqueo que el checkout)
+        Map<Long, Integer> cantidadPorInventario = new TreeMap<>();
+        for (VentaDetalle d : venta.getDetalles()) {
+            if (d.getInventario() != null) {
+                cantidadPorInventario.merge(d.getInventario().getId(), d.getCantidad(), Integer::sum);
+            }
+        }
+        cantidadPorInventario.forEach(inventarioRepository::reponerStock);
+
+        resumenVentasService.restarVenta(venta, venta.getDetalles());
+        ventaRepository.delete(venta);
 
-        // Guardar venta con total calculado
-        venta.setTotalVenta(totalGeneral);
-        ventaRepository.save(venta);
+        eventPublisher.publishEvent(new VentaEliminadaEvent(venta.getId(), venta.getFecha()));
+        return true;
     }
-}
\ No newline at end of file
+}
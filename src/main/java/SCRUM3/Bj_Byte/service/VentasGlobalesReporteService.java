@@ -1,52 +1,118 @@
 package SCRUM3.Bj_Byte.service;
 
 import com.lowagie.text.*;
+import com.lowagie.text.pdf.BaseFont;
 import com.lowagie.text.pdf.PdfWriter;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import SCRUM3.Bj_Byte.model.Venta;
-import SCRUM3.Bj_Byte.model.VentaDetalle;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import SCRUM3.Bj_Byte.repository.VentaRepository;
-
+import SCRUM3.Bj_Byte.repository.projection.LineaReporteView;
+import SCRUM3.Bj_Byte.service.cache.ClaveInforme;
+import SCRUM3.Bj_Byte.service.informe.AcumuladorInforme;
+import SCRUM3.Bj_Byte.service.informe.FiltroFecha;
+import SCRUM3.Bj_Byte.service.informe.VentaMuestra;
+import SCRUM3.Bj_Byte.service.pdf.EstiloTabla;
+import SCRUM3.Bj_Byte.service.pdf.EstilosPdf;
+import SCRUM3.Bj_Byte.service.pdf.TablaPdf;
+
+import java.awt.Color;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.time.format.DateTimeParseException;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Servicio de generación de reporte global de ventas.
  *
  * Este servicio produce un PDF textual, monocromo y compacto de una sola página
  * con un resumen ejecutivo y una muestra reducida de transacciones.
+ * Las ventas se leen como filas planas con un cursor y se acumulan en una pasada,
+ * sin cargar entidades.
  */
 @Service
 public class VentasGlobalesReporteService {
 
+    static final String TIPO_REPORTE = "ventas_globales";
+
+    private static final int TAMANO_MUESTRA = 8;
+
+    private static final Font TITULO = EstilosPdf.fuente(BaseFont.HELVETICA_BOLD, 16, Color.BLACK);
+    private static final Font SUBTITULO_PEQUENO = EstilosPdf.fuente(BaseFont.HELVETICA_BOLD, 10, Color.BLACK);
+
     @Autowired
     private VentaRepository ventaRepository;
 
+    @Autowired
+    private InformePrecalculadoService informesPrecalculados;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate lecturaTemplate;
+
+    @PostConstruct
+    void init() {
+        lecturaTemplate = new TransactionTemplate(transactionManager);
+        lecturaTemplate.setReadOnly(true);
+    }
+
     public void generarReporteVentasGlobales(HttpServletResponse response) throws IOException {
+        generarReporteVentasGlobales(response, null);
+    }
+
+    /**
+     * Reporte global, opcionalmente limitado a un periodo (mismo formato de fecha que
+     * el reporte financiero). Los periodos cerrados estándar se envían precalculados
+     * si existen.
+     */
+    public void generarReporteVentasGlobales(HttpServletResponse response, String filtroFecha) throws IOException {
+        LocalDateTime[] rango;
+        try {
+            rango = FiltroFecha.rango(filtroFecha);
+        } catch (DateTimeParseException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write("Filtro de fecha inválido: " + filtroFecha);
+            return;
+        }
+
+        String nombreArchivo = "reporte_ventas_globales_" + System.currentTimeMillis() + ".pdf";
+        ClaveInforme clave = new ClaveInforme(TIPO_REPORTE, null, null, rango[0], rango[1]);
+        if (informesPrecalculados.servir(clave, response, nombreArchivo)) {
+            return;
+        }
+
         response.setContentType("application/pdf");
-        response.setHeader("Content-Disposition", "attachment; filename=reporte_ventas_globales_" + System.currentTimeMillis() + ".pdf");
+        response.setHeader("Content-Disposition", "attachment; filename=" + nombreArchivo);
+        escribirReporte(response.getOutputStream(), rango[0], rango[1]);
+    }
 
+    /**
+     * Escribe el PDF con las ventas de [inicio, fin) (null = sin límite).
+     */
+    void escribirReporte(OutputStream salida, LocalDateTime inicio, LocalDateTime fin) throws IOException {
         Document document = new Document(PageSize.A4, 36, 36, 36, 36);
         try {
-            PdfWriter.getInstance(document, response.getOutputStream());
+            PdfWriter.getInstance(document, salida);
             document.open();
 
-            List<Venta> ventas = ventaRepository.findAll();
+            AcumuladorInforme ventas = acumularVentas(inicio, fin);
 
-            agregarEncabezado(document);
+            agregarEncabezado(document, inicio, fin);
             agregarResumenEjecutivo(document, ventas);
             agregarTablaTransaccionesReducida(document, ventas);
             agregarObservacionesYRecomendaciones(document, ventas);
 
-            Paragraph footer = new Paragraph("Fin del resumen. Solicite el informe detallado para información completa.", new Font(Font.HELVETICA, 8));
+            Paragraph footer = new Paragraph("Fin del resumen. Solicite el informe detallado para información completa.", EstilosPdf.NOTA);
             footer.setAlignment(Element.ALIGN_CENTER);
             document.add(footer);
 
@@ -57,106 +123,100 @@ public class VentasGlobalesReporteService {
         }
     }
 
-    private void agregarEncabezado(Document document) throws DocumentException {
-        Paragraph titulo = new Paragraph("REPORTE GLOBAL DE VENTAS - RESUMEN", new Font(Font.HELVETICA, 16, Font.BOLD));
+    // Las ventas del periodo en un solo recorrido del cursor
+    private AcumuladorInforme acumularVentas(LocalDateTime inicio, LocalDateTime fin) {
+        return lecturaTemplate.execute(status -> {
+            AcumuladorInforme acumulado = new AcumuladorInforme(TAMANO_MUESTRA);
+            try (Stream<LineaReporteView> lineas = ventaRepository.streamLineasReporte(null, null, inicio, fin)) {
+                lineas.forEach(acumulado::agregar);
+            }
+            return acumulado;
+        });
+    }
+
+    private void agregarEncabezado(Document document, LocalDateTime inicio, LocalDateTime fin) throws DocumentException {
+        Paragraph titulo = new Paragraph("REPORTE GLOBAL DE VENTAS - RESUMEN", TITULO);
         titulo.setAlignment(Element.ALIGN_CENTER);
         document.add(titulo);
 
-        Paragraph fecha = new Paragraph("Fecha: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")), new Font(Font.HELVETICA, 9));
+        if (inicio != null && fin != null) {
+            DateTimeFormatter dia = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+            Paragraph periodo = new Paragraph("Periodo: " + inicio.format(dia) + " - " + fin.minusDays(1).format(dia), EstilosPdf.TEXTO_PEQUENO);
+            periodo.setAlignment(Element.ALIGN_CENTER);
+            document.add(periodo);
+        }
+
+        Paragraph fecha = new Paragraph("Fecha: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")), EstilosPdf.TEXTO_PEQUENO);
         fecha.setAlignment(Element.ALIGN_CENTER);
         fecha.setSpacingAfter(10);
         document.add(fecha);
     }
 
-    private void agregarResumenEjecutivo(Document document, List<Venta> ventas) throws DocumentException {
-        Paragraph titulo = new Paragraph("RESUMEN", new Font(Font.HELVETICA, 11, Font.BOLD));
+    private void agregarResumenEjecutivo(Document document, AcumuladorInforme ventas) throws DocumentException {
+        Paragraph titulo = new Paragraph("RESUMEN", EstilosPdf.SUBTITULO);
         titulo.setSpacingBefore(6);
         titulo.setSpacingAfter(6);
         document.add(titulo);
 
-        BigDecimal totalVentas = ventas.stream()
-                .filter(v -> v.getTotalVenta() != null)
-                .map(Venta::getTotalVenta)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalVentas = ventas.getTotalVentas();
 
-        int cantidadVentas = ventas.size();
+        long cantidadVentas = ventas.getTransacciones();
         BigDecimal promedio = cantidadVentas > 0 ? totalVentas.divide(new BigDecimal(cantidadVentas), 2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
 
-        Table tabla = new Table(2);
-        tabla.setWidth(100);
-        tabla.setPadding(6);
-
-        agregarCeldaTabla(tabla, "Total Ventas", true);
-        agregarCeldaTabla(tabla, formatoCurrency(totalVentas), false);
+        TablaPdf tabla = new TablaPdf(EstiloTabla.OSCURO_COMPACTO, 2)
+                .par("Total Ventas", EstilosPdf.moneda(totalVentas))
+                .par("Cantidad Ventas", String.valueOf(cantidadVentas))
+                .par("Promedio por Venta", EstilosPdf.moneda(promedio));
 
-        agregarCeldaTabla(tabla, "Cantidad Ventas", true);
-        agregarCeldaTabla(tabla, String.valueOf(cantidadVentas), false);
-
-        agregarCeldaTabla(tabla, "Promedio por Venta", true);
-        agregarCeldaTabla(tabla, formatoCurrency(promedio), false);
-
-        document.add(tabla);
+        document.add(tabla.getTabla());
         document.add(new Paragraph(" "));
     }
 
-    private void agregarTablaTransaccionesReducida(Document document, List<Venta> ventas) throws DocumentException {
-        if (ventas == null || ventas.isEmpty()) return;
+    private void agregarTablaTransaccionesReducida(Document document, AcumuladorInforme ventas) throws DocumentException {
+        if (ventas.getTransacciones() == 0) return;
 
-        Paragraph titulo = new Paragraph("Muestra de Transacciones (hasta 8)", new Font(Font.HELVETICA, 10, Font.BOLD));
+        Paragraph titulo = new Paragraph("Muestra de Transacciones (hasta 8)", SUBTITULO_PEQUENO);
         titulo.setSpacingBefore(6);
         titulo.setSpacingAfter(6);
         document.add(titulo);
 
-        Table tabla = new Table(5);
-        tabla.setWidth(100);
-        tabla.setPadding(4);
-
-        agregarCeldaTabla(tabla, "ID", true);
-        agregarCeldaTabla(tabla, "Empleado", true);
-        agregarCeldaTabla(tabla, "Artículos", true);
-        agregarCeldaTabla(tabla, "Total", true);
-        agregarCeldaTabla(tabla, "Fecha", true);
-
-        List<Venta> muestra = ventas.stream().limit(8).collect(Collectors.toList());
-        for (Venta v : muestra) {
-            int cantidad = v.getDetalles() != null ? v.getDetalles().stream().mapToInt(VentaDetalle::getCantidad).sum() : 0;
-            agregarCeldaTabla(tabla, String.valueOf(v.getId()), false);
-            agregarCeldaTabla(tabla, v.getNombreEmpleado() != null ? v.getNombreEmpleado() : "-", false);
-            agregarCeldaTabla(tabla, String.valueOf(cantidad), false);
-            agregarCeldaTabla(tabla, formatoCurrency(v.getTotalVenta()), false);
-            agregarCeldaTabla(tabla, v.getFecha() != null ? v.getFecha().toLocalDate().toString() : "-", false);
+        TablaPdf tabla = new TablaPdf(EstiloTabla.OSCURO_COMPACTO.conRelleno(4), 5)
+                .encabezado("ID", "Empleado", "Artículos", "Total", "Fecha");
+
+        for (VentaMuestra v : ventas.getMuestra()) {
+            tabla.fila(String.valueOf(v.getId()),
+                    v.getNombreEmpleado() != null ? v.getNombreEmpleado() : "-",
+                    String.valueOf(v.getArticulos()),
+                    EstilosPdf.moneda(v.getTotal()),
+                    v.getFecha() != null ? v.getFecha().toLocalDate().toString() : "-");
         }
 
-        document.add(tabla);
+        document.add(tabla.getTabla());
         document.add(new Paragraph(" "));
     }
 
-        private void agregarObservacionesYRecomendaciones(Document document, List<Venta> ventas) throws DocumentException {
-        if (ventas == null || ventas.isEmpty()) return;
+        private void agregarObservacionesYRecomendaciones(Document document, AcumuladorInforme ventas) throws DocumentException {
+        if (ventas.getTransacciones() == 0) return;
 
-        Paragraph titulo = new Paragraph("OBSERVACIONES Y RECOMENDACIONES", new Font(Font.HELVETICA, 10, Font.BOLD));
+        Paragraph titulo = new Paragraph("OBSERVACIONES Y RECOMENDACIONES", SUBTITULO_PEQUENO);
         titulo.setSpacingBefore(6);
         titulo.setSpacingAfter(6);
         document.add(titulo);
 
         // Calcular artículos totales vendidos
-        int totalArticulos = ventas.stream()
-            .filter(v -> v.getDetalles() != null)
-            .mapToInt(v -> v.getDetalles().stream().mapToInt(VentaDetalle::getCantidad).sum())
-            .sum();
+        long totalArticulos = ventas.getTotalArticulos();
 
         // Determinar empleado con más ventas (por cantidad de transacciones)
-        String topEmpleado = ventas.stream()
-            .filter(v -> v.getNombreEmpleado() != null)
-            .collect(Collectors.groupingBy(Venta::getNombreEmpleado, Collectors.counting()))
+        String topEmpleado = ventas.getTransaccionesPorEmpleado()
             .entrySet()
             .stream()
+            .filter(e -> !AcumuladorInforme.SIN_ASIGNAR.equals(e.getKey()))
             .max(Map.Entry.comparingByValue())
             .map(Map.Entry::getKey)
             .orElse("-");
 
-        Paragraph p1 = new Paragraph("Total artículos vendidos: " + totalArticulos, new Font(Font.HELVETICA, 9));
-        Paragraph p2 = new Paragraph("Empleado con mayor número de ventas (transacciones): " + topEmpleado, new Font(Font.HELVETICA, 9));
+        Paragraph p1 = new Paragraph("Total artículos vendidos: " + totalArticulos, EstilosPdf.TEXTO_PEQUENO);
+        Paragraph p2 = new Paragraph("Empleado con mayor número de ventas (transacciones): " + topEmpleado, EstilosPdf.TEXTO_PEQUENO);
         p1.setSpacingAfter(4);
         p2.setSpacingAfter(6);
         document.add(p1);
@@ -168,29 +228,9 @@ public class VentasGlobalesReporteService {
             "Recomendaciones: revisar los productos con baja rotación, optimizar inventario y programar promociones sobre artículos con alta rotación. " +
             "Para análisis detallados (ventas por producto, tendencias temporales y desglose por cliente), solicite el informe completo.";
 
-        Paragraph p3 = new Paragraph(texto, new Font(Font.HELVETICA, 9));
+        Paragraph p3 = new Paragraph(texto, EstilosPdf.TEXTO_PEQUENO);
         p3.setSpacingAfter(6);
         document.add(p3);
         document.add(new Paragraph(" "));
         }
-
-    private void agregarCeldaTabla(Table tabla, String contenido, boolean esEncabezado) throws BadElementException {
-        if (esEncabezado) {
-            com.lowagie.text.Font headerFont = new Font(Font.HELVETICA, 9, Font.BOLD);
-            Cell cell = new Cell(new Paragraph(contenido, headerFont));
-            cell.setBackgroundColor(new java.awt.Color(60, 60, 60));
-            cell.setBorderWidth(0.5f);
-            tabla.addCell(cell);
-        } else {
-            com.lowagie.text.Font normalFont = new Font(Font.HELVETICA, 9);
-            Cell cell = new Cell(new Paragraph(contenido, normalFont));
-            cell.setBorderWidth(0.3f);
-            tabla.addCell(cell);
-        }
-    }
-
-    private String formatoCurrency(BigDecimal valor) {
-        if (valor == null) return "$ 0.00";
-        return "$ " + String.format("%,.2f", valor);
-    }
 }
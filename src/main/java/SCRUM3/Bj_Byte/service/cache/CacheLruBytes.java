@@ -0,0 +1,115 @@
+package SCRUM3.Bj_Byte.service.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Caché en memoria de arreglos de bytes (PDF, imágenes...) acotada por tamaño total.
+ *
+ * Cuando la suma de bytes supera el máximo se expulsan las entradas usadas hace más
+ * tiempo (LRU). Lleva contadores de aciertos, fallos y expulsiones. Es segura para
+ * uso concurrente.
+ *
+ * @param <K> Tipo de la clave
+ */
+public class CacheLruBytes<K> {
+
+    private final long maxBytes;
+
+    // accessOrder = true: cada get mueve la entrada al final (la más reciente)
+    private final LinkedHashMap<K, byte[]> entradas = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long bytes;
+    private long aciertos;
+    private long fallos;
+    private long expulsiones;
+
+    public CacheLruBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return El contenido guardado o null si no está
+     */
+    public synchronized byte[] obtener(K clave) {
+        byte[] valor = entradas.get(clave);
+        if (valor != null) {
+            aciertos++;
+        } else {
+            fallos++;
+        }
+        return valor;
+    }
+
+    /**
+     * Si la clave está, sin contar acierto ni fallo ni cambiar su antigüedad.
+     */
+    public synchronized boolean contiene(K clave) {
+        return entradas.containsKey(clave);
+    }
+
+    /**
+     * Guarda el contenido; si no cabe ni en la caché vacía no se guarda.
+     */
+    public synchronized void guardar(K clave, byte[] valor) {
+        if (valor == null || valor.length > maxBytes) return;
+
+        byte[] anterior = entradas.put(clave, valor);
+        if (anterior != null) {
+            bytes -= anterior.length;
+        }
+        bytes += valor.length;
+
+        Iterator<Map.Entry<K, byte[]>> it = entradas.entrySet().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            Map.Entry<K, byte[]> masAntigua = it.next();
+            bytes -= masAntigua.getValue().length;
+            it.remove();
+            expulsiones++;
+        }
+    }
+
+    public synchronized void invalidar(K clave) {
+        byte[] anterior = entradas.remove(clave);
+        if (anterior != null) {
+            bytes -= anterior.length;
+        }
+    }
+
+    /**
+     * Elimina todas las entradas cuya clave cumpla la condición.
+     */
+    public synchronized void invalidarSi(Predicate<K> condicion) {
+        Iterator<Map.Entry<K, byte[]>> it = entradas.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<K, byte[]> e = it.next();
+            if (condicion.test(e.getKey())) {
+                bytes -= e.getValue().length;
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized void limpiar() {
+        entradas.clear();
+        bytes = 0;
+    }
+
+    /**
+     * Estadísticas para monitoreo: entradas, bytes, aciertos, fallos y expulsiones.
+     */
+    public synchronized Map<String, Object> estadisticas() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entradas", entradas.size());
+        stats.put("bytes", bytes);
+        stats.put("maxBytes", maxBytes);
+        stats.put("aciertos", aciertos);
+        stats.put("fallos", fallos);
+        stats.put("expulsiones", expulsiones);
+        long consultas = aciertos + fallos;
+        stats.put("tasaAciertos", consultas > 0 ? (double) aciertos / consultas : 0.0);
+        return stats;
+    }
+}
@@ -0,0 +1,78 @@
+package SCRUM3.Bj_Byte.service.cache;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Clave de un informe en caché: tipo de informe y filtros ya normalizados
+ * (vacío = null; el llamador pasa a minúsculas los filtros que no distinguen
+ * mayúsculas). La fecha se guarda como rango [inicio, fin), null = sin límite,
+ * para saber qué informes afecta una venta de una fecha dada.
+ */
+public final class ClaveInforme {
+
+    private final String tipo;
+    private final String producto;
+    private final String empleado;
+    private final LocalDateTime inicio;
+    private final LocalDateTime fin;
+
+    public ClaveInforme(String tipo, String producto, String empleado,
+                        LocalDateTime inicio, LocalDateTime fin) {
+        this.tipo = tipo;
+        this.producto = producto;
+        this.empleado = empleado;
+        this.inicio = inicio;
+        this.fin = fin;
+    }
+
+    /**
+     * @return true si una venta con esa fecha puede aparecer en el informe
+     */
+    public boolean cubre(LocalDateTime fecha) {
+        if (fecha == null) return true;
+        return (inicio == null || !fecha.isBefore(inicio)) && (fin == null || fecha.isBefore(fin));
+    }
+
+    public String getTipo() {
+        return tipo;
+    }
+
+    public String getProducto() {
+        return producto;
+    }
+
+    public String getEmpleado() {
+        return empleado;
+    }
+
+    public LocalDateTime getInicio() {
+        return inicio;
+    }
+
+    public LocalDateTime getFin() {
+        return fin;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ClaveInforme otra)) return false;
+        return tipo.equals(otra.tipo)
+                && Objects.equals(producto, otra.producto)
+                && Objects.equals(empleado, otra.empleado)
+                && Objects.equals(inicio, otra.inicio)
+                && Objects.equals(fin, otra.fin);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(tipo, producto, empleado, inicio, fin);
+    }
+
+    @Override
+    public String toString() {
+        return tipo + "[producto=" + producto + ", empleado=" + empleado
+                + ", desde=" + inicio + ", hasta=" + fin + "]";
+    }
+}
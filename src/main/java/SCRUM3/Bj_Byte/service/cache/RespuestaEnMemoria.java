@@ -0,0 +1,76 @@
+package SCRUM3.Bj_Byte.service.cache;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Respuesta que guarda el cuerpo en memoria en lugar de enviarlo. Las cabeceras
+ * (tipo de contenido, Content-Disposition...) pasan a la respuesta original.
+ * Sirve para quedarse con una copia del informe generado y guardarla en caché.
+ */
+public class RespuestaEnMemoria extends HttpServletResponseWrapper {
+
+    private final ByteArrayOutputStream cuerpo = new ByteArrayOutputStream(64 * 1024);
+    private ServletOutputStream salida;
+    private PrintWriter writer;
+
+    public RespuestaEnMemoria(HttpServletResponse response) {
+        super(response);
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        if (salida == null) {
+            salida = new ServletOutputStream() {
+                @Override
+                public void write(int b) {
+                    cuerpo.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    cuerpo.write(b, off, len);
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+        return salida;
+    }
+
+    @Override
+    public PrintWriter getWriter() {
+        if (writer == null) {
+            writer = new PrintWriter(new OutputStreamWriter(cuerpo, StandardCharsets.UTF_8));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() {
+        if (writer != null) writer.flush();
+    }
+
+    /**
+     * @return Todo lo escrito hasta ahora
+     */
+    public byte[] getContenido() {
+        if (writer != null) writer.flush();
+        return cuerpo.toByteArray();
+    }
+}
@@ -0,0 +1,97 @@
+package SCRUM3.Bj_Byte.service.dto;
+
+import SCRUM3.Bj_Byte.model.Venta;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Página de ventas obtenida por cursor (keyset) sobre (fecha, id), del más reciente al más antiguo.
+ *
+ * No lleva total de elementos ni de páginas: solo los cursores para ir a la página
+ * siguiente o a la anterior (null si no existen).
+ */
+public class PaginaVentasCursor {
+
+    private static final char SEPARADOR = '_';
+
+    private final List<Venta> content;
+    private final int size;
+    private final String cursorSiguiente;
+    private final String cursorAnterior;
+
+    public PaginaVentasCursor(List<Venta> content, int size, String cursorSiguiente, String cursorAnterior) {
+        this.content = content;
+        this.size = size;
+        this.cursorSiguiente = cursorSiguiente;
+        this.cursorAnterior = cursorAnterior;
+    }
+
+    public List<Venta> getContent() {
+        return content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public String getCursorSiguiente() {
+        return cursorSiguiente;
+    }
+
+    public String getCursorAnterior() {
+        return cursorAnterior;
+    }
+
+    public boolean isTieneSiguiente() {
+        return cursorSiguiente != null;
+    }
+
+    public boolean isTieneAnterior() {
+        return cursorAnterior != null;
+    }
+
+    /**
+     * Cursor de una venta: "fecha_id" (fecha en formato ISO).
+     */
+    public static String cursorDe(Venta venta) {
+        return venta.getFecha() + String.valueOf(SEPARADOR) + venta.getId();
+    }
+
+    /**
+     * Posición (fecha, id) codificada en un cursor.
+     */
+    public static class Posicion {
+        private final LocalDateTime fecha;
+        private final Long id;
+
+        public Posicion(LocalDateTime fecha, Long id) {
+            this.fecha = fecha;
+            this.id = id;
+        }
+
+        public LocalDateTime getFecha() {
+            return fecha;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        /**
+         * @throws IllegalArgumentException Si el cursor no tiene el formato esperado
+         */
+        public static Posicion leer(String cursor) {
+            int corte = cursor.lastIndexOf(SEPARADOR);
+            if (corte <= 0) {
+                throw new IllegalArgumentException("Cursor inválido: " + cursor);
+            }
+            try {
+                return new Posicion(LocalDateTime.parse(cursor.substring(0, corte)),
+                        Long.valueOf(cursor.substring(corte + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Cursor inválido: " + cursor, e);
+            }
+        }
+    }
+}
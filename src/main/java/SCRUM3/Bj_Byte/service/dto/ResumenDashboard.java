@@ -0,0 +1,70 @@
+package SCRUM3.Bj_Byte.service.dto;
+
+import SCRUM3.Bj_Byte.repository.projection.StockBajoView;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Datos del tablero de inicio en un momento dado. Es inmutable: la misma instancia
+ * se comparte entre todos los empleados hasta que caduca o se registra una venta.
+ */
+public class ResumenDashboard {
+
+    private final LocalDate dia;
+    private final BigDecimal ventasHoy;
+    private final BigDecimal ventasHistoricas;
+    private final long citasPendientes;
+    private final long productosTotales;
+    private final List<Double> ventasSemana;
+    private final List<StockBajoView> productosBajos;
+    private final LocalDateTime generadoEn;
+
+    public ResumenDashboard(LocalDate dia, BigDecimal ventasHoy, BigDecimal ventasHistoricas,
+                            long citasPendientes, long productosTotales, List<Double> ventasSemana,
+                            List<StockBajoView> productosBajos, LocalDateTime generadoEn) {
+        this.dia = dia;
+        this.ventasHoy = ventasHoy;
+        this.ventasHistoricas = ventasHistoricas;
+        this.citasPendientes = citasPendientes;
+        this.productosTotales = productosTotales;
+        this.ventasSemana = List.copyOf(ventasSemana);
+        this.productosBajos = List.copyOf(productosBajos);
+        this.generadoEn = generadoEn;
+    }
+
+    public LocalDate getDia() {
+        return dia;
+    }
+
+    public BigDecimal getVentasHoy() {
+        return ventasHoy;
+    }
+
+    public BigDecimal getVentasHistoricas() {
+        return ventasHistoricas;
+    }
+
+    public long getCitasPendientes() {
+        return citasPendientes;
+    }
+
+    public long getProductosTotales() {
+        return productosTotales;
+    }
+
+    /** Total de cada día de la semana actual, de lunes a domingo. */
+    public List<Double> getVentasSemana() {
+        return ventasSemana;
+    }
+
+    public List<StockBajoView> getProductosBajos() {
+        return productosBajos;
+    }
+
+    public LocalDateTime getGeneradoEn() {
+        return generadoEn;
+    }
+}
@@ -0,0 +1,41 @@
+package SCRUM3.Bj_Byte.service.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Resumen de ventas de un empleado: total histórico, total de hoy y serie
+ * de los últimos 7 días (de hace 6 días a hoy, un total por día natural).
+ */
+public class ResumenVentasEmpleado {
+
+    private final BigDecimal totalHistorico;
+    private final BigDecimal totalHoy;
+    private final List<LocalDate> dias;
+    private final List<BigDecimal> ventasPorDia;
+
+    public ResumenVentasEmpleado(BigDecimal totalHistorico, BigDecimal totalHoy,
+                                 List<LocalDate> dias, List<BigDecimal> ventasPorDia) {
+        this.totalHistorico = totalHistorico;
+        this.totalHoy = totalHoy;
+        this.dias = List.copyOf(dias);
+        this.ventasPorDia = List.copyOf(ventasPorDia);
+    }
+
+    public BigDecimal getTotalHistorico() {
+        return totalHistorico;
+    }
+
+    public BigDecimal getTotalHoy() {
+        return totalHoy;
+    }
+
+    public List<LocalDate> getDias() {
+        return dias;
+    }
+
+    public List<BigDecimal> getVentasPorDia() {
+        return ventasPorDia;
+    }
+}
@@ -0,0 +1,28 @@
+package SCRUM3.Bj_Byte.service.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento publicado dentro de la transacción que elimina una venta.
+ *
+ * Lleva la fecha de la venta para que las cachés de totales e informes
+ * invaliden solo los periodos afectados.
+ */
+public class VentaEliminadaEvent {
+
+    private final Long ventaId;
+    private final LocalDateTime fecha;
+
+    public VentaEliminadaEvent(Long ventaId, LocalDateTime fecha) {
+        this.ventaId = ventaId;
+        this.fecha = fecha;
+    }
+
+    public Long getVentaId() {
+        return ventaId;
+    }
+
+    public LocalDateTime getFecha() {
+        return fecha;
+    }
+}
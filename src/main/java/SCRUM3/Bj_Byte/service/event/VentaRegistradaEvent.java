@@ -0,0 +1,29 @@
+package SCRUM3.Bj_Byte.service.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento publicado dentro de la transacción que registra una venta.
+ *
+ * Los oyentes que deban actuar solo si la venta quedó confirmada usan
+ * {@code @TransactionalEventListener(phase = AFTER_COMMIT)}. Lleva la fecha de la
+ * venta para que las cachés de informes invaliden solo los periodos afectados.
+ */
+public class VentaRegistradaEvent {
+
+    private final Long ventaId;
+    private final LocalDateTime fecha;
+
+    public VentaRegistradaEvent(Long ventaId, LocalDateTime fecha) {
+        this.ventaId = ventaId;
+        this.fecha = fecha;
+    }
+
+    public Long getVentaId() {
+        return ventaId;
+    }
+
+    public LocalDateTime getFecha() {
+        return fecha;
+    }
+}
@@ -0,0 +1,55 @@
+package SCRUM3.Bj_Byte.service.exception;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Excepción lanzada cuando una o más líneas de una venta no tienen stock suficiente.
+ * Indica exactamente qué líneas fallaron para poder informarlo al usuario.
+ * Al ser RuntimeException, provoca el rollback de toda la venta.
+ */
+public class StockInsuficienteException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+    private final List<LineaSinStock> lineas;
+
+    public StockInsuficienteException(List<LineaSinStock> lineas) {
+        super("Stock insuficiente: " + lineas.stream()
+                .map(LineaSinStock::getProducto)
+                .collect(Collectors.joining(", ")));
+        this.lineas = Collections.unmodifiableList(lineas);
+    }
+
+    public List<LineaSinStock> getLineas() {
+        return lineas;
+    }
+
+    /**
+     * Línea de venta que no pudo descontarse del inventario.
+     */
+    public static class LineaSinStock {
+
+        private final Long inventarioId;
+        private final String producto;
+        private final int cantidadSolicitada;
+
+        public LineaSinStock(Long inventarioId, String producto, int cantidadSolicitada) {
+            this.inventarioId = inventarioId;
+            this.producto = producto;
+            this.cantidadSolicitada = cantidadSolicitada;
+        }
+
+        public Long getInventarioId() {
+            return inventarioId;
+        }
+
+        public String getProducto() {
+            return producto;
+        }
+
+        public int getCantidadSolicitada() {
+            return cantidadSolicitada;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package SCRUM3.Bj_Byte.service.informe;
+
+import SCRUM3.Bj_Byte.repository.projection.LineaReporteView;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Acumulador de los informes de ventas: total vendido, artículos, transacciones,
+ * total y número de ventas por empleado, unidades por producto y una muestra de
+ * las primeras ventas, en un único recorrido de las líneas.
+ *
+ * Las líneas de una misma venta deben llegar seguidas (consulta ordenada por venta);
+ * el total de la venta se suma una sola vez. Dos acumuladores de tramos de ventas
+ * disjuntos se combinan con {@link #combinar}, así que el recorrido se puede repartir
+ * por rangos de id y unir al final. No es seguro para uso concurrente: cada tramo
+ * usa el suyo.
+ */
+public class AcumuladorInforme {
+
+    public static final String SIN_ASIGNAR = "Sin asignar";
+
+    private final int tamanoMuestra;
+
+    private BigDecimal totalVentas = BigDecimal.ZERO;
+    private long totalArticulos;
+    private long transacciones;
+    private final Map<String, BigDecimal> ventasPorEmpleado = new HashMap<>();
+    private final Map<String, Long> transaccionesPorEmpleado = new HashMap<>();
+    private final Map<String, Integer> distribucionArticulos = new HashMap<>();
+    // Ventas de id más bajo vistas: la muestra de transacciones del informe
+    private final TreeMap<Long, VentaMuestra> muestra = new TreeMap<>();
+
+    private Long ventaActual;
+    // Entrada de la muestra de la venta en curso (null si no entró)
+    private VentaMuestra muestraActual;
+
+    /**
+     * @param tamanoMuestra Número de ventas (las de id más bajo) que se guardan como muestra
+     */
+    public AcumuladorInforme(int tamanoMuestra) {
+        this.tamanoMuestra = tamanoMuestra;
+    }
+
+    /**
+     * Suma una línea. Una venta sin detalles llega como una sola línea sin producto.
+     */
+    public void agregar(LineaReporteView linea) {
+        Long ventaId = linea.getVentaId();
+        if (!ventaId.equals(ventaActual)) {
+            ventaActual = ventaId;
+            BigDecimal total = linea.getTotalVenta() != null ? linea.getTotalVenta() : BigDecimal.ZERO;
+            totalVentas = totalVentas.add(total);
+            transacciones++;
+            String empleado = linea.getNombreEmpleado() != null ? linea.getNombreEmpleado() : SIN_ASIGNAR;
+            ventasPorEmpleado.merge(empleado, total, BigDecimal::add);
+            transaccionesPorEmpleado.merge(empleado, 1L, Long::sum);
+            VentaMuestra venta = new VentaMuestra(ventaId, linea.getFecha(), linea.getNombreEmpleado(), total);
+            muestraActual = agregarAMuestra(venta) ? venta : null;
+        }
+
+        Integer cantidad = linea.getCantidad();
+        if (cantidad != null) {
+            totalArticulos += cantidad;
+            if (muestraActual != null) {
+                muestraActual.sumarArticulos(cantidad);
+            }
+            if (linea.getProducto() != null) {
+                distribucionArticulos.merge(linea.getProducto(), cantidad, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * Une el resultado de otro tramo. Los tramos no deben compartir ventas.
+     *
+     * @return Este acumulador, para encadenar
+     */
+    public AcumuladorInforme combinar(AcumuladorInforme otro) {
+        totalVentas = totalVentas.add(otro.totalVentas);
+        totalArticulos += otro.totalArticulos;
+        transacciones += otro.transacciones;
+        otro.ventasPorEmpleado.forEach((k, v) -> ventasPorEmpleado.merge(k, v, BigDecimal::add));
+        otro.transaccionesPorEmpleado.forEach((k, v) -> transaccionesPorEmpleado.merge(k, v, Long::sum));
+        otro.distribucionArticulos.forEach((k, v) -> distribucionArticulos.merge(k, v, Integer::sum));
+        for (VentaMuestra v : otro.muestra.values()) {
+            agregarAMuestra(v);
+        }
+        return this;
+    }
+
+    // La muestra conserva las ventas de id más bajo; false si la venta no entra
+    private boolean agregarAMuestra(VentaMuestra venta) {
+        if (tamanoMuestra <= 0) {
+            return false;
+        }
+        if (muestra.size() >= tamanoMuestra) {
+            if (venta.getId() > muestra.lastKey()) {
+                return false;
+            }
+            muestra.pollLastEntry();
+        }
+        muestra.put(venta.getId(), venta);
+        return true;
+    }
+
+    public BigDecimal getTotalVentas() {
+        return totalVentas;
+    }
+
+    public long getTotalArticulos() {
+        return totalArticulos;
+    }
+
+    public long getTransacciones() {
+        return transacciones;
+    }
+
+    public Map<String, BigDecimal> getVentasPorEmpleado() {
+        return ventasPorEmpleado;
+    }
+
+    /**
+     * @return Número de ventas por empleado (las ventas sin empleado, en {@link #SIN_ASIGNAR})
+     */
+    public Map<String, Long> getTransaccionesPorEmpleado() {
+        return transaccionesPorEmpleado;
+    }
+
+    public Map<String, Integer> getDistribucionArticulos() {
+        return distribucionArticulos;
+    }
+
+    /**
+     * @return Ventas de la muestra en orden ascendente de id
+     */
+    public List<VentaMuestra> getMuestra() {
+        return new ArrayList<>(muestra.values());
+    }
+}
@@ -0,0 +1,68 @@
+package SCRUM3.Bj_Byte.service.informe;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.IsoFields;
+
+/**
+ * Filtro de fecha de los reportes: 'yyyy' es el año, 'yyyy-MM' el mes,
+ * 'yyyy-Www' la semana ISO (de lunes a lunes) y 'yyyy-MM-dd' el día.
+ */
+public final class FiltroFecha {
+
+    private FiltroFecha() {
+    }
+
+    /**
+     * Convierte el filtro en un rango [inicio, fin). Vacío = sin límites.
+     *
+     * @throws DateTimeParseException Si el filtro no tiene ninguno de los formatos
+     */
+    public static LocalDateTime[] rango(String filtroFecha) {
+        if (filtroFecha == null || filtroFecha.isBlank()) {
+            return new LocalDateTime[] { null, null };
+        }
+        String f = filtroFecha.trim();
+        if (f.length() == 4) {
+            LocalDate inicio = Year.parse(f).atDay(1);
+            return new LocalDateTime[] { inicio.atStartOfDay(), inicio.plusYears(1).atStartOfDay() };
+        }
+        if (f.length() == 7) {
+            LocalDate inicio = YearMonth.parse(f).atDay(1);
+            return new LocalDateTime[] { inicio.atStartOfDay(), inicio.plusMonths(1).atStartOfDay() };
+        }
+        if (f.length() == 8 && f.charAt(4) == '-' && f.charAt(5) == 'W') {
+            LocalDate lunes = lunesDeSemana(f);
+            return new LocalDateTime[] { lunes.atStartOfDay(), lunes.plusWeeks(1).atStartOfDay() };
+        }
+        LocalDate dia = LocalDate.parse(f);
+        return new LocalDateTime[] { dia.atStartOfDay(), dia.plusDays(1).atStartOfDay() };
+    }
+
+    /**
+     * Filtro 'yyyy-Www' de la semana ISO que contiene el día.
+     */
+    public static String semana(LocalDate dia) {
+        return String.format("%d-W%02d",
+                dia.get(IsoFields.WEEK_BASED_YEAR), dia.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+    }
+
+    private static LocalDate lunesDeSemana(String f) {
+        try {
+            int anio = Integer.parseInt(f.substring(0, 4));
+            int semana = Integer.parseInt(f.substring(6));
+            // El 4 de enero siempre cae en la semana 1 del año ISO
+            LocalDate referencia = LocalDate.of(anio, 1, 4);
+            if (semana < 1 || semana > referencia.range(IsoFields.WEEK_OF_WEEK_BASED_YEAR).getMaximum()) {
+                throw new DateTimeParseException("Semana fuera de rango", f, 6);
+            }
+            return referencia.with(IsoFields.WEEK_OF_WEEK_BASED_YEAR, semana).with(DayOfWeek.MONDAY);
+        } catch (NumberFormatException e) {
+            throw new DateTimeParseException("Semana inválida", f, 0, e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package SCRUM3.Bj_Byte.service.informe;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * Periodos cerrados que se piden con más frecuencia y se precalculan de madrugada.
+ * Cada uno se expresa como un filtro de fecha ({@link FiltroFecha}), así que un
+ * reporte pedido con ese filtro coincide con el precalculado.
+ */
+public enum PeriodoEstandar {
+
+    AYER("ayer"),
+    SEMANA_PASADA("semana-pasada"),
+    MES_PASADO("mes-pasado");
+
+    private final String codigo;
+
+    PeriodoEstandar(String codigo) {
+        this.codigo = codigo;
+    }
+
+    public String getCodigo() {
+        return codigo;
+    }
+
+    /**
+     * Filtro de fecha del periodo visto desde el día indicado.
+     */
+    public String filtro(LocalDate hoy) {
+        return switch (this) {
+            case AYER -> hoy.minusDays(1).toString();
+            case SEMANA_PASADA -> FiltroFecha.semana(hoy.minusWeeks(1));
+            case MES_PASADO -> YearMonth.from(hoy).minusMonths(1).toString();
+        };
+    }
+
+    public LocalDateTime[] rango(LocalDate hoy) {
+        return FiltroFecha.rango(filtro(hoy));
+    }
+}
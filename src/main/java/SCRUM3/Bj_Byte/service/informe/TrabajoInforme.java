@@ -0,0 +1,97 @@
+package SCRUM3.Bj_Byte.service.informe;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Trabajo de generación de un informe en segundo plano.
+ *
+ * Lo escribe un único hilo del pool y lo leen las peticiones de estado,
+ * por eso los campos mutables son volatile. El PDF no se guarda aquí sino en la
+ * caché acotada de {@link SCRUM3.Bj_Byte.service.InformeJobService}.
+ */
+public class TrabajoInforme {
+
+    public enum Estado { EN_COLA, EN_PROCESO, COMPLETADO, FALLIDO }
+
+    private final String id;
+    private final String descripcion;
+    private final Long propietarioId;
+    private final Instant creado;
+
+    private volatile Estado estado = Estado.EN_COLA;
+    private volatile Instant iniciado;
+    private volatile Instant terminado;
+    private volatile String error;
+    private volatile Integer tamanoBytes;
+
+    /**
+     * @param propietarioId Empleado que lo envió; solo él puede consultarlo y descargarlo
+     */
+    public TrabajoInforme(String id, String descripcion, Long propietarioId, Instant creado) {
+        this.id = id;
+        this.descripcion = descripcion;
+        this.propietarioId = propietarioId;
+        this.creado = creado;
+    }
+
+    public void iniciar(Instant ahora) {
+        this.iniciado = ahora;
+        this.estado = Estado.EN_PROCESO;
+    }
+
+    public void completar(int tamanoBytes, Instant ahora) {
+        this.tamanoBytes = tamanoBytes;
+        this.terminado = ahora;
+        this.estado = Estado.COMPLETADO;
+    }
+
+    public void fallar(String error, Instant ahora) {
+        this.error = error;
+        this.terminado = ahora;
+        this.estado = Estado.FALLIDO;
+    }
+
+    public boolean esDe(Long empleadoId) {
+        return propietarioId != null && propietarioId.equals(empleadoId);
+    }
+
+    public boolean isTerminado() {
+        return estado == Estado.COMPLETADO || estado == Estado.FALLIDO;
+    }
+
+    /**
+     * Un trabajo caduca cuando terminó antes del límite; los pendientes no caducan.
+     */
+    public boolean caducado(Instant limite) {
+        return terminado != null && terminado.isBefore(limite);
+    }
+
+    /**
+     * Estado para la API de trabajos (sin el contenido del informe).
+     *
+     * @param posicionEnCola Trabajos por delante en la cola, o null si ya no está en cola
+     */
+    public Map<String, Object> resumen(Integer posicionEnCola) {
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("id", id);
+        datos.put("descripcion", descripcion);
+        datos.put("estado", estado.name());
+        datos.put("creado", creado.toString());
+        if (posicionEnCola != null) datos.put("posicionEnCola", posicionEnCola);
+        if (iniciado != null) datos.put("iniciado", iniciado.toString());
+        if (terminado != null) datos.put("terminado", terminado.toString());
+        if (tamanoBytes != null) datos.put("tamanoBytes", tamanoBytes);
+        if (error != null) datos.put("error", error);
+        return datos;
+    }
+
+    public String getId() { return id; }
+    public String getDescripcion() { return descripcion; }
+    public Long getPropietarioId() { return propietarioId; }
+    public Estado getEstado() { return estado; }
+    public Instant getCreado() { return creado; }
+    public String getError() { return error; }
+    public Integer getTamanoBytes() { return tamanoBytes; }
+}
@@ -0,0 +1,48 @@
+package SCRUM3.Bj_Byte.service.informe;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Venta de la muestra de transacciones de un informe: solo lo que se imprime
+ * (id, empleado, artículos, total y fecha).
+ */
+public class VentaMuestra {
+
+    private final Long id;
+    private final LocalDateTime fecha;
+    private final String nombreEmpleado;
+    private final BigDecimal total;
+    private int articulos;
+
+    public VentaMuestra(Long id, LocalDateTime fecha, String nombreEmpleado, BigDecimal total) {
+        this.id = id;
+        this.fecha = fecha;
+        this.nombreEmpleado = nombreEmpleado;
+        this.total = total;
+    }
+
+    void sumarArticulos(int cantidad) {
+        articulos += cantidad;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDateTime getFecha() {
+        return fecha;
+    }
+
+    public String getNombreEmpleado() {
+        return nombreEmpleado;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public int getArticulos() {
+        return articulos;
+    }
+}
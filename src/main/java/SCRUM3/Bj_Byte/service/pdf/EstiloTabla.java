@@ -0,0 +1,82 @@
+package SCRUM3.Bj_Byte.service.pdf;
+
+import com.lowagie.text.Font;
+import com.lowagie.text.Rectangle;
+import com.lowagie.text.pdf.BaseFont;
+import com.lowagie.text.pdf.PdfPCell;
+
+import java.awt.Color;
+
+/**
+ * Estilo inmutable de una {@link TablaPdf}: fuentes y colores de encabezado y
+ * cuerpo, borde y relleno. Las celdas plantilla se arman una vez y cada celda
+ * de la tabla se copia de ellas.
+ */
+public final class EstiloTabla {
+
+    /** Encabezado blanco sobre gris oscuro, cuerpo de 10 pt (reporte financiero). */
+    public static final EstiloTabla OSCURO = new EstiloTabla(
+            EstilosPdf.fuente(BaseFont.HELVETICA_BOLD, 10, Color.WHITE), EstilosPdf.GRIS_OSCURO,
+            EstilosPdf.TEXTO, EstilosPdf.GRIS_BORDE, 0.5f, 8);
+
+    /** Como {@link #OSCURO} con 9 pt, para tablas de muchas columnas o filas. */
+    public static final EstiloTabla OSCURO_COMPACTO = new EstiloTabla(
+            EstilosPdf.fuente(BaseFont.HELVETICA_BOLD, 9, Color.WHITE), EstilosPdf.GRIS_OSCURO,
+            EstilosPdf.TEXTO_PEQUENO, EstilosPdf.GRIS_BORDE, 0.3f, 6);
+
+    /** Monocromo: encabezado en negrita sin fondo (resúmenes textuales). */
+    public static final EstiloTabla MONOCROMO = new EstiloTabla(
+            EstilosPdf.fuente(BaseFont.HELVETICA_BOLD, 10, Color.BLACK), null,
+            EstilosPdf.TEXTO_PEQUENO, Color.BLACK, 0.5f, 4);
+
+    private final Font fuenteEncabezado;
+    private final Font fuenteCuerpo;
+    private final PdfPCell plantillaEncabezado;
+    private final PdfPCell plantillaCuerpo;
+    private final Color fondoEncabezado;
+    private final Color borde;
+    private final float anchoBorde;
+    private final float relleno;
+
+    private EstiloTabla(Font fuenteEncabezado, Color fondoEncabezado, Font fuenteCuerpo,
+                        Color borde, float anchoBorde, float relleno) {
+        this.fuenteEncabezado = fuenteEncabezado;
+        this.fuenteCuerpo = fuenteCuerpo;
+        this.fondoEncabezado = fondoEncabezado;
+        this.borde = borde;
+        this.anchoBorde = anchoBorde;
+        this.relleno = relleno;
+        this.plantillaCuerpo = plantilla(null);
+        this.plantillaEncabezado = plantilla(fondoEncabezado);
+    }
+
+    /**
+     * Mismo estilo con otro relleno de celda.
+     */
+    public EstiloTabla conRelleno(float nuevoRelleno) {
+        return new EstiloTabla(fuenteEncabezado, fondoEncabezado, fuenteCuerpo, borde, anchoBorde, nuevoRelleno);
+    }
+
+    public Font getFuenteEncabezado() {
+        return fuenteEncabezado;
+    }
+
+    public Font getFuenteCuerpo() {
+        return fuenteCuerpo;
+    }
+
+    // Las plantillas solo se leen (constructor de copia de PdfPCell)
+    PdfPCell plantilla(boolean encabezado) {
+        return encabezado ? plantillaEncabezado : plantillaCuerpo;
+    }
+
+    private PdfPCell plantilla(Color fondo) {
+        PdfPCell c = new PdfPCell();
+        c.setBorder(Rectangle.BOX);
+        c.setBorderColor(borde);
+        c.setBorderWidth(anchoBorde);
+        c.setPadding(relleno);
+        if (fondo != null) c.setBackgroundColor(fondo);
+        return c;
+    }
+}
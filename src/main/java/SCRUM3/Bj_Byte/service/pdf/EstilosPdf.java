@@ -0,0 +1,63 @@
+package SCRUM3.Bj_Byte.service.pdf;
+
+import com.lowagie.text.Font;
+import com.lowagie.text.pdf.BaseFont;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Fuentes, colores y formato de moneda compartidos por los reportes PDF.
+ *
+ * Las fuentes se crean una sola vez sobre la BaseFont ya resuelta, en lugar de
+ * pedirlas a FontFactory (o crear un Font nuevo) en cada celda. Se comparten
+ * entre hilos: no deben modificarse; para una variante se crea otra con
+ * {@link #fuente(String, float, Color)}.
+ */
+public final class EstilosPdf {
+
+    public static final Color GRIS_OSCURO = new Color(60, 60, 60);
+    public static final Color GRIS_BORDE = Color.GRAY;
+
+    public static final Font TITULO_SECCION = fuente(BaseFont.HELVETICA_BOLD, 16, Color.DARK_GRAY);
+    public static final Font SUBTITULO = fuente(BaseFont.HELVETICA_BOLD, 11, Color.BLACK);
+    public static final Font TEXTO = fuente(BaseFont.HELVETICA, 10, Color.BLACK);
+    public static final Font TEXTO_PEQUENO = fuente(BaseFont.HELVETICA, 9, Color.BLACK);
+    public static final Font NOTA = fuente(BaseFont.HELVETICA, 8, Color.BLACK);
+
+    // Mismo formato que String.format("%,.2f"), sin crear un Formatter por valor
+    private static final ThreadLocal<DecimalFormat> MONEDA = ThreadLocal.withInitial(() -> {
+        DecimalFormat f = new DecimalFormat("#,##0.00",
+                DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT)));
+        f.setRoundingMode(RoundingMode.HALF_UP);
+        return f;
+    });
+
+    private EstilosPdf() {
+    }
+
+    /**
+     * Fuente estándar (Helvetica, Times, Courier) sobre su BaseFont sin incrustar.
+     *
+     * @param nombre Nombre de la BaseFont, p. ej. {@link BaseFont#HELVETICA_BOLD}
+     */
+    public static Font fuente(String nombre, float tamano, Color color) {
+        try {
+            return new Font(BaseFont.createFont(nombre, BaseFont.CP1252, BaseFont.NOT_EMBEDDED), tamano, Font.NORMAL, color);
+        } catch (IOException e) {
+            throw new IllegalStateException("Fuente PDF no disponible: " + nombre, e);
+        }
+    }
+
+    /**
+     * Importe como "$ 1,234.50"; null se muestra como cero.
+     */
+    public static String moneda(BigDecimal valor) {
+        return "$ " + MONEDA.get().format(valor != null ? valor : BigDecimal.ZERO);
+    }
+}
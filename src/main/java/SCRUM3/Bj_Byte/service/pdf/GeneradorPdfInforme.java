@@ -1,8 +1,8 @@
 package SCRUM3.Bj_Byte.service.pdf;
 
-import SCRUM3.Bj_Byte.model.Venta;
 import SCRUM3.Bj_Byte.service.dto.MetricasFinancieras;
-import jakarta.servlet.http.HttpServletResponse;
+import SCRUM3.Bj_Byte.service.informe.VentaMuestra;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -14,18 +14,19 @@ import java.util.Map;
 public interface GeneradorPdfInforme {
 
     /**
-     * Genera un documento PDF con el informe financiero y lo escribe en la respuesta HTTP.
+     * Genera un documento PDF con el informe financiero y lo escribe en el flujo de salida
+     * (la respuesta HTTP o un búfer en memoria para trabajos en segundo plano).
      *
-     * @param response Respuesta HTTP donde se escribirá el PDF
+     * @param salida Flujo donde se escribirá el PDF
      * @param metricas Métricas financieras a incluir en el informe
-     * @param ventas Lista de ventas a detalle
+     * @param muestra Muestra de transacciones a detalle
      * @param ventasPorEmpleado Mapa de ventas agrupadas por empleado
      * @param distribucionArticulos Mapa de distribución de artículos
      * @throws Exception Si ocurre un error durante la generación del PDF
      */
-    void generarInforme(HttpServletResponse response,
+    void generarInforme(OutputStream salida,
                         MetricasFinancieras metricas,
-                        List<Venta> ventas,
+                        List<VentaMuestra> muestra,
                         Map<String, java.math.BigDecimal> ventasPorEmpleado,
                         Map<String, Integer> distribucionArticulos) throws Exception;
 }
@@ -0,0 +1,251 @@
+package SCRUM3.Bj_Byte.service.pdf;
+
+import com.lowagie.text.BadElementException;
+import com.lowagie.text.Element;
+import com.lowagie.text.Image;
+import com.lowagie.text.pdf.BaseFont;
+import com.lowagie.text.pdf.PdfContentByte;
+import com.lowagie.text.pdf.PdfTemplate;
+import com.lowagie.text.pdf.PdfWriter;
+
+import java.awt.Color;
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Gráfico de barras o de línea dibujado como trazos y texto sobre un
+ * {@link PdfContentByte}, sin pasar por una imagen: pesa unos cientos de bytes
+ * y se ve nítido a cualquier zoom.
+ *
+ * Una serie de puntos (etiqueta, valor) sobre una grilla horizontal. Con
+ * {@link #ejes(String, String)} se rotulan los ejes y la escala de valores; con
+ * {@link #valores(Function)} cada punto lleva su valor encima.
+ */
+public final class GraficoPdf {
+
+    public enum Tipo { BARRAS, LINEA }
+
+    private static final BaseFont NORMAL = EstilosPdf.TEXTO.getBaseFont();
+    private static final BaseFont NEGRITA = EstilosPdf.SUBTITULO.getBaseFont();
+
+    private static final Color GRILLA = new Color(230, 230, 230);
+    private static final Color EJE = new Color(120, 120, 120);
+    private static final Color ETIQUETA = new Color(80, 80, 80);
+    private static final Color VALOR = new Color(40, 40, 40);
+
+    private static final float TAMANO_TITULO = 12;
+    private static final float TAMANO_TEXTO = 8;
+    private static final int LINEAS_GRILLA = 4;
+
+    private final Tipo tipo;
+    private final float ancho;
+    private final float alto;
+    private final List<String> etiquetas = new ArrayList<>();
+    private final List<BigDecimal> puntos = new ArrayList<>();
+    private String titulo;
+    private String ejeCategorias;
+    private String ejeValores;
+    private Function<BigDecimal, String> formatoValor;
+    private Color color = EstilosPdf.GRIS_OSCURO;
+    private Color fondo;
+
+    public GraficoPdf(Tipo tipo, float ancho, float alto) {
+        this.tipo = tipo;
+        this.ancho = ancho;
+        this.alto = alto;
+    }
+
+    public GraficoPdf titulo(String texto) {
+        this.titulo = texto;
+        return this;
+    }
+
+    /**
+     * Rótulos de los ejes; también muestra la escala a la izquierda.
+     */
+    public GraficoPdf ejes(String categorias, String valores) {
+        this.ejeCategorias = categorias;
+        this.ejeValores = valores;
+        return this;
+    }
+
+    /**
+     * Escribe el valor de cada punto encima con este formato.
+     */
+    public GraficoPdf valores(Function<BigDecimal, String> formato) {
+        this.formatoValor = formato;
+        return this;
+    }
+
+    /**
+     * Color de las barras o de la línea.
+     */
+    public GraficoPdf color(Color serie) {
+        this.color = serie;
+        return this;
+    }
+
+    /**
+     * Fondo del área de trazado (sin fondo por defecto).
+     */
+    public GraficoPdf fondo(Color area) {
+        this.fondo = area;
+        return this;
+    }
+
+    public GraficoPdf punto(String etiqueta, BigDecimal valor) {
+        etiquetas.add(etiqueta != null ? etiqueta : "");
+        puntos.add(valor != null ? valor : BigDecimal.ZERO);
+        return this;
+    }
+
+    public boolean isVacio() {
+        return puntos.isEmpty();
+    }
+
+    public float getAncho() {
+        return ancho;
+    }
+
+    public float getAlto() {
+        return alto;
+    }
+
+    /**
+     * Dibuja el gráfico en una plantilla del escritor y la devuelve como elemento
+     * para agregarla al documento (sin rasterizar).
+     */
+    public Image comoImagen(PdfWriter writer) throws BadElementException {
+        PdfTemplate plantilla = writer.getDirectContent().createTemplate(ancho, alto);
+        dibujar(plantilla, 0, 0);
+        Image imagen = Image.getInstance(plantilla);
+        imagen.setAlignment(Element.ALIGN_CENTER);
+        return imagen;
+    }
+
+    /**
+     * Dibuja el gráfico con la esquina inferior izquierda en (x, y).
+     */
+    public void dibujar(PdfContentByte lienzo, float x, float y) {
+        float izquierda = x + (ejeValores != null ? 58 : 12);
+        float derecha = x + ancho - 12;
+        float abajo = y + 18 + (ejeCategorias != null ? 14 : 0);
+        float arriba = y + alto - 8 - (titulo != null ? TAMANO_TITULO + 8 : 0) - (formatoValor != null ? 12 : 0);
+        float anchoArea = derecha - izquierda;
+        float altoArea = arriba - abajo;
+        if (anchoArea <= 0 || altoArea <= 0) return;
+
+        double maximo = 0;
+        for (BigDecimal v : puntos) maximo = Math.max(maximo, v.doubleValue());
+        double paso = pasoEscala(maximo / LINEAS_GRILLA);
+        double tope = paso * LINEAS_GRILLA;
+
+        lienzo.saveState();
+        if (fondo != null) {
+            lienzo.setColorFill(fondo);
+            lienzo.rectangle(izquierda, abajo, anchoArea, altoArea);
+            lienzo.fill();
+        }
+
+        // Grilla horizontal y escala
+        lienzo.setLineWidth(0.5f);
+        lienzo.setColorStroke(GRILLA);
+        for (int i = 0; i <= LINEAS_GRILLA; i++) {
+            float gy = abajo + altoArea * i / LINEAS_GRILLA;
+            lienzo.moveTo(izquierda, gy);
+            lienzo.lineTo(derecha, gy);
+        }
+        lienzo.stroke();
+        lienzo.setColorStroke(EJE);
+        lienzo.moveTo(izquierda, abajo);
+        lienzo.lineTo(derecha, abajo);
+        lienzo.stroke();
+
+        // Serie: una franja por punto
+        int n = puntos.size();
+        float franja = n > 0 ? anchoArea / n : anchoArea;
+        float[] cx = new float[n];
+        float[] cy = new float[n];
+        for (int i = 0; i < n; i++) {
+            cx[i] = izquierda + franja * i + franja / 2;
+            cy[i] = abajo + (float) (puntos.get(i).doubleValue() / tope * altoArea);
+        }
+        if (tipo == Tipo.BARRAS) {
+            float anchoBarra = Math.min(franja * 0.6f, 60);
+            lienzo.setColorFill(color);
+            for (int i = 0; i < n; i++) {
+                if (cy[i] > abajo) {
+                    lienzo.rectangle(cx[i] - anchoBarra / 2, abajo, anchoBarra, cy[i] - abajo);
+                }
+            }
+            lienzo.fill();
+        } else if (n > 0) {
+            lienzo.setColorStroke(color);
+            lienzo.setLineWidth(1.5f);
+            lienzo.setLineJoin(PdfContentByte.LINE_JOIN_ROUND);
+            lienzo.moveTo(cx[0], cy[0]);
+            for (int i = 1; i < n; i++) lienzo.lineTo(cx[i], cy[i]);
+            lienzo.stroke();
+            lienzo.setColorFill(color);
+            for (int i = 0; i < n; i++) lienzo.circle(cx[i], cy[i], 2.5f);
+            lienzo.fill();
+        }
+
+        // Textos
+        lienzo.beginText();
+        if (titulo != null) {
+            texto(lienzo, NEGRITA, TAMANO_TITULO, VALOR, Element.ALIGN_CENTER, titulo,
+                    x + ancho / 2, y + alto - 8 - TAMANO_TITULO, 0);
+        }
+        if (ejeValores != null) {
+            DecimalFormat escala = new DecimalFormat("#,##0");
+            for (int i = 0; i <= LINEAS_GRILLA; i++) {
+                texto(lienzo, NORMAL, TAMANO_TEXTO, ETIQUETA, Element.ALIGN_RIGHT, escala.format(paso * i),
+                        izquierda - 4, abajo + altoArea * i / LINEAS_GRILLA - TAMANO_TEXTO / 3, 0);
+            }
+            texto(lienzo, NORMAL, TAMANO_TEXTO, ETIQUETA, Element.ALIGN_CENTER, ejeValores,
+                    x + TAMANO_TEXTO + 2, abajo + altoArea / 2, 90);
+            texto(lienzo, NORMAL, TAMANO_TEXTO, ETIQUETA, Element.ALIGN_CENTER, ejeCategorias,
+                    izquierda + anchoArea / 2, y + 6, 0);
+        }
+        for (int i = 0; i < n; i++) {
+            texto(lienzo, NORMAL, TAMANO_TEXTO, ETIQUETA, Element.ALIGN_CENTER,
+                    recortar(etiquetas.get(i), franja - 4), cx[i], abajo - TAMANO_TEXTO - 4, 0);
+            if (formatoValor != null) {
+                texto(lienzo, NEGRITA, TAMANO_TEXTO, VALOR, Element.ALIGN_CENTER,
+                        formatoValor.apply(puntos.get(i)), cx[i], cy[i] + 5, 0);
+            }
+        }
+        lienzo.endText();
+        lienzo.restoreState();
+    }
+
+    private static void texto(PdfContentByte lienzo, BaseFont fuente, float tamano, Color color,
+                              int alineacion, String texto, float x, float y, float rotacion) {
+        lienzo.setFontAndSize(fuente, tamano);
+        lienzo.setColorFill(color);
+        lienzo.showTextAligned(alineacion, texto, x, y, rotacion);
+    }
+
+    // Etiqueta recortada con "..." para que quepa en su franja
+    private static String recortar(String texto, float anchoMaximo) {
+        if (NORMAL.getWidthPoint(texto, TAMANO_TEXTO) <= anchoMaximo) return texto;
+        String recortado = texto;
+        while (recortado.length() > 3 && NORMAL.getWidthPoint(recortado + "...", TAMANO_TEXTO) > anchoMaximo) {
+            recortado = recortado.substring(0, recortado.length() - 1);
+        }
+        return recortado + "...";
+    }
+
+    // Paso "redondo" (1, 2 o 5 por potencia de 10) no menor que el pedido
+    static double pasoEscala(double minimo) {
+        if (minimo <= 0) return 1;
+        double magnitud = Math.pow(10, Math.floor(Math.log10(minimo)));
+        double relativo = minimo / magnitud;
+        double redondo = relativo <= 1 ? 1 : relativo <= 2 ? 2 : relativo <= 5 ? 5 : 10;
+        return redondo * magnitud;
+    }
+}
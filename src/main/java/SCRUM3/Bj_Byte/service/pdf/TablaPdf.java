@@ -0,0 +1,87 @@
+package SCRUM3.Bj_Byte.service.pdf;
+
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.Font;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.pdf.PdfPCell;
+import com.lowagie.text.pdf.PdfPTable;
+
+/**
+ * Tabla de reporte sobre {@link PdfPTable} con un {@link EstiloTabla} fijo.
+ *
+ * Las celdas se agregan a partir de dos plantillas propias de la tabla
+ * (encabezado y cuerpo) copiadas del estilo: PdfPTable copia la plantilla con
+ * el texto y no se crean fuentes, colores ni bordes por celda. El encabezado
+ * se repite en cada página.
+ */
+public final class TablaPdf {
+
+    private final PdfPTable tabla;
+    private final EstiloTabla estilo;
+    private final PdfPCell encabezado;
+    private final PdfPCell cuerpo;
+
+    public TablaPdf(EstiloTabla estilo, int columnas) {
+        this.estilo = estilo;
+        this.tabla = new PdfPTable(columnas);
+        this.tabla.setWidthPercentage(100);
+        this.encabezado = new PdfPCell(estilo.plantilla(true));
+        this.cuerpo = new PdfPCell(estilo.plantilla(false));
+    }
+
+    /**
+     * Anchos relativos de las columnas.
+     */
+    public TablaPdf anchos(float... relativos) {
+        try {
+            tabla.setWidths(relativos);
+        } catch (DocumentException e) {
+            throw new IllegalArgumentException("Anchos de columna inválidos", e);
+        }
+        return this;
+    }
+
+    public TablaPdf encabezado(String... titulos) {
+        for (String t : titulos) {
+            celdaEncabezado(t);
+        }
+        tabla.setHeaderRows(tabla.getHeaderRows() + 1);
+        return this;
+    }
+
+    public TablaPdf fila(String... valores) {
+        for (String v : valores) {
+            celda(v);
+        }
+        return this;
+    }
+
+    /**
+     * Fila de etiqueta (con estilo de encabezado) y valor.
+     */
+    public TablaPdf par(String etiqueta, String valor) {
+        celdaEncabezado(etiqueta);
+        celda(valor);
+        return this;
+    }
+
+    public TablaPdf celda(String texto) {
+        agregar(cuerpo, texto, estilo.getFuenteCuerpo());
+        return this;
+    }
+
+    public TablaPdf celdaEncabezado(String texto) {
+        agregar(encabezado, texto, estilo.getFuenteEncabezado());
+        return this;
+    }
+
+    public PdfPTable getTabla() {
+        return tabla;
+    }
+
+    private void agregar(PdfPCell plantilla, String texto, Font fuente) {
+        plantilla.setPhrase(new Phrase(texto != null ? texto : "", fuente));
+        tabla.addCell(plantilla);
+        plantilla.setPhrase(null);
+    }
+}
@@ -0,0 +1,89 @@
+package SCRUM3.Bj_Byte.util;
+
+import SCRUM3.Bj_Byte.repository.projection.LineaVentaView;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exporta las líneas de venta a CSV (UTF-8, separado por comas), opcionalmente comprimido con gzip.
+ *
+ * Cada fila se escribe directamente al flujo de salida a medida que llega del cursor,
+ * sin acumular el archivo en memoria.
+ */
+public class ExportarCsvVentas {
+
+    private static final String CABECERA = "venta_id,fecha,empleado,producto,cantidad,precio_unitario,total_linea";
+
+    private static final int BUFFER = 64 * 1024;
+
+    private final Iterator<LineaVentaView> lineas;
+
+    public ExportarCsvVentas(Iterator<LineaVentaView> lineas) {
+        this.lineas = lineas;
+    }
+
+    /**
+     * Escribe el CSV en el flujo indicado. No cierra el flujo original;
+     * si se comprime, finaliza el gzip para que el archivo quede completo.
+     */
+    public void exportar(OutputStream salida, boolean gzip) throws IOException {
+        GZIPOutputStream comprimido = gzip ? new GZIPOutputStream(salida, BUFFER) : null;
+        Writer out = new BufferedWriter(new OutputStreamWriter(
+                comprimido != null ? comprimido : salida, StandardCharsets.UTF_8), BUFFER);
+
+        out.write(CABECERA);
+        out.write('\n');
+
+        StringBuilder fila = new StringBuilder(128);
+        while (lineas.hasNext()) {
+            LineaVentaView l = lineas.next();
+            fila.setLength(0);
+
+            fila.append(l.getVentaId()).append(',');
+            fila.append(l.getFecha() != null ? l.getFecha().toString() : "").append(',');
+            campo(fila, l.getNombreEmpleado()).append(',');
+
+            if (l.getCantidad() == null) {
+                // Venta sin detalles: sin producto, total de la venta
+                fila.append(",0,,").append(decimal(l.getTotalVenta()));
+            } else {
+                campo(fila, l.getProducto()).append(',');
+                fila.append(l.getCantidad()).append(',');
+                fila.append(decimal(l.getPrecio())).append(',');
+                fila.append(l.getPrecio() != null
+                        ? decimal(l.getPrecio().multiply(BigDecimal.valueOf(l.getCantidad())))
+                        : "");
+            }
+
+            fila.append('\n');
+            out.append(fila);
+        }
+
+        out.flush();
+        if (comprimido != null) {
+            comprimido.finish();
+        }
+    }
+
+    // Comillas solo cuando el texto contiene separadores, comillas o saltos de línea
+    private StringBuilder campo(StringBuilder fila, String valor) {
+        if (valor == null) return fila;
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return fila.append(valor);
+        }
+        return fila.append('"').append(valor.replace("\"", "\"\"")).append('"');
+    }
+
+    private String decimal(BigDecimal valor) {
+        return valor != null ? valor.setScale(2, RoundingMode.HALF_UP).toPlainString() : "";
+    }
+}
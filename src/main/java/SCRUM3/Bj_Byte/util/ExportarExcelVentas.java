@@ -1,26 +1,46 @@
 package SCRUM3.Bj_Byte.util;
 
-import SCRUM3.Bj_Byte.model.Venta;
-import SCRUM3.Bj_Byte.model.VentaDetalle;
+import SCRUM3.Bj_Byte.repository.projection.LineaVentaView;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 
 import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.List;
+import java.util.Iterator;
 
+/**
+ * Exporta las líneas de venta a Excel en streaming.
+ *
+ * Usa SXSSFWorkbook: solo se mantienen en memoria las últimas filas de la ventana,
+ * el resto se vuelca a un archivo temporal. Los anchos de columna son fijos (no se
+ * usa autoSizeColumn, que obliga a recorrer todas las filas), así que la memoria no
+ * depende del número de ventas.
+ */
 public class ExportarExcelVentas {
 
-    private final List<Venta> listaVentas;
-    private final XSSFWorkbook workbook;
+    // Filas que se mantienen en memoria antes de volcarlas a disco
+    private static final int VENTANA_FILAS = 100;
+
+    private static final String[] ENCABEZADOS = { "ID", "Empleado", "Producto", "Cantidad", "Total", "Fecha" };
+
+    // Ancho de cada columna en caracteres
+    private static final int[] ANCHOS = { 10, 28, 36, 10, 16, 26 };
+
+    private final Iterator<LineaVentaView> lineas;
+    private final SXSSFWorkbook workbook;
     private final Sheet sheet;
 
-    public ExportarExcelVentas(List<Venta> listaVentas) {
-        this.listaVentas = listaVentas;
-        workbook = new XSSFWorkbook();
+    public ExportarExcelVentas(Iterator<LineaVentaView> lineas) {
+        this.lineas = lineas;
+        workbook = new SXSSFWorkbook(VENTANA_FILAS);
+        workbook.setCompressTempFiles(true);
         sheet = workbook.createSheet("Ventas");
+        for (int i = 0; i < ANCHOS.length; i++) {
+            sheet.setColumnWidth(i, ANCHOS[i] * 256);
+        }
     }
 
     private void escribirCabecera() {
@@ -30,68 +50,54 @@ public class ExportarExcelVentas {
         fuente.setBold(true);
         estilo.setFont(fuente);
 
-        String[] encabezados = { "ID", "Empleado", "Producto", "Cantidad", "Total", "Fecha" };
-
-        for (int i = 0; i < encabezados.length; i++) {
+        for (int i = 0; i < ENCABEZADOS.length; i++) {
             Cell celda = fila.createCell(i);
-            celda.setCellValue(encabezados[i]);
+            celda.setCellValue(ENCABEZADOS[i]);
             celda.setCellStyle(estilo);
         }
     }
 
     private void escribirDatos() {
         int filaNum = 1;
-        for (Venta venta : listaVentas) {
-            if (venta.getDetalles() == null || venta.getDetalles().isEmpty()) {
-                Row fila = sheet.createRow(filaNum++);
-                fila.createCell(0).setCellValue(venta.getId());
-                fila.createCell(1).setCellValue(venta.getNombreEmpleado() != null ? venta.getNombreEmpleado() : "N/A");
+        while (lineas.hasNext()) {
+            LineaVentaView l = lineas.next();
+            Row fila = sheet.createRow(filaNum++);
+            fila.createCell(0).setCellValue(l.getVentaId());
+            fila.createCell(1).setCellValue(l.getNombreEmpleado() != null ? l.getNombreEmpleado() : "N/A");
+
+            if (l.getCantidad() == null) {
+                // Venta sin detalles: se muestra el total de la venta
                 fila.createCell(2).setCellValue("N/A");
                 fila.createCell(3).setCellValue(0);
-                double totalRedondeado = venta.getTotalVenta() != null ?
-                        venta.getTotalVenta().setScale(2, RoundingMode.HALF_UP).doubleValue() : 0.0;
-                fila.createCell(4).setCellValue(totalRedondeado);
-                fila.createCell(5).setCellValue(venta.getFecha() != null ? venta.getFecha().toString() : "");
-                continue;
+                fila.createCell(4).setCellValue(redondear(l.getTotalVenta()));
+            } else {
+                fila.createCell(2).setCellValue(l.getProducto() != null ? l.getProducto() : "N/A");
+                fila.createCell(3).setCellValue(l.getCantidad());
+                fila.createCell(4).setCellValue(l.getPrecio() != null
+                        ? redondear(l.getPrecio().multiply(BigDecimal.valueOf(l.getCantidad())))
+                        : 0.0);
             }
 
-            for (VentaDetalle d : venta.getDetalles()) {
-                Row fila = sheet.createRow(filaNum++);
-                fila.createCell(0).setCellValue(venta.getId());
-                fila.createCell(1).setCellValue(venta.getNombreEmpleado() != null ? venta.getNombreEmpleado() : "N/A");
-
-                String prod = "N/A";
-                double subtotal = 0.0;
-                if (d.getInventario() != null && d.getInventario().getProducto() != null) {
-                    prod = d.getInventario().getProducto().getNombre();
-                    if (d.getInventario().getProducto().getPrecio() != null) {
-                        subtotal = d.getInventario().getProducto().getPrecio()
-                                .multiply(java.math.BigDecimal.valueOf(d.getCantidad()))
-                                .setScale(2, RoundingMode.HALF_UP)
-                                .doubleValue();
-                    }
-                }
-
-                fila.createCell(2).setCellValue(prod);
-                fila.createCell(3).setCellValue(d.getCantidad());
-                fila.createCell(4).setCellValue(subtotal);
-                fila.createCell(5).setCellValue(venta.getFecha() != null ? venta.getFecha().toString() : "");
-            }
+            fila.createCell(5).setCellValue(l.getFecha() != null ? l.getFecha().toString() : "");
         }
+    }
 
-        // Autoajustar tamaño de columnas
-        for (int i = 0; i < 6; i++) {
-            sheet.autoSizeColumn(i);
-        }
+    private double redondear(BigDecimal valor) {
+        return valor != null ? valor.setScale(2, RoundingMode.HALF_UP).doubleValue() : 0.0;
     }
 
     public void exportar(HttpServletResponse response) throws IOException {
-        escribirCabecera();
-        escribirDatos();
+        try {
+            escribirCabecera();
+            escribirDatos();
 
-        try (ServletOutputStream out = response.getOutputStream()) {
+            ServletOutputStream out = response.getOutputStream();
             workbook.write(out);
+            out.flush();
+        } finally {
             workbook.close();
+            // Borra los archivos temporales de la ventana
+            workbook.dispose();
         }
     }
 }
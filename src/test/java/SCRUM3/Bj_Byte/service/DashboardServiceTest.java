@@ -0,0 +1,60 @@
+package SCRUM3.Bj_Byte.service;
+
+import SCRUM3.Bj_Byte.model.Inventario;
+import SCRUM3.Bj_Byte.service.dto.ResumenDashboard;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static SCRUM3.Bj_Byte.service.VentaTestFixtures.nuevaVenta;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * El tablero de inicio se calcula con pocas consultas fijas, se comparte entre
+ * peticiones y una venta nueva lo invalida.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DashboardServiceTest {
+
+    @Autowired private VentaTestFixtures fixtures;
+    @Autowired private DashboardService dashboardService;
+    @Autowired private VentaService ventaService;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void instantaneaCompartidaEInvalidadaPorUnaVenta() {
+        Inventario inv = fixtures.crearInventario("Filtro de aire", 3);
+        dashboardService.invalidar();
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        ResumenDashboard antes = dashboardService.obtenerResumen();
+        // semana agrupada + histórico + citas + inventarios + stock bajo
+        assertThat(stats.getPrepareStatementCount()).isLessThanOrEqualTo(5);
+        assertThat(antes.getVentasSemana()).hasSize(7);
+        assertThat(antes.getProductosBajos()).anyMatch(p -> "Filtro de aire".equals(p.getProducto()));
+
+        stats.clear();
+        assertThat(dashboardService.obtenerResumen()).isSameAs(antes);
+        assertThat(stats.getPrepareStatementCount()).isZero();
+
+        ventaService.registrarVenta(nuevaVenta(), List.of(inv.getId()), List.of(2),
+                fixtures.crearEmpleado("Cajero Tablero"));
+
+        ResumenDashboard despues = dashboardService.obtenerResumen();
+        assertThat(despues).isNotSameAs(antes);
+        // 2 x 10000 + 19% IVA
+        assertThat(despues.getVentasHoy().subtract(antes.getVentasHoy())).isEqualByComparingTo("23800");
+        assertThat(despues.getVentasHistoricas().subtract(antes.getVentasHistoricas())).isEqualByComparingTo("23800");
+        int hoy = LocalDate.now().getDayOfWeek().getValue() - 1;
+        assertThat(despues.getVentasSemana().get(hoy)).isEqualTo(despues.getVentasHoy().doubleValue());
+    }
+}
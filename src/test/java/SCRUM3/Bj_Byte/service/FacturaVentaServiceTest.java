@@ -0,0 +1,109 @@
+package SCRUM3.Bj_Byte.service;
+
+import SCRUM3.Bj_Byte.model.Inventario;
+import SCRUM3.Bj_Byte.model.Venta;
+import SCRUM3.Bj_Byte.repository.VentaRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.thymeleaf.context.Context;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static SCRUM3.Bj_Byte.service.VentaTestFixtures.nuevaVenta;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Una factura que se estaba renderizando cuando su venta se eliminó no queda
+ * guardada ni se sirve después, y las versiones de las ventas invalidadas no
+ * se acumulan en memoria.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class FacturaVentaServiceTest {
+
+    @Autowired private VentaTestFixtures fixtures;
+    @Autowired private VentaService ventaService;
+    @Autowired private VentaRepository ventaRepository;
+    @Autowired private RecursosFacturaRegistry recursos;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void renderizadoEnCursoNoSobreviveALaEliminacion() throws Exception {
+        Inventario inv = fixtures.crearInventario("Sillín", 5);
+        Venta venta = ventaService.registrarVenta(nuevaVenta(), List.of(inv.getId()), List.of(1),
+                fixtures.crearEmpleado("Cajero Facturas"));
+
+        CountDownLatch renderizando = new CountDownLatch(1);
+        CountDownLatch continuar = new CountDownLatch(1);
+        InvoicePdfService lento = new InvoicePdfService(recursos, 1, false) {
+            @Override
+            public void generatePdf(String plantilla, Context ctx, String baseUrl, OutputStream out) throws Exception {
+                // Los datos de la venta ya se leyeron
+                renderizando.countDown();
+                continuar.await(10, TimeUnit.SECONDS);
+                super.generatePdf(plantilla, ctx, baseUrl, out);
+            }
+        };
+        FacturaVentaService facturas = new FacturaVentaService(ventaRepository, lento, recursos,
+                transactionManager, directorio.toString(), false, 1, 10, 8);
+
+        CompletableFuture<byte[]> descarga = CompletableFuture.supplyAsync(() -> {
+            try {
+                return facturas.obtenerPdf(venta.getId());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(renderizando.await(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(ventaService.eliminarVenta(venta.getId())).isTrue();
+        facturas.invalidar(venta.getId());
+        continuar.countDown();
+        descarga.get(30, TimeUnit.SECONDS);
+
+        try (var archivos = Files.list(directorio)) {
+            assertThat(archivos).isEmpty();
+        }
+        assertThat(facturas.ventasEnCurso()).isZero();
+        assertThatThrownBy(() -> facturas.obtenerPdf(venta.getId())).isInstanceOf(NoSuchElementException.class);
+        facturas.detener();
+    }
+
+    @Test
+    void versionesDeVentasInvalidadasNoSeAcumulan() throws Exception {
+        Inventario inv = fixtures.crearInventario("Pedal", 5);
+        Venta venta = ventaService.registrarVenta(nuevaVenta(), List.of(inv.getId()), List.of(1),
+                fixtures.crearEmpleado("Cajero Facturas"));
+        FacturaVentaService facturas = new FacturaVentaService(ventaRepository,
+                new InvoicePdfService(recursos, 1, false), recursos,
+                transactionManager, directorio.toString(), false, 1, 10, 8);
+
+        byte[] pdf = facturas.obtenerPdf(venta.getId());
+        assertThat(Files.exists(directorio.resolve("FV-" + venta.getId() + ".pdf"))).isTrue();
+        for (long id = 1_000_000; id < 1_000_100; id++) {
+            facturas.invalidar(id);
+        }
+        facturas.invalidar(venta.getId());
+
+        assertThat(facturas.ventasEnCurso()).isZero();
+        assertThat(Files.exists(directorio.resolve("FV-" + venta.getId() + ".pdf"))).isFalse();
+        // Se vuelve a generar desde los datos actuales
+        assertThat(facturas.obtenerPdf(venta.getId())).isNotEmpty().isNotSameAs(pdf);
+        facturas.detener();
+    }
+}
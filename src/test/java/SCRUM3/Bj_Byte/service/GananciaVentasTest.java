@@ -0,0 +1,89 @@
+package SCRUM3.Bj_Byte.service;
+
+import SCRUM3.Bj_Byte.model.Inventario;
+import SCRUM3.Bj_Byte.model.Producto;
+import SCRUM3.Bj_Byte.model.Venta;
+import SCRUM3.Bj_Byte.repository.ProductoRepository;
+import SCRUM3.Bj_Byte.repository.VentaDetalleRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static SCRUM3.Bj_Byte.service.VentaTestFixtures.nuevaVenta;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * La ganancia se calcula en una sola consulta con el costo guardado al vender,
+ * así que cambiar después el precioBase del producto no altera ventas pasadas.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class GananciaVentasTest {
+
+    @Autowired private VentaTestFixtures fixtures;
+    @Autowired private VentaService ventaService;
+    @Autowired private VentaDetalleRepository ventaDetalleRepository;
+    @Autowired private ProductoRepository productoRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private CostoVentaDetalleInitializer costoInitializer;
+
+    @Test
+    void gananciaUsaElCostoDelMomentoDeLaVenta() {
+        LocalDateTime inicio = LocalDate.now().atStartOfDay();
+        LocalDateTime fin = inicio.plusDays(1);
+        BigDecimal antes = ventaDetalleRepository.calcularGanancia(inicio, fin);
+        BigDecimal historicaAntes = ventaDetalleRepository.calcularGanancia(null, null);
+
+        Inventario inv = fixtures.crearInventario("Amortiguador", 10, "80000", "50000");
+        ventaService.registrarVenta(nuevaVenta(), List.of(inv.getId()), List.of(3),
+                fixtures.crearEmpleado("Cajero Ganancias"));
+
+        Producto p = inv.getProducto();
+        p.setPrecioBase(new BigDecimal("79000"));
+        productoRepository.save(p);
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        BigDecimal despues = ventaDetalleRepository.calcularGanancia(inicio, fin);
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+
+        // (80000 - 50000) x 3, con el costo guardado y no el nuevo precioBase
+        assertThat(despues.subtract(antes)).isEqualByComparingTo("90000");
+        assertThat(ventaDetalleRepository.calcularGanancia(null, null).subtract(historicaAntes))
+                .isEqualByComparingTo("90000");
+        assertThat(ventaDetalleRepository.calcularGanancia(fin, fin.plusDays(1))).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void costosAntiguosSeCompletanUnaSolaVez() {
+        Inventario inv = fixtures.crearInventario("Cadena", 10, "30000", "18000");
+        Venta venta = ventaService.registrarVenta(nuevaVenta(), List.of(inv.getId()), List.of(1),
+                fixtures.crearEmpleado("Cajero Costos"));
+        String costo = "SELECT costo_unitario FROM venta_detalle WHERE venta_id = ?";
+        String borrarCosto = "UPDATE venta_detalle SET costo_unitario = NULL WHERE venta_id = ?";
+
+        // Como una línea anterior al campo, con la migración aún sin aplicar
+        jdbcTemplate.update(borrarCosto, venta.getId());
+        jdbcTemplate.update("DELETE FROM " + CostoVentaDetalleInitializer.TABLA_MIGRACIONES + " WHERE nombre = ?",
+                CostoVentaDetalleInitializer.MIGRACION);
+        costoInitializer.completarCostos();
+        assertThat(jdbcTemplate.queryForObject(costo, BigDecimal.class, venta.getId())).isEqualByComparingTo("18000");
+
+        // Ya registrada: el siguiente arranque no vuelve a recorrer la tabla
+        jdbcTemplate.update(borrarCosto, venta.getId());
+        costoInitializer.completarCostos();
+        assertThat(jdbcTemplate.queryForObject(costo, BigDecimal.class, venta.getId())).isNull();
+        jdbcTemplate.update("UPDATE venta_detalle SET costo_unitario = 18000 WHERE venta_id = ?", venta.getId());
+    }
+}
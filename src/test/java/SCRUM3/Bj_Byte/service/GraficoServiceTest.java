@@ -0,0 +1,63 @@
+package SCRUM3.Bj_Byte.service;
+
+import SCRUM3.Bj_Byte.service.pdf.EstilosPdf;
+import SCRUM3.Bj_Byte.service.pdf.GraficoPdf;
+import com.lowagie.text.Document;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.pdf.PdfTemplate;
+import com.lowagie.text.pdf.PdfWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+
+import static SCRUM3.Bj_Byte.service.pdf.PdfTestUtils.texto;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cada gráfico se dibuja en el documento que lo usa y queda contado en las
+ * estadísticas de dibujo.
+ */
+class GraficoServiceTest {
+
+    @Test
+    void cadaDocumentoDibujaSuGraficoYLoCuenta() throws Exception {
+        GraficoService graficos = new GraficoService();
+
+        for (int i = 0; i < 2; i++) {
+            ByteArrayOutputStream salida = new ByteArrayOutputStream();
+            Document doc = new Document(PageSize.A4);
+            PdfWriter writer = PdfWriter.getInstance(doc, salida);
+            doc.open();
+            doc.add(graficos.imagen(grafico(), writer));
+            doc.close();
+
+            assertThat(texto(salida.toByteArray()))
+                    .contains("Ana", EstilosPdf.moneda(new BigDecimal("150000")));
+        }
+        assertThat(graficos.estadisticas()).containsEntry("dibujados", 2L);
+    }
+
+    @Test
+    void dibujaEnUnaPlantillaReservada() throws Exception {
+        GraficoService graficos = new GraficoService();
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        Document doc = new Document(PageSize.A4);
+        PdfWriter writer = PdfWriter.getInstance(doc, salida);
+        doc.open();
+        PdfTemplate marco = writer.getDirectContent().createTemplate(500, 200);
+        writer.getDirectContent().addTemplate(marco, 36, 400);
+        graficos.dibujar(grafico(), marco, 0, 0);
+        doc.close();
+
+        assertThat(texto(salida.toByteArray())).contains("Luis");
+        assertThat(graficos.estadisticas()).containsEntry("dibujados", 1L).containsKey("msDibujo");
+    }
+
+    private static GraficoPdf grafico() {
+        return new GraficoPdf(GraficoPdf.Tipo.BARRAS, 500, 200)
+                .valores(EstilosPdf::moneda)
+                .punto("Ana", new BigDecimal("150000"))
+                .punto("Luis", new BigDecimal("90000"));
+    }
+}
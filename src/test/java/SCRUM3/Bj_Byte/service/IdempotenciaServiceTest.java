@@ -0,0 +1,232 @@
+package SCRUM3.Bj_Byte.service;
+
+import SCRUM3.Bj_Byte.controller.VentaApiController;
+import SCRUM3.Bj_Byte.dto.ProductoVentaDTO;
+import SCRUM3.Bj_Byte.dto.RegistrarVentaDTO;
+import SCRUM3.Bj_Byte.dto.VentaRegistradaDTO;
+import SCRUM3.Bj_Byte.model.Empleado;
+import SCRUM3.Bj_Byte.model.Inventario;
+import SCRUM3.Bj_Byte.repository.InventarioRepository;
+import SCRUM3.Bj_Byte.repository.VentaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Una Idempotency-Key registra una sola venta: los reintentos devuelven la
+ * respuesta original, otra venta con la misma clave se rechaza y un checkout
+ * fallido libera la clave. Las claves en curso nunca se expulsan del almacén.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class IdempotenciaServiceTest {
+
+    @Autowired private VentaTestFixtures fixtures;
+    @Autowired private VentaApiController ventaApiController;
+    @Autowired private VentaRepository ventaRepository;
+    @Autowired private InventarioRepository inventarioRepository;
+
+    private MockHttpSession sesion;
+
+    @BeforeEach
+    void iniciarSesion() {
+        Empleado empleado = fixtures.crearEmpleado("Tablet POS");
+        sesion = new MockHttpSession();
+        sesion.setAttribute("empleadoLogueado", empleado);
+    }
+
+    @Test
+    void reintentoDevuelveLaRespuestaOriginal() {
+        Inventario inv = fixtures.crearInventario("Manigueta", 10);
+        String clave = UUID.randomUUID().toString();
+        long ventasAntes = ventaRepository.count();
+
+        ResponseEntity<?> primera = ventaApiController.registrarVenta(venta(inv, 2), clave, sesion);
+        ResponseEntity<?> reintento = ventaApiController.registrarVenta(venta(inv, 2), clave, sesion);
+
+        assertThat(primera.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(reintento.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(reintento.getHeaders().getFirst("Idempotent-Replayed")).isEqualTo("true");
+        assertThat(reintento.getBody()).isSameAs(primera.getBody());
+        assertThat(ventaRepository.count()).isEqualTo(ventasAntes + 1);
+        assertThat(inventarioRepository.findById(inv.getId()).orElseThrow().getCantidad()).isEqualTo(8);
+    }
+
+    @Test
+    void peticionesSimultaneasConLaMismaClaveRegistranUnaVenta() throws Exception {
+        Inventario inv = fixtures.crearInventario("Espejo", 10);
+        String clave = UUID.randomUUID().toString();
+        long ventasAntes = ventaRepository.count();
+
+        int reintentos = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(reintentos);
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<ResponseEntity<?>>> respuestas = new ArrayList<>();
+        for (int i = 0; i < reintentos; i++) {
+            respuestas.add(pool.submit(() -> {
+                salida.await();
+                return ventaApiController.registrarVenta(venta(inv, 1), clave, sesion);
+            }));
+        }
+        salida.countDown();
+
+        List<Long> ventaIds = new ArrayList<>();
+        int creadas = 0;
+        for (Future<ResponseEntity<?>> f : respuestas) {
+            ResponseEntity<?> r = f.get(60, TimeUnit.SECONDS);
+            if (r.getStatusCode() == HttpStatus.CREATED) creadas++;
+            ventaIds.add(((VentaRegistradaDTO) r.getBody()).getVentaId());
+        }
+        pool.shutdown();
+
+        assertThat(creadas).isEqualTo(1);
+        assertThat(ventaIds).containsOnly(ventaIds.get(0));
+        assertThat(ventaRepository.count()).isEqualTo(ventasAntes + 1);
+        assertThat(inventarioRepository.findById(inv.getId()).orElseThrow().getCantidad()).isEqualTo(9);
+    }
+
+    @Test
+    void mismaClaveConOtraVentaResponde422() {
+        Inventario inv = fixtures.crearInventario("Retrovisor", 10);
+        String clave = UUID.randomUUID().toString();
+        RegistrarVentaDTO original = venta(inv, 1);
+        original.setFechaVenta(LocalDateTime.of(2024, 5, 10, 9, 30));
+        RegistrarVentaDTO otraFecha = venta(inv, 1);
+        otraFecha.setFechaVenta(LocalDateTime.of(2024, 5, 11, 9, 30));
+
+        assertThat(ventaApiController.registrarVenta(original, clave, sesion).getStatusCode())
+                .isEqualTo(HttpStatus.CREATED);
+        assertThat(ventaApiController.registrarVenta(otraFecha, clave, sesion).getStatusCode())
+                .isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(ventaApiController.registrarVenta(venta(inv, 3), clave, sesion).getStatusCode())
+                .isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    @Test
+    void checkoutFallidoLiberaLaClave() {
+        Inventario inv = fixtures.crearInventario("Guardabarros", 1);
+        String clave = UUID.randomUUID().toString();
+
+        assertThat(ventaApiController.registrarVenta(venta(inv, 2), clave, sesion).getStatusCode())
+                .isEqualTo(HttpStatus.CONFLICT);
+
+        inv.setCantidad(5);
+        inventarioRepository.save(inv);
+        assertThat(ventaApiController.registrarVenta(venta(inv, 2), clave, sesion).getStatusCode())
+                .isEqualTo(HttpStatus.CREATED);
+    }
+
+    @Test
+    void errorEnLaAccionLiberaLaClaveYDespiertaALosQueEsperan() throws Exception {
+        IdempotenciaService almacen = new IdempotenciaService(10, 1440, 30);
+        CountDownLatch fallar = new CountDownLatch(1);
+        CountDownLatch enCurso = new CountDownLatch(1);
+        CompletableFuture<?> original = CompletableFuture.runAsync(() -> almacen.ejecutar("k", "h", () -> {
+            enCurso.countDown();
+            await(fallar);
+            throw new OutOfMemoryError("simulado");
+        }));
+        enCurso.await(10, TimeUnit.SECONDS);
+        List<Throwable> recibido = new ArrayList<>();
+        Thread repetida = new Thread(() -> {
+            try {
+                almacen.ejecutar("k", "h", () -> "otra");
+            } catch (Throwable e) {
+                recibido.add(e);
+            }
+        });
+        repetida.start();
+        // La repetición queda esperando el resultado de la original
+        while (repetida.getState() != Thread.State.TIMED_WAITING) {
+            Thread.sleep(5);
+        }
+
+        fallar.countDown();
+        assertThatThrownBy(() -> original.get(10, TimeUnit.SECONDS)).hasCauseInstanceOf(OutOfMemoryError.class);
+        repetida.join(10_000);
+        assertThat(recibido).singleElement().isInstanceOf(OutOfMemoryError.class);
+
+        assertThat(almacen.getTotalClaves()).isZero();
+        IdempotenciaService.Resultado<String> reintento = almacen.ejecutar("k", "h", () -> "reintento");
+        assertThat(reintento.isRepetido()).isFalse();
+        assertThat(reintento.getValor()).isEqualTo("reintento");
+    }
+
+    @Test
+    void claveEnCursoNoSeExpulsaAlLlenarseElAlmacen() throws Exception {
+        IdempotenciaService almacen = new IdempotenciaService(2, 1440, 30);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch enCurso = new CountDownLatch(1);
+        CompletableFuture<IdempotenciaService.Resultado<String>> lenta = CompletableFuture.supplyAsync(() ->
+                almacen.ejecutar("lenta", "h", () -> {
+                    enCurso.countDown();
+                    await(liberar);
+                    return "venta lenta";
+                }));
+        enCurso.await(10, TimeUnit.SECONDS);
+
+        // Las terminadas se descartan para dar sitio; la que sigue en curso no
+        almacen.ejecutar("b", "h", () -> "b");
+        almacen.ejecutar("c", "h", () -> "c");
+        assertThat(almacen.getTotalClaves()).isEqualTo(2);
+
+        IdempotenciaService lleno = new IdempotenciaService(1, 1440, 30);
+        CountDownLatch liberarOtra = new CountDownLatch(1);
+        CountDownLatch otraEnCurso = new CountDownLatch(1);
+        CompletableFuture<?> otra = CompletableFuture.runAsync(() -> lleno.ejecutar("x", "h", () -> {
+            otraEnCurso.countDown();
+            await(liberarOtra);
+            return "x";
+        }));
+        otraEnCurso.await(10, TimeUnit.SECONDS);
+        assertThatThrownBy(() -> lleno.ejecutar("y", "h", () -> "y"))
+                .isInstanceOf(IdempotenciaService.AlmacenLlenoException.class);
+        liberarOtra.countDown();
+        otra.get(10, TimeUnit.SECONDS);
+
+        liberar.countDown();
+        assertThat(lenta.get(10, TimeUnit.SECONDS).isRepetido()).isFalse();
+        IdempotenciaService.Resultado<String> reintento = almacen.ejecutar("lenta", "h", () -> "duplicada");
+        assertThat(reintento.isRepetido()).isTrue();
+        assertThat(reintento.getValor()).isEqualTo("venta lenta");
+    }
+
+    private static RegistrarVentaDTO venta(Inventario inv, int cantidad) {
+        ProductoVentaDTO linea = new ProductoVentaDTO();
+        linea.setInventarioId(inv.getId());
+        linea.setCantidad(cantidad);
+
+        RegistrarVentaDTO dto = new RegistrarVentaDTO();
+        dto.setCliente("Cliente Final");
+        dto.setMetodoPago("Efectivo");
+        dto.setProductos(List.of(linea));
+        return dto;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package SCRUM3.Bj_Byte.service;
+
+import SCRUM3.Bj_Byte.model.Empleado;
+import SCRUM3.Bj_Byte.model.Inventario;
+import SCRUM3.Bj_Byte.model.Venta;
+import SCRUM3.Bj_Byte.service.dto.GenerarInformeFinancieroRequest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static SCRUM3.Bj_Byte.service.VentaTestFixtures.nuevaVenta;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Los informes repetidos con los mismos filtros salen de la caché sin tocar la base
+ * de datos; una venta nueva invalida solo los informes que cubren su fecha.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class InformeCacheServiceTest {
+
+    @Autowired private VentaTestFixtures fixtures;
+    @Autowired private ReporteFinancieroService reporteFinancieroService;
+    @Autowired private InformeFinancieroService informeFinancieroService;
+    @Autowired private VentaService ventaService;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void periodoCerradoSigueEnCacheTrasUnaVentaNueva() throws Exception {
+        String sufijo = String.valueOf(System.nanoTime() % 100000);
+        Empleado empleado = fixtures.crearAdministrador("Cacheado " + sufijo);
+        Inventario inv = fixtures.crearInventario("Farola " + sufijo, 10);
+
+        // Una venta del mes pasado (periodo cerrado) y otra de hoy
+        Venta antigua = ventaService.registrarVenta(nuevaVenta(), List.of(inv.getId()), List.of(1), empleado);
+        LocalDate mesPasado = LocalDate.now().minusMonths(1).withDayOfMonth(10);
+        jdbcTemplate.update("UPDATE ventas SET fecha = ? WHERE id = ?", mesPasado.atTime(12, 0), antigua.getId());
+        ventaService.registrarVenta(nuevaVenta(), List.of(inv.getId()), List.of(1), empleado);
+
+        String mes = mesPasado.toString().substring(0, 7);
+        String hoy = LocalDate.now().toString();
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        byte[] mesPrimera = reporte("CACHEADO " + sufijo, mes);
+        byte[] hoyPrimera = reporte("Cacheado " + sufijo, hoy);
+
+        // Mismos filtros (sin distinguir mayúsculas): sin consultas y el mismo PDF
+        stats.clear();
+        assertThat(reporte("cacheado " + sufijo, mes)).isEqualTo(mesPrimera);
+        assertThat(reporte("Cacheado " + sufijo + " ", hoy)).isEqualTo(hoyPrimera);
+        assertThat(stats.getPrepareStatementCount()).isZero();
+
+        // Venta de hoy: el mes pasado sigue en caché, el día de hoy se regenera
+        ventaService.registrarVenta(nuevaVenta(), List.of(inv.getId()), List.of(1), empleado);
+        stats.clear();
+        assertThat(reporte("Cacheado " + sufijo, mes)).isEqualTo(mesPrimera);
+        assertThat(stats.getPrepareStatementCount()).isZero();
+        reporte("Cacheado " + sufijo, hoy);
+        assertThat(stats.getPrepareStatementCount()).isPositive();
+    }
+
+    @Test
+    void informeApiSeSirveDesdeCache() {
+        String sufijo = String.valueOf(System.nanoTime());
+        Empleado empleado = fixtures.crearAdministrador("Api " + sufijo);
+        Inventario inv = fixtures.crearInventario("Pito " + System.nanoTime() % 100000, 10);
+        ventaService.registrarVenta(nuevaVenta(), List.of(inv.getId()), List.of(1), empleado);
+
+        GenerarInformeFinancieroRequest request =
+                new GenerarInformeFinancieroRequest(null, "Api " + sufijo, LocalDate.now());
+        MockHttpServletResponse primera = new MockHttpServletResponse();
+        informeFinancieroService.generarInforme(request, primera);
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        MockHttpServletResponse segunda = new MockHttpServletResponse();
+        informeFinancieroService.generarInforme(request, segunda);
+
+        assertThat(stats.getPrepareStatementCount()).isZero();
+        assertThat(segunda.getContentType()).isEqualTo("application/pdf");
+        assertThat(segunda.getContentAsByteArray()).isEqualTo(primera.getContentAsByteArray());
+        assertThat(segunda.getHeader("Content-Disposition")).startsWith("attachment; filename=informe_financiero_");
+    }
+
+    private byte[] reporte(String empleado, String fecha) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        reporteFinancieroService.generarReporteFinancieroCompleto(response, null, empleado, fecha);
+        assertThat(response.getContentType()).isEqualTo("application/pdf");
+        return response.getContentAsByteArray();
+    }
+}
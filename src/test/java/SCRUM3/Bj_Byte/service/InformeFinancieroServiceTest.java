@@ -0,0 +1,116 @@
+package SCRUM3.Bj_Byte.service;
+
+import SCRUM3.Bj_Byte.model.Empleado;
+import SCRUM3.Bj_Byte.model.Inventario;
+import SCRUM3.Bj_Byte.repository.VentaRepository;
+import SCRUM3.Bj_Byte.service.dto.GenerarInformeFinancieroRequest;
+import SCRUM3.Bj_Byte.service.exception.InformeFinancieroException;
+import SCRUM3.Bj_Byte.service.informe.AcumuladorInforme;
+import SCRUM3.Bj_Byte.service.informe.VentaMuestra;
+import SCRUM3.Bj_Byte.service.pdf.GeneradorPdfInforme;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static SCRUM3.Bj_Byte.service.VentaTestFixtures.nuevaVenta;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * El informe financiero filtra en la consulta y recorre las líneas una sola vez;
+ * repartido en tramos de ids da el mismo resultado que en un solo recorrido.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class InformeFinancieroServiceTest {
+
+    @Autowired private VentaTestFixtures fixtures;
+    @Autowired private InformeFinancieroService informeService;
+    @Autowired private VentaService ventaService;
+    @Autowired private VentaRepository ventaRepository;
+    @Autowired private GeneradorPdfInforme generadorPdf;
+    @Autowired private InformeCacheService informeCache;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void tramosParalelosDanElMismoResultadoQueUnRecorrido() {
+        String sufijo = String.valueOf(System.nanoTime());
+        Empleado empleado = fixtures.crearAdministrador("Informe " + sufijo);
+        Inventario llanta = fixtures.crearInventario("Llanta inf " + sufijo, 50);
+        Inventario bujia = fixtures.crearInventario("Bujia inf " + sufijo, 50);
+
+        for (int i = 0; i < 6; i++) {
+            ventaService.registrarVenta(nuevaVenta(), List.of(llanta.getId(), bujia.getId()),
+                    List.of(1, i + 1), empleado);
+        }
+        ventaService.registrarVenta(nuevaVenta(), List.of(llanta.getId()), List.of(3), empleado);
+
+        // Tramos de 1 id: cada venta se lee en su propio tramo y se combinan al final
+        InformeFinancieroService porTramos = new InformeFinancieroService(
+                ventaRepository, generadorPdf, informeCache, transactionManager, 4, 1);
+        try {
+            GenerarInformeFinancieroRequest todas = new GenerarInformeFinancieroRequest(
+                    null, "Informe " + sufijo, LocalDate.now());
+            AcumuladorInforme uno = informeService.acumular(todas);
+            AcumuladorInforme varios = porTramos.acumular(todas);
+
+            assertThat(uno.getTransacciones()).isEqualTo(7);
+            assertThat(uno.getTotalArticulos()).isEqualTo(6 + 21 + 3);
+            assertThat(uno.getDistribucionArticulos())
+                    .containsEntry("Llanta inf " + sufijo, 9)
+                    .containsEntry("Bujia inf " + sufijo, 21);
+
+            assertThat(varios.getTransacciones()).isEqualTo(uno.getTransacciones());
+            assertThat(varios.getTotalVentas()).isEqualByComparingTo(uno.getTotalVentas());
+            assertThat(varios.getTotalArticulos()).isEqualTo(uno.getTotalArticulos());
+            assertThat(varios.getVentasPorEmpleado()).isEqualTo(uno.getVentasPorEmpleado());
+            assertThat(varios.getDistribucionArticulos()).isEqualTo(uno.getDistribucionArticulos());
+            assertThat(varios.getMuestra()).extracting(VentaMuestra::getId)
+                    .containsExactlyElementsOf(uno.getMuestra().stream().map(VentaMuestra::getId).toList())
+                    .hasSize(7);
+            assertThat(varios.getMuestra()).extracting(VentaMuestra::getArticulos)
+                    .containsExactly(2, 3, 4, 5, 6, 7, 3);
+
+            // Filtro de producto: ventas que lo incluyen, con todas sus líneas
+            AcumuladorInforme conBujia = porTramos.acumular(new GenerarInformeFinancieroRequest(
+                    "Bujia inf " + sufijo, "Informe " + sufijo, null));
+            assertThat(conBujia.getTransacciones()).isEqualTo(6);
+            assertThat(conBujia.getDistribucionArticulos()).containsEntry("Llanta inf " + sufijo, 6);
+        } finally {
+            porTramos.detener();
+        }
+    }
+
+    @Test
+    void generaPdfSinCargarEntidadesYRechazaFiltrosSinVentas() {
+        String sufijo = String.valueOf(System.nanoTime());
+        Empleado empleado = fixtures.crearAdministrador("Pdf " + sufijo);
+        Inventario inv = fixtures.crearInventario("Cadena inf " + sufijo, 10);
+        ventaService.registrarVenta(nuevaVenta(), List.of(inv.getId()), List.of(2), empleado);
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        informeService.generarInforme(
+                new GenerarInformeFinancieroRequest(null, "Pdf " + sufijo, LocalDate.now()), response);
+        // Métricas y muestra salen de filas planas: ninguna entidad en el contexto
+        assertThat(stats.getEntityLoadCount()).isZero();
+        assertThat(response.getContentType()).isEqualTo("application/pdf");
+        assertThat(response.getContentAsByteArray()).isNotEmpty();
+
+        assertThatThrownBy(() -> informeService.generarInforme(
+                new GenerarInformeFinancieroRequest(null, "Pdf " + sufijo, LocalDate.now().minusDays(1)),
+                new MockHttpServletResponse()))
+                .isInstanceOf(InformeFinancieroException.class);
+    }
+}
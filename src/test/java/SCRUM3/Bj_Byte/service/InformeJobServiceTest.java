@@ -0,0 +1,143 @@
+package SCRUM3.Bj_Byte.service;
+
+import SCRUM3.Bj_Byte.model.Empleado;
+import SCRUM3.Bj_Byte.model.Inventario;
+import SCRUM3.Bj_Byte.service.dto.GenerarInformeFinancieroRequest;
+import SCRUM3.Bj_Byte.service.exception.InformeFinancieroException;
+import SCRUM3.Bj_Byte.service.informe.TrabajoInforme;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static SCRUM3.Bj_Byte.service.VentaTestFixtures.nuevaVenta;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Los informes en segundo plano terminan con su PDF descargable solo por quien
+ * los envió, la cola está acotada, los PDF retenidos están acotados por tamaño y
+ * los trabajos terminados caducan.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class InformeJobServiceTest {
+
+    @Autowired private VentaTestFixtures fixtures;
+    @Autowired private InformeJobService informeJobs;
+    @Autowired private InformeFinancieroService informeService;
+    @Autowired private VentaService ventaService;
+
+    @Test
+    void trabajoTerminaConElPdfOFallaSinVentas() throws Exception {
+        String sufijo = String.valueOf(System.nanoTime());
+        Empleado empleado = fixtures.crearAdministrador("Job " + sufijo);
+        Inventario inv = fixtures.crearInventario("Manubrio " + System.nanoTime() % 100000, 10);
+        ventaService.registrarVenta(nuevaVenta(), List.of(inv.getId()), List.of(1), empleado);
+
+        TrabajoInforme trabajo = informeJobs.enviar(
+                new GenerarInformeFinancieroRequest(null, "Job " + sufijo, LocalDate.now()), empleado.getId());
+        esperar(trabajo);
+
+        assertThat(trabajo.getEstado()).isEqualTo(TrabajoInforme.Estado.COMPLETADO);
+        assertThat(informeJobs.resultado(trabajo)).hasValueSatisfying(pdf ->
+                assertThat(new String(pdf, 0, 4, StandardCharsets.ISO_8859_1)).isEqualTo("%PDF"));
+        assertThat(informeJobs.estado(trabajo.getId(), empleado.getId())).hasValueSatisfying(estado ->
+                assertThat(estado).containsEntry("estado", "COMPLETADO").containsKey("tamanoBytes"));
+
+        TrabajoInforme vacio = informeJobs.enviar(
+                new GenerarInformeFinancieroRequest(null, "Job " + sufijo, LocalDate.now().minusDays(1)),
+                empleado.getId());
+        esperar(vacio);
+        assertThat(vacio.getEstado()).isEqualTo(TrabajoInforme.Estado.FALLIDO);
+        assertThat(informeJobs.resultado(vacio)).isEmpty();
+        assertThat(vacio.getError()).isNotBlank();
+    }
+
+    @Test
+    void colaLlenaRechazaYLosTerminadosCaducan() throws Exception {
+        // Un hilo y un hueco en la cola
+        InformeJobService acotado = new InformeJobService(informeService, 1, 1, 30, 1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        try {
+            TrabajoInforme enProceso = acotado.enviar("bloqueado", 1L, () -> {
+                liberar.await(10, TimeUnit.SECONDS);
+                return new byte[]{1};
+            });
+            TrabajoInforme enCola = acotado.enviar("en cola", 1L, () -> new byte[]{2});
+
+            assertThatThrownBy(() -> acotado.enviar("sobrante", 1L, () -> new byte[]{3}))
+                    .isInstanceOf(InformeFinancieroException.class)
+                    .extracting(e -> ((InformeFinancieroException) e).getCodigo())
+                    .isEqualTo(InformeJobService.CODIGO_COLA_LLENA);
+            assertThat(acotado.estado(enCola.getId(), 1L)).hasValueSatisfying(estado ->
+                    assertThat(estado).containsEntry("estado", "EN_COLA").containsEntry("posicionEnCola", 0));
+
+            // Pendientes: no caducan aunque pase el plazo
+            Instant despues = Instant.now().plus(Duration.ofMinutes(31));
+            assertThat(acotado.purgar(despues)).isZero();
+
+            liberar.countDown();
+            esperar(enProceso);
+            esperar(enCola);
+            assertThat(acotado.resultado(enCola)).hasValueSatisfying(pdf -> assertThat(pdf).containsExactly(2));
+
+            assertThat(acotado.purgar(Instant.now())).isZero();
+            assertThat(acotado.purgar(despues)).isEqualTo(2);
+            assertThat(acotado.buscar(enCola.getId(), 1L)).isEmpty();
+            assertThat(acotado.resultado(enCola)).isEmpty();
+        } finally {
+            liberar.countDown();
+            acotado.detener();
+        }
+    }
+
+    @Test
+    void pdfRetenidosAcotadosYSoloVisiblesParaQuienLosEnvio() throws Exception {
+        // 1 MB para PDF retenidos: caben dos de 400 KB
+        InformeJobService acotado = new InformeJobService(informeService, 1, 10, 30, 1);
+        try {
+            TrabajoInforme primero = acotado.enviar("primero", 7L, () -> new byte[400 * 1024]);
+            TrabajoInforme segundo = acotado.enviar("segundo", 7L, () -> new byte[400 * 1024]);
+            esperar(primero);
+            esperar(segundo);
+
+            // Otro empleado no lo ve ni lo descarga
+            assertThat(acotado.estado(primero.getId(), 8L)).isEmpty();
+            assertThat(acotado.buscar(primero.getId(), 8L)).isEmpty();
+            assertThat(acotado.buscar(primero.getId(), null)).isEmpty();
+            assertThat(acotado.estado(primero.getId(), 7L)).isPresent();
+
+            // El tercero no cabe: se descarta el PDF del primero y su trabajo desaparece
+            TrabajoInforme tercero = acotado.enviar("tercero", 7L, () -> new byte[400 * 1024]);
+            esperar(tercero);
+            assertThat(acotado.buscar(primero.getId(), 7L)).isEmpty();
+            assertThat(acotado.buscar(segundo.getId(), 7L)).isPresent();
+            assertThat(acotado.resultado(tercero)).hasValueSatisfying(pdf -> assertThat(pdf).hasSize(400 * 1024));
+
+            // Uno que no cabe ni solo se da por fallido en vez de retenerse
+            TrabajoInforme enorme = acotado.enviar("enorme", 7L, () -> new byte[2 * 1024 * 1024]);
+            esperar(enorme);
+            assertThat(enorme.getEstado()).isEqualTo(TrabajoInforme.Estado.FALLIDO);
+            assertThat(acotado.buscar(segundo.getId(), 7L)).isPresent();
+        } finally {
+            acotado.detener();
+        }
+    }
+
+    private static void esperar(TrabajoInforme trabajo) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 15_000;
+        while (!trabajo.isTerminado() && System.currentTimeMillis() < limite) {
+            Thread.sleep(20);
+        }
+        assertThat(trabajo.isTerminado()).as("trabajo %s terminado", trabajo.getId()).isTrue();
+    }
+}
@@ -0,0 +1,179 @@
+package SCRUM3.Bj_Byte.service;
+
+import SCRUM3.Bj_Byte.dto.DetalleFacturaDTO;
+import SCRUM3.Bj_Byte.model.Venta;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.context.Context;
+import org.xhtmlrenderer.pdf.ITextOutputDevice;
+import org.xhtmlrenderer.pdf.ITextRenderer;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static SCRUM3.Bj_Byte.service.pdf.PdfTestUtils.imagenes;
+import static SCRUM3.Bj_Byte.service.pdf.PdfTestUtils.texto;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Los renderizadores de factura se reutilizan sin mezclar contenido entre
+ * facturas y dan lo mismo que uno nuevo, su caché de imágenes no crece con cada
+ * factura, y el pool se calienta después del arranque sin pasarse de su tamaño.
+ */
+class InvoicePdfServiceTest {
+
+    @Test
+    void renderizadorReutilizadoNoMezclaFacturas() throws Exception {
+        RecursosFacturaRegistry recursos = recursos();
+        InvoicePdfService servicio = new InvoicePdfService(recursos, 1, true);
+        servicio.calentar();
+        assertThat(servicio.renderizadoresCreados()).isEqualTo(1);
+
+        String primera = texto(generar(servicio, 101L, "Cliente Uno"));
+        String segunda = texto(generar(servicio, 102L, "Cliente Dos"));
+
+        assertThat(primera).contains("FV-101", "Cliente Uno").doesNotContain("Cliente Dos");
+        assertThat(segunda).contains("FV-102", "Cliente Dos").doesNotContain("Cliente Uno", "FV-101");
+        assertThat(servicio.renderizadoresCreados()).isEqualTo(1);
+    }
+
+    @Test
+    void renderizadorReutilizadoDaLoMismoQueUnoNuevo() throws Exception {
+        RecursosFacturaRegistry recursos = recursos();
+        InvoicePdfService reutilizado = new InvoicePdfService(recursos, 1, false);
+        String logo = pngDataUri(60);
+
+        // Con logo, sin logo y otra vez con logo, siempre con el mismo renderizador
+        String[] logos = {logo, null, logo};
+        for (int i = 0; i < logos.length; i++) {
+            Context ctx = contexto(200L + i, "Cliente " + i);
+            ctx.setVariable("logoBase64", logos[i]);
+            byte[] conReutilizado = generar(reutilizado, ctx);
+            byte[] conNuevo = generar(new InvoicePdfService(recursos, 1, false), ctx);
+
+            assertThat(texto(conReutilizado)).isEqualTo(texto(conNuevo)).contains("FV-" + (200 + i));
+            assertThat(imagenes(conReutilizado)).isEqualTo(imagenes(conNuevo)).isEqualTo(logos[i] != null ? 1 : 0);
+        }
+        assertThat(reutilizado.renderizadoresCreados()).isEqualTo(1);
+    }
+
+    @Test
+    void calentamientoAlArrancarNoBloqueaYLlenaElPool() throws Exception {
+        InvoicePdfService servicio = new InvoicePdfService(recursos(), 2, true);
+        servicio.calentarAlArrancar();
+
+        // Una factura pedida mientras se calienta usa su propio renderizador
+        assertThat(texto(generar(servicio, 301L, "Cliente Temprano"))).contains("FV-301", "Cliente Temprano");
+
+        long limite = System.currentTimeMillis() + 60_000;
+        while (servicio.renderizadoresDisponibles() < 2 && System.currentTimeMillis() < limite) {
+            Thread.sleep(50);
+        }
+        assertThat(servicio.renderizadoresDisponibles()).isEqualTo(2);
+        assertThat(servicio.renderizadoresCreados()).isBetween(2, 3);
+    }
+
+    @Test
+    void soloElLogoQuedaEnLaCacheDeImagenes() throws Exception {
+        String logo = pngDataUri(40);
+        ITextOutputDevice salida = new ITextOutputDevice(ITextRenderer.DEFAULT_DOTS_PER_POINT);
+        InvoicePdfService.UserAgentFactura agente = new InvoicePdfService.UserAgentFactura(salida, logo);
+        new ITextRenderer(ITextRenderer.DEFAULT_DOTS_PER_POINT, ITextRenderer.DEFAULT_DOTS_PER_PIXEL, salida, agente);
+
+        for (int i = 1; i <= 5; i++) {
+            assertThat(agente.getImageResource(logo).getImage()).isNotNull();
+            // Un QR distinto por factura
+            assertThat(agente.getImageResource(pngDataUri(40 + i)).getImage()).isNotNull();
+        }
+        assertThat(agente.imagenesEnCache()).isEqualTo(1);
+    }
+
+    @Test
+    void poolVacioCreaRenderizadoresYConservaSoloLosQueCaben() throws Exception {
+        InvoicePdfService servicio = new InvoicePdfService(recursos(), 2, false);
+        assertThat(servicio.renderizadoresCreados()).isZero();
+
+        // Cuatro facturas a la vez: dos renderizadores de más, que no vuelven al pool
+        int facturas = 4;
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService hilos = Executors.newFixedThreadPool(facturas);
+        List<Future<byte[]>> pdfs = new ArrayList<>();
+        for (int i = 0; i < facturas; i++) {
+            long id = 400L + i;
+            pdfs.add(hilos.submit(() -> {
+                salida.await();
+                return generar(servicio, id, "Cliente " + id);
+            }));
+        }
+        salida.countDown();
+        for (int i = 0; i < facturas; i++) {
+            assertThat(texto(pdfs.get(i).get(60, TimeUnit.SECONDS))).contains("FV-" + (400 + i));
+        }
+        hilos.shutdown();
+
+        int creados = servicio.renderizadoresCreados();
+        assertThat(creados).isBetween(1, facturas);
+        assertThat(servicio.renderizadoresDisponibles()).isLessThanOrEqualTo(2);
+
+        // Después, en serie, se reutilizan los del pool
+        generar(servicio, 410L, "Cliente Serie");
+        generar(servicio, 411L, "Cliente Serie");
+        assertThat(servicio.renderizadoresCreados()).isEqualTo(creados);
+    }
+
+    private static RecursosFacturaRegistry recursos() {
+        RecursosFacturaRegistry recursos = new RecursosFacturaRegistry();
+        recursos.inicializar();
+        return recursos;
+    }
+
+    private static byte[] generar(InvoicePdfService servicio, Long id, String cliente) throws Exception {
+        return generar(servicio, contexto(id, cliente));
+    }
+
+    private static byte[] generar(InvoicePdfService servicio, Context ctx) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        servicio.generatePdf(RecursosFacturaRegistry.PLANTILLA_FACTURA, ctx, null, out);
+        return out.toByteArray();
+    }
+
+    private static Context contexto(Long id, String cliente) {
+        Venta venta = new Venta();
+        venta.setId(id);
+        venta.setFecha(LocalDateTime.of(2024, 5, 10, 9, 30));
+        venta.setMetodoPago("Efectivo");
+
+        DetalleFacturaDTO linea = new DetalleFacturaDTO();
+        linea.setNombre("Casco");
+        linea.setDescripcion("Casco integral");
+        linea.setCantidad(2);
+        linea.setPrecio(new BigDecimal("100000"));
+        linea.setIva(new BigDecimal("38000"));
+        linea.setTotalLinea(new BigDecimal("238000"));
+
+        Context ctx = new Context();
+        ctx.setVariable("venta", venta);
+        ctx.setVariable("detallesDto", List.of(linea));
+        ctx.setVariable("subtotal", new BigDecimal("200000"));
+        ctx.setVariable("ivaTotal", new BigDecimal("38000"));
+        ctx.setVariable("totalPagar", new BigDecimal("238000"));
+        ctx.setVariable("clienteNombre", cliente);
+        return ctx;
+    }
+
+    private static String pngDataUri(int lado) throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(lado, lado, BufferedImage.TYPE_INT_RGB), "png", png);
+        return "data:image/png;base64," + Base64.getEncoder().encodeToString(png.toByteArray());
+    }
+}
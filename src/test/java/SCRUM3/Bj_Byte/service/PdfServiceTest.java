@@ -0,0 +1,164 @@
+package SCRUM3.Bj_Byte.service;
+
+import SCRUM3.Bj_Byte.model.Empleado;
+import SCRUM3.Bj_Byte.model.Inventario;
+import SCRUM3.Bj_Byte.repository.projection.LineaReporteView;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static SCRUM3.Bj_Byte.service.VentaTestFixtures.nuevaVenta;
+import static SCRUM3.Bj_Byte.service.pdf.PdfTestUtils.texto;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Los PDF de ventas (por empleado y global) se arman con filas planas: no se
+ * cargan ventas, detalles ni productos en el contexto de persistencia. Los
+ * reportes largos se escriben por partes mientras se recorren las líneas.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PdfServiceTest {
+
+    @Autowired private VentaTestFixtures fixtures;
+    @Autowired private PdfService pdfService;
+    @Autowired private VentasGlobalesReporteService ventasGlobalesReporteService;
+    @Autowired private VentaService ventaService;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void misVentasSeLeenComoFilasPlanas() throws Exception {
+        String sufijo = String.valueOf(System.nanoTime() % 100000);
+        Empleado empleado = fixtures.crearAdministrador("Vendedor " + sufijo);
+        Empleado otro = fixtures.crearAdministrador("Otro " + sufijo);
+        Inventario filtro = fixtures.crearInventario("Filtro " + sufijo, 10);
+        Inventario casco = fixtures.crearInventario("Casco " + sufijo, 10);
+
+        ventaService.registrarVenta(nuevaVenta(), List.of(filtro.getId()), List.of(2), empleado);
+        ventaService.registrarVenta(nuevaVenta(), List.of(casco.getId()), List.of(1), otro);
+
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute("empleadoLogueado", empleado);
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        pdfService.exportarMisVentasPDF(response, session);
+
+        assertThat(stats.getEntityLoadCount()).isZero();
+        assertThat(response.getContentType()).isEqualTo("application/pdf");
+        // Precio cobrado en la línea (10.000) x 2 unidades, sin IVA
+        assertThat(texto(response.getContentAsByteArray())).contains("Filtro " + sufijo).doesNotContain("Casco " + sufijo)
+                .contains("TOTAL DE VENTAS: $20,000.00");
+
+        // Empleado sin ventas: mensaje en texto plano
+        session.setAttribute("empleadoLogueado", fixtures.crearAdministrador("Nuevo " + sufijo));
+        MockHttpServletResponse vacio = new MockHttpServletResponse();
+        pdfService.exportarMisVentasPDF(vacio, session);
+        assertThat(vacio.getContentAsString()).isEqualTo("No hay ventas del empleado para exportar.");
+    }
+
+    @Test
+    void reporteGlobalNoCargaEntidades() throws Exception {
+        Empleado empleado = fixtures.crearAdministrador("Global " + System.nanoTime() % 100000);
+        Inventario inv = fixtures.crearInventario("Espejo " + System.nanoTime() % 100000, 10);
+        ventaService.registrarVenta(nuevaVenta(), List.of(inv.getId()), List.of(1), empleado);
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ventasGlobalesReporteService.generarReporteVentasGlobales(response);
+
+        assertThat(stats.getEntityLoadCount()).isZero();
+        assertThat(texto(response.getContentAsByteArray())).contains("Cantidad Ventas").contains("Total artículos vendidos");
+    }
+
+    @Test
+    void reporteLargoSaleMientrasSeRecorrenLasLineas() throws Exception {
+        int total = 20_000;
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        AtomicLong escritos = new AtomicLong();
+        AtomicLong escritosAlTerminarLineas = new AtomicLong(-1);
+        OutputStream salida = new FilterOutputStream(pdf) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                escritos.addAndGet(len);
+                pdf.write(b, off, len);
+            }
+
+            @Override
+            public void write(int b) {
+                escritos.incrementAndGet();
+                pdf.write(b);
+            }
+        };
+
+        Iterator<LineaReporteView> lineas = new Iterator<>() {
+            int i = 0;
+
+            @Override
+            public boolean hasNext() {
+                if (i == total && escritosAlTerminarLineas.get() < 0) {
+                    escritosAlTerminarLineas.set(escritos.get());
+                }
+                return i < total;
+            }
+
+            @Override
+            public LineaReporteView next() {
+                i++;
+                return new Linea((long) (i + 1) / 2, LocalDateTime.of(2024, 3, 4, 10, 0).plusMinutes(i), "Pieza " + i);
+            }
+        };
+
+        pdfService.escribirReporteEmpleado(salida, "Masivo", lineas);
+
+        // Casi todo el PDF ya se había escrito antes de leer la última línea
+        assertThat(escritosAlTerminarLineas.get()).isGreaterThan(pdf.size() / 2);
+
+        PdfReader reader = new PdfReader(pdf.toByteArray());
+        try {
+            PdfTextExtractor extractor = new PdfTextExtractor(reader);
+            int paginas = reader.getNumberOfPages();
+            assertThat(paginas).isGreaterThan(total / PdfService.FILAS_POR_BLOQUE);
+            // Encabezado repetido en cada página y ninguna fila perdida entre bloques
+            assertThat(extractor.getTextFromPage(2)).contains("Precio Unitario");
+            String ultima = extractor.getTextFromPage(paginas).replaceAll("\\s+", " ");
+            assertThat(ultima).contains("Pieza " + total).contains("TOTAL DE VENTAS: $200,000,000.00");
+        } finally {
+            reader.close();
+        }
+    }
+
+    // Dos líneas por venta, 1 unidad a 10.000
+    private record Linea(Long ventaId, LocalDateTime fecha, String producto) implements LineaReporteView {
+        @Override public Long getVentaId() { return ventaId; }
+        @Override public LocalDateTime getFecha() { return fecha; }
+        @Override public String getNombreEmpleado() { return "Masivo"; }
+        @Override public BigDecimal getTotalVenta() { return new BigDecimal("20000"); }
+        @Override public Long getProductoId() { return 1L; }
+        @Override public String getProducto() { return producto; }
+        @Override public Integer getCantidad() { return 1; }
+        @Override public BigDecimal getPrecioUnitario() { return new BigDecimal("10000"); }
+        @Override public BigDecimal getTotalLinea() { return new BigDecimal("10000"); }
+        @Override public BigDecimal getCostoUnitario() { return new BigDecimal("7000"); }
+    }
+}
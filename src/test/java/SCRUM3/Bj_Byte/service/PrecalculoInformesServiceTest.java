@@ -0,0 +1,131 @@
+package SCRUM3.Bj_Byte.service;
+
+import SCRUM3.Bj_Byte.model.Empleado;
+import SCRUM3.Bj_Byte.model.Inventario;
+import SCRUM3.Bj_Byte.model.Venta;
+import SCRUM3.Bj_Byte.service.cache.ClaveInforme;
+import SCRUM3.Bj_Byte.service.informe.FiltroFecha;
+import SCRUM3.Bj_Byte.service.informe.PeriodoEstandar;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static SCRUM3.Bj_Byte.service.VentaTestFixtures.nuevaVenta;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Los reportes de periodos cerrados se precalculan en disco y se envían sin
+ * consultar la base de datos cuando los filtros coinciden; una venta de ese
+ * periodo los descarta.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PrecalculoInformesServiceTest {
+
+    @Autowired private VentaTestFixtures fixtures;
+    @Autowired private PrecalculoInformesService precalculo;
+    @Autowired private InformePrecalculadoService almacen;
+    @Autowired private InvalidacionInformesService invalidaciones;
+    @Autowired private ReporteFinancieroService reporteFinancieroService;
+    @Autowired private VentasGlobalesReporteService ventasGlobalesReporteService;
+    @Autowired private PdfService pdfService;
+    @Autowired private VentaService ventaService;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    @Value("${informes.precalculados.directorio}")
+    private String directorio;
+
+    @Test
+    void periodosCerradosSeEnvianDesdeDisco() throws Exception {
+        String sufijo = String.valueOf(System.nanoTime() % 100000);
+        Empleado empleado = fixtures.crearAdministrador("Nocturno " + sufijo);
+        Inventario inv = fixtures.crearInventario("Guaya " + sufijo, 10);
+
+        LocalDate hoy = LocalDate.now();
+        LocalDate ayer = hoy.minusDays(1);
+        Venta deAyer = ventaService.registrarVenta(nuevaVenta(), List.of(inv.getId()), List.of(1), empleado);
+        jdbcTemplate.update("UPDATE ventas SET fecha = ? WHERE id = ?", ayer.atTime(15, 0), deAyer.getId());
+        Venta delMes = ventaService.registrarVenta(nuevaVenta(), List.of(inv.getId()), List.of(2), empleado);
+        LocalDate mesPasado = hoy.minusMonths(1).withDayOfMonth(10);
+        jdbcTemplate.update("UPDATE ventas SET fecha = ? WHERE id = ?", mesPasado.atTime(11, 0), delMes.getId());
+
+        assertThat(precalculo.precalcular(hoy)).isPositive();
+        // Ya existen: la siguiente pasada no regenera nada
+        assertThat(precalculo.precalcular(hoy)).isZero();
+
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute("empleadoLogueado", empleado);
+        String semanaPasada = PeriodoEstandar.SEMANA_PASADA.filtro(hoy);
+        String mes = PeriodoEstandar.MES_PASADO.filtro(hoy);
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        MockHttpServletResponse financiero = new MockHttpServletResponse();
+        reporteFinancieroService.generarReporteFinancieroCompleto(financiero, null, " ", ayer.toString());
+        MockHttpServletResponse global = new MockHttpServletResponse();
+        ventasGlobalesReporteService.generarReporteVentasGlobales(global, semanaPasada);
+        MockHttpServletResponse misVentas = new MockHttpServletResponse();
+        pdfService.exportarMisVentasPDF(misVentas, session, mes);
+        assertThat(stats.getPrepareStatementCount()).isZero();
+
+        for (MockHttpServletResponse r : List.of(financiero, global, misVentas)) {
+            assertThat(r.getContentType()).isEqualTo("application/pdf");
+            assertThat(r.getContentAsByteArray()).isNotEmpty();
+        }
+        assertThat(almacen.listar()).anySatisfy(m -> assertThat(m)
+                .containsEntry("tipo", PdfService.TIPO_MIS_VENTAS)
+                .containsEntry("empleado", String.valueOf(empleado.getId()))
+                .containsEntry("periodo", "mes-pasado"));
+
+        // Al arrancar de nuevo, el índice se reconstruye desde los metadatos
+        InformePrecalculadoService recargado = new InformePrecalculadoService(directorio, jdbcTemplate,
+                new InvalidacionInformesService());
+        recargado.cargar();
+        LocalDateTime[] rangoMes = FiltroFecha.rango(mes);
+        ClaveInforme claveMes = PdfService.claveMisVentas(empleado.getId(), rangoMes);
+        assertThat(recargado.existe(claveMes)).isTrue();
+
+        // Una venta con fecha de ayer descarta los informes que la incluyen, no los del mes pasado
+        invalidaciones.invalidar(ayer.atTime(18, 0));
+        LocalDateTime[] rangoAyer = FiltroFecha.rango(ayer.toString());
+        assertThat(almacen.existe(new ClaveInforme(ReporteFinancieroService.TIPO_REPORTE,
+                null, null, rangoAyer[0], rangoAyer[1]))).isFalse();
+        assertThat(almacen.existe(claveMes)).isTrue();
+
+        stats.clear();
+        reporteFinancieroService.generarReporteFinancieroCompleto(new MockHttpServletResponse(), null, null, ayer.toString());
+        assertThat(stats.getPrepareStatementCount()).isPositive();
+
+        // Un cambio por fuera de la aplicación no lanza eventos: la huella deja de
+        // coincidir, el informe se descarta al arrancar y la siguiente pasada lo regenera
+        jdbcTemplate.update("UPDATE venta_detalle SET cantidad = cantidad + 1 WHERE venta_id = ?", delMes.getId());
+        InformePrecalculadoService reiniciado = new InformePrecalculadoService(directorio, jdbcTemplate,
+                new InvalidacionInformesService());
+        reiniciado.cargar();
+        assertThat(reiniciado.existe(claveMes)).isFalse();
+        assertThat(precalculo.precalcular(hoy)).isPositive();
+        assertThat(almacen.existe(claveMes)).isTrue();
+    }
+
+    @Test
+    void filtroDeSemanaIso() {
+        LocalDateTime[] semana = FiltroFecha.rango("2024-W01");
+        assertThat(semana[0]).isEqualTo(LocalDate.of(2024, 1, 1).atStartOfDay());
+        assertThat(semana[1]).isEqualTo(LocalDate.of(2024, 1, 8).atStartOfDay());
+        assertThat(FiltroFecha.semana(LocalDate.of(2021, 1, 3))).isEqualTo("2020-W53");
+        assertThat(PeriodoEstandar.SEMANA_PASADA.rango(LocalDate.of(2024, 1, 10))).isEqualTo(semana);
+    }
+}
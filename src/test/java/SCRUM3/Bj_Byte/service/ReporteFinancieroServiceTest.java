@@ -0,0 +1,77 @@
+package SCRUM3.Bj_Byte.service;
+
+import SCRUM3.Bj_Byte.model.Empleado;
+import SCRUM3.Bj_Byte.model.Inventario;
+import SCRUM3.Bj_Byte.service.pdf.EstilosPdf;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static SCRUM3.Bj_Byte.service.pdf.PdfTestUtils.texto;
+
+import static SCRUM3.Bj_Byte.service.VentaTestFixtures.nuevaVenta;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * El reporte financiero aplica los filtros en la consulta y no carga entidades:
+ * ventas y productos llegan como filas planas. El filtro de producto deja solo
+ * las líneas de ese producto.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ReporteFinancieroServiceTest {
+
+    @Autowired private VentaTestFixtures fixtures;
+    @Autowired private ReporteFinancieroService reporteFinancieroService;
+    @Autowired private VentaService ventaService;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void filtroDeProductoYEmpleadoSeAplicanSinCargarVentas() throws Exception {
+        String sufijo = String.valueOf(System.nanoTime() % 100000);
+        Empleado empleado = fixtures.crearAdministrador("Reportero " + sufijo);
+        Inventario llanta = fixtures.crearInventario("Llanta " + sufijo, 10);
+        Inventario bujia = fixtures.crearInventario("Bujia " + sufijo, 10);
+
+        ventaService.registrarVenta(nuevaVenta(), List.of(llanta.getId()), List.of(1), empleado);
+        ventaService.registrarVenta(nuevaVenta(), List.of(bujia.getId()), List.of(2), empleado);
+        ventaService.registrarVenta(nuevaVenta(), List.of(bujia.getId()), List.of(1), empleado);
+        ventaService.registrarVenta(nuevaVenta(), List.of(llanta.getId(), bujia.getId()), List.of(1, 1), empleado);
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        String texto = generar("bujia " + sufijo, "reportero " + sufijo, LocalDate.now().toString());
+
+        // Ventas y productos llegan como filas planas: el contexto de persistencia no crece
+        assertThat(stats.getEntityLoadCount()).isZero();
+        assertThat(texto).contains("Bujia " + sufijo).doesNotContain("Llanta " + sufijo);
+        assertThat(texto).containsPattern("Total de Transacciones ?3 ");
+        // La llanta de la venta mixta no cuenta: 4 bujías de $10.000 más IVA
+        assertThat(texto).containsPattern("Ingresos Totales ?" + Pattern.quote(EstilosPdf.moneda(new BigDecimal("47600"))));
+
+        // Filtro por mes: ve las cuatro ventas completas
+        String mes = generar(null, "Reportero " + sufijo, LocalDate.now().toString().substring(0, 7));
+        assertThat(mes).contains("Llanta " + sufijo).containsPattern("Total de Transacciones ?4 ");
+        assertThat(mes).containsPattern("Ingresos Totales ?" + Pattern.quote(EstilosPdf.moneda(new BigDecimal("71400"))));
+
+        // Fecha inválida: reporte vacío
+        assertThat(generar(null, "Reportero " + sufijo, "ayer")).containsPattern("Total de Transacciones ?0 ");
+    }
+
+    private String generar(String producto, String empleado, String fecha) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        reporteFinancieroService.generarReporteFinancieroCompleto(response, producto, empleado, fecha);
+        assertThat(response.getContentType()).isEqualTo("application/pdf");
+        return texto(response.getContentAsByteArray());
+    }
+}
@@ -0,0 +1,168 @@
+package SCRUM3.Bj_Byte.service;
+
+import SCRUM3.Bj_Byte.model.Empleado;
+import SCRUM3.Bj_Byte.model.Inventario;
+import SCRUM3.Bj_Byte.model.Producto;
+import SCRUM3.Bj_Byte.model.ResumenVentaDiaria;
+import SCRUM3.Bj_Byte.model.ResumenVentaDiariaId;
+import SCRUM3.Bj_Byte.model.Venta;
+import SCRUM3.Bj_Byte.repository.InventarioRepository;
+import SCRUM3.Bj_Byte.repository.ResumenVentaDiariaRepository;
+import SCRUM3.Bj_Byte.repository.VentaRepository;
+import SCRUM3.Bj_Byte.service.dto.ResumenVentasEmpleado;
+import SCRUM3.Bj_Byte.service.exception.StockInsuficienteException;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+
+import static SCRUM3.Bj_Byte.service.VentaTestFixtures.nuevaVenta;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * El resumen diario debe coincidir siempre con las ventas: se actualiza al registrar
+ * y al eliminar, y la reconstrucción desde el historial da el mismo resultado.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ResumenVentasServiceTest {
+
+    @Autowired private VentaTestFixtures fixtures;
+    @Autowired private VentaService ventaService;
+    @Autowired private ResumenVentasService resumenVentasService;
+    @Autowired private ResumenVentaDiariaRepository resumenRepository;
+    @Autowired private InventarioRepository inventarioRepository;
+    @Autowired private VentaRepository ventaRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private Empleado empleado;
+
+    @BeforeEach
+    void crearEmpleado() {
+        empleado = fixtures.crearEmpleado("Vendedor Resumen");
+    }
+
+    @Test
+    void registrarYEliminarActualizanElResumen() {
+        Inventario casco = crearInventario("Casco integral", 10, "100000", "60000", true);
+        Inventario guantes = crearInventario("Guantes", 10, "20000", "12000", false);
+
+        ventaService.registrarVenta(nuevaVenta(), List.of(casco.getId(), guantes.getId(), casco.getId()),
+                List.of(1, 2, 1), empleado);
+        Venta segunda = ventaService.registrarVenta(nuevaVenta(), List.of(guantes.getId()), List.of(1), empleado);
+
+        ResumenVentaDiaria filaCasco = fila(casco);
+        assertThat(filaCasco.getIngresos()).isEqualByComparingTo("200000");   // exento: sin IVA
+        assertThat(filaCasco.getUnidades()).isEqualTo(2);
+        assertThat(filaCasco.getCosto()).isEqualByComparingTo("120000");
+        assertThat(filaCasco.getTransacciones()).isEqualTo(1);
+
+        ResumenVentaDiaria filaGuantes = fila(guantes);
+        assertThat(filaGuantes.getIngresos()).isEqualByComparingTo("71400");  // 3 x 20000 + 19% IVA
+        assertThat(filaGuantes.getUnidades()).isEqualTo(3);
+        assertThat(filaGuantes.getTransacciones()).isEqualTo(2);
+
+        assertThat(ventaService.eliminarVenta(segunda.getId())).isTrue();
+
+        filaGuantes = fila(guantes);
+        assertThat(filaGuantes.getIngresos()).isEqualByComparingTo("47600");
+        assertThat(filaGuantes.getUnidades()).isEqualTo(2);
+        assertThat(filaGuantes.getCosto()).isEqualByComparingTo("24000");
+        assertThat(filaGuantes.getTransacciones()).isEqualTo(1);
+        assertThat(inventarioRepository.findById(guantes.getId()).orElseThrow().getCantidad()).isEqualTo(8);
+    }
+
+    @Test
+    void ventaRechazadaNoTocaElResumen() {
+        Inventario escaso = crearInventario("Espejo retrovisor", 1, "15000", "9000", false);
+        ventaService.registrarVenta(nuevaVenta(), List.of(escaso.getId()), List.of(1), empleado);
+
+        assertThatThrownBy(() -> ventaService.registrarVenta(nuevaVenta(), List.of(escaso.getId()), List.of(1), empleado))
+                .isInstanceOf(StockInsuficienteException.class);
+
+        assertThat(fila(escaso).getUnidades()).isEqualTo(1);
+        assertThat(fila(escaso).getTransacciones()).isEqualTo(1);
+    }
+
+    @Test
+    void reconstruirDaElMismoResultadoQueElIncremental() {
+        Inventario a = crearInventario("Bujía", 20, "8000", "5000", false);
+        Inventario b = crearInventario("Cadena", 20, "90000", "70000", true);
+        ventaService.registrarVenta(nuevaVenta(), List.of(a.getId(), b.getId()), List.of(4, 1), empleado);
+        Venta borrada = ventaService.registrarVenta(nuevaVenta(), List.of(b.getId()), List.of(2), empleado);
+        ventaService.registrarVenta(nuevaVenta(), List.of(a.getId()), List.of(3), empleado);
+        ventaService.eliminarVenta(borrada.getId());
+
+        List<String> incremental = volcado();
+        // Fila de un día sin ventas (p. ej. ventas borradas a mano): la reconstrucción la quita
+        jdbcTemplate.update("INSERT INTO " + ResumenVentaDiaria.TABLA
+                + " (dia, empleado_id, producto_id, ingresos, unidades, costo, transacciones)"
+                + " VALUES (?, ?, 0, 1000, 1, 0, 1)", Date.valueOf(LocalDate.of(2001, 1, 1)), empleado.getId());
+        resumenVentasService.reconstruir();
+
+        assertThat(volcado()).isEqualTo(incremental);
+    }
+
+    @Test
+    void resumenDeEmpleadoEnUnaConsultaConDiasCompletos() {
+        Inventario inv = crearInventario("Kit de arrastre", 10, "50000", "30000", true);
+        ventaService.registrarVenta(nuevaVenta(), List.of(inv.getId()), List.of(2), empleado);
+
+        // Venta del último segundo de ayer: antes quedaba fuera del día por el fin en 23:59:59
+        Venta tardia = nuevaVenta();
+        tardia.setEmpleado(empleado);
+        tardia.setNombreEmpleado(empleado.getNombre());
+        tardia.setFecha(LocalDate.now().minusDays(1).atTime(23, 59, 59, 500_000_000));
+        tardia.setTotalVenta(new BigDecimal("15000"));
+        ventaRepository.save(tardia);
+        resumenVentasService.reconstruir();
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        ResumenVentasEmpleado resumen = resumenVentasService.resumenEmpleado(empleado.getId(), LocalDate.now());
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+
+        assertThat(resumen.getTotalHoy()).isEqualByComparingTo("100000");
+        assertThat(resumen.getTotalHistorico()).isEqualByComparingTo("115000");
+        assertThat(resumen.getDias()).hasSize(7).last().isEqualTo(LocalDate.now());
+        assertThat(resumen.getVentasPorDia().get(5)).isEqualByComparingTo("15000");
+        assertThat(resumen.getVentasPorDia().get(6)).isEqualByComparingTo("100000");
+    }
+
+    // Filas con contenido (una resta puede dejar filas en cero, que la reconstrucción no genera)
+    private List<String> volcado() {
+        return resumenRepository.findAll().stream()
+                .filter(r -> r.getTransacciones() != 0)
+                .sorted(Comparator.comparing((ResumenVentaDiaria r) -> r.getId().getDia())
+                        .thenComparing(r -> r.getId().getEmpleadoId())
+                        .thenComparing(r -> r.getId().getProductoId()))
+                .map(r -> r.getId().getDia() + "|" + r.getId().getEmpleadoId() + "|" + r.getId().getProductoId()
+                        + "|" + r.getIngresos().stripTrailingZeros().toPlainString() + "|" + r.getUnidades()
+                        + "|" + r.getCosto().stripTrailingZeros().toPlainString() + "|" + r.getTransacciones())
+                .toList();
+    }
+
+    private ResumenVentaDiaria fila(Inventario inv) {
+        return resumenRepository.findById(new ResumenVentaDiariaId(
+                LocalDate.now(), empleado.getId(), inv.getProducto().getId())).orElseThrow();
+    }
+
+    private Inventario crearInventario(String nombre, int cantidad, String precio, String precioBase, boolean exento) {
+        Producto p = VentaTestFixtures.producto(nombre, precio, precioBase);
+        p.setExento(exento);
+        return fixtures.crearInventario(p, cantidad);
+    }
+}
@@ -0,0 +1,177 @@
+package SCRUM3.Bj_Byte.service;
+
+import SCRUM3.Bj_Byte.model.Empleado;
+import SCRUM3.Bj_Byte.model.GeneradorIds;
+import SCRUM3.Bj_Byte.model.Inventario;
+import SCRUM3.Bj_Byte.model.Venta;
+import SCRUM3.Bj_Byte.repository.InventarioRepository;
+import SCRUM3.Bj_Byte.repository.VentaRepository;
+import SCRUM3.Bj_Byte.service.exception.StockInsuficienteException;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static SCRUM3.Bj_Byte.service.VentaTestFixtures.nuevaVenta;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pruebas del checkout: varias terminales vendiendo la misma pieza a la vez
+ * nunca deben dejar el stock negativo ni vender más de lo disponible, y un
+ * checkout nunca necesita una segunda conexión del pool.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class VentaServiceConcurrenciaTest {
+
+    @Autowired private VentaService ventaService;
+    @Autowired private VentaTestFixtures fixtures;
+    @Autowired private InventarioRepository inventarioRepository;
+    @Autowired private VentaRepository ventaRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private DataSource dataSource;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private Empleado empleado;
+
+    @BeforeEach
+    void crearEmpleado() {
+        empleado = fixtures.crearEmpleado("Cajero Prueba");
+    }
+
+    @Test
+    void checkoutsConcurrentesNoSobrevendenStock() throws Exception {
+        int stockInicial = 50;
+        int terminales = 64;
+        Inventario inv = fixtures.crearInventario("Pastillas de freno", stockInicial);
+
+        ExecutorService pool = Executors.newFixedThreadPool(terminales);
+        CountDownLatch salida = new CountDownLatch(1);
+        AtomicInteger vendidas = new AtomicInteger();
+        AtomicInteger rechazadas = new AtomicInteger();
+        List<Future<?>> tareas = new ArrayList<>();
+
+        for (int i = 0; i < terminales; i++) {
+            tareas.add(pool.submit(() -> {
+                salida.await();
+                try {
+                    ventaService.registrarVenta(nuevaVenta(), List.of(inv.getId()), List.of(1), empleado);
+                    vendidas.incrementAndGet();
+                } catch (StockInsuficienteException e) {
+                    rechazadas.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        salida.countDown();
+        for (Future<?> t : tareas) {
+            t.get(60, TimeUnit.SECONDS); // propaga cualquier error inesperado
+        }
+        pool.shutdown();
+
+        int stockFinal = inventarioRepository.findById(inv.getId()).orElseThrow().getCantidad();
+
+        assertThat(vendidas.get()).isEqualTo(stockInicial);
+        assertThat(rechazadas.get()).isEqualTo(terminales - stockInicial);
+        assertThat(stockFinal).isZero();
+    }
+
+    @Test
+    void lineaSinStockRevierteTodaLaVentaEIndicaLaLinea() {
+        Inventario conStock = fixtures.crearInventario("Aceite 20W50", 10);
+        Inventario sinStock = fixtures.crearInventario("Llanta trasera", 1);
+        long ventasAntes = ventaRepository.count();
+
+        assertThatThrownBy(() -> ventaService.registrarVenta(nuevaVenta(),
+                List.of(conStock.getId(), sinStock.getId()), List.of(3, 2), empleado))
+                .isInstanceOfSatisfying(StockInsuficienteException.class, e -> {
+                    assertThat(e.getLineas()).hasSize(1);
+                    assertThat(e.getLineas().get(0).getInventarioId()).isEqualTo(sinStock.getId());
+                    assertThat(e.getLineas().get(0).getCantidadSolicitada()).isEqualTo(2);
+                });
+
+        assertThat(inventarioRepository.findById(conStock.getId()).orElseThrow().getCantidad()).isEqualTo(10);
+        assertThat(inventarioRepository.findById(sinStock.getId()).orElseThrow().getCantidad()).isEqualTo(1);
+        assertThat(ventaRepository.count()).isEqualTo(ventasAntes);
+    }
+
+    @Test
+    void bloquesDeIdsNoOcupanOtraConexionDelPool() throws Exception {
+        Inventario inv = fixtures.crearInventario("Tensor de cadena", 200);
+        HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+
+        // Se deja una sola conexión libre: la del checkout
+        List<Connection> ocupadas = new ArrayList<>();
+        try {
+            for (int i = 1; i < pool.getMaximumPoolSize(); i++) {
+                ocupadas.add(pool.getConnection());
+            }
+            // Más de un bloque de IDs de ventas y de detalles
+            for (int i = 0; i < GeneradorIds.BLOQUE + 10; i++) {
+                ventaService.registrarVenta(nuevaVenta(), List.of(inv.getId()), List.of(1), empleado);
+            }
+        } finally {
+            for (Connection c : ocupadas) {
+                c.close();
+            }
+        }
+
+        assertThat(inventarioRepository.findById(inv.getId()).orElseThrow().getCantidad())
+                .isEqualTo(200 - GeneradorIds.BLOQUE - 10);
+    }
+
+    @Test
+    void contadorQueFaltaSeCreaPorEncimaDeLosIdsUsados() {
+        Inventario inv = fixtures.crearInventario("Kit de arrastre", 200);
+        Long maxAntes = jdbcTemplate.queryForObject("SELECT MAX(id) FROM ventas", Long.class);
+        jdbcTemplate.update("DELETE FROM " + GeneradorIds.TABLA + " WHERE " + GeneradorIds.COLUMNA_ENTIDAD + " = ?",
+                "ventas");
+
+        // Basta un bloque para agotar el que ya estaba reservado y pedir otro
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i <= GeneradorIds.BLOQUE; i++) {
+            ids.add(ventaService.registrarVenta(nuevaVenta(), List.of(inv.getId()), List.of(1), empleado).getId());
+        }
+
+        assertThat(ids).doesNotHaveDuplicates().allMatch(id -> maxAntes == null || id > maxAntes);
+        assertThat(jdbcTemplate.queryForList("SELECT " + GeneradorIds.COLUMNA_VALOR + " FROM " + GeneradorIds.TABLA
+                + " WHERE " + GeneradorIds.COLUMNA_ENTIDAD + " = ?", Long.class, "ventas")).hasSize(1);
+    }
+
+    @Test
+    void ventaDeVeinteLineasUsaPocasSentencias() {
+        List<Long> ids = new ArrayList<>();
+        List<Integer> cantidades = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ids.add(fixtures.crearInventario("Repuesto " + i, 5).getId());
+            cantidades.add(1);
+        }
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        Venta venta = ventaService.registrarVenta(nuevaVenta(), ids, cantidades, empleado);
+        long sentencias = stats.getPrepareStatementCount();
+
+        // Con IDENTITY eran 42 (1 carga + 20 UPDATE de stock + 1 INSERT de venta + 20 INSERT de detalle).
+        // Con IDs por tabla los INSERT de detalle van en un único lote JDBC.
+        // El resumen diario se actualiza aparte con un único lote JDBC (fuera de Hibernate).
+        assertThat(sentencias).isLessThanOrEqualTo(26);
+        assertThat(venta.getId()).isNotNull();
+        assertThat(ventaRepository.findById(venta.getId())).isPresent();
+    }
+}
@@ -0,0 +1,144 @@
+package SCRUM3.Bj_Byte.service;
+
+import SCRUM3.Bj_Byte.model.Empleado;
+import SCRUM3.Bj_Byte.model.Inventario;
+import SCRUM3.Bj_Byte.model.Producto;
+import SCRUM3.Bj_Byte.model.Proveedor;
+import SCRUM3.Bj_Byte.model.Venta;
+import SCRUM3.Bj_Byte.model.VentaDetalle;
+import SCRUM3.Bj_Byte.repository.ProveedorRepository;
+import SCRUM3.Bj_Byte.service.dto.PaginaVentasCursor;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static SCRUM3.Bj_Byte.service.VentaTestFixtures.nuevaVenta;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * El listado paginado de ventas debe cargar todo lo que muestra la vista
+ * con un número fijo de sentencias, sin importar cuántas líneas tenga cada venta.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class VentaServiceListadoTest {
+
+    @Autowired private VentaService ventaService;
+    @Autowired private VentaTestFixtures fixtures;
+    @Autowired private ProveedorRepository proveedorRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void paginaDeDiezVentasUsaSentenciasFijas() {
+        Empleado empleado = fixtures.crearAdministrador("Listado " + System.nanoTime());
+
+        List<Long> ids = new ArrayList<>();
+        List<Integer> cantidades = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            ids.add(crearInventario("Repuesto listado " + i).getId());
+            cantidades.add(1);
+        }
+        for (int i = 0; i < 12; i++) {
+            // Ventas con 1 a 6 líneas
+            int lineas = 1 + (i % 6);
+            ventaService.registrarVenta(nuevaVenta(), ids.subList(0, lineas), cantidades.subList(0, lineas), empleado);
+        }
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        Page<Venta> pagina = ventaService.buscarVentasConPaginacion(null, empleado.getNombre(), null,
+                PageRequest.of(0, 10, Sort.by("fecha").descending().and(Sort.by("id").descending())));
+
+        // Lo mismo que recorre listar_ventas.html; fuera de la transacción fallaría si no estuviera cargado
+        int productosMostrados = 0;
+        for (Venta v : pagina.getContent()) {
+            for (VentaDetalle d : v.getDetalles()) {
+                assertThat(d.getInventario().getProducto().getNombre()).isNotNull();
+                productosMostrados++;
+            }
+            assertThat(v.getProveedores()).isNotEmpty();
+            v.getCliente();
+        }
+
+        assertThat(pagina.getContent()).hasSize(10);
+        assertThat(pagina.getTotalElements()).isEqualTo(12);
+        assertThat(productosMostrados).isGreaterThan(10);
+        // página de IDs + conteo + ventas con detalles + proveedores
+        assertThat(stats.getPrepareStatementCount()).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void filtroPorProductoDevuelveVentasCompletas() {
+        Empleado empleado = fixtures.crearAdministrador("Filtro " + System.nanoTime());
+        Inventario buscado = crearInventario("Cadena " + System.nanoTime());
+        Inventario otro = crearInventario("Piñón " + System.nanoTime());
+
+        ventaService.registrarVenta(nuevaVenta(), List.of(buscado.getId(), otro.getId()), List.of(1, 1), empleado);
+        ventaService.registrarVenta(nuevaVenta(), List.of(otro.getId()), List.of(1), empleado);
+
+        Page<Venta> pagina = ventaService.buscarVentasConPaginacion(
+                buscado.getProducto().getNombre().toUpperCase(), null, null, PageRequest.of(0, 10));
+
+        assertThat(pagina.getContent()).hasSize(1);
+        assertThat(pagina.getContent().get(0).getDetalles()).hasSize(2);
+    }
+
+    @Test
+    void cursorRecorreTodasLasVentasSinRepetirYVuelveAtras() {
+        Empleado empleado = fixtures.crearAdministrador("Cursor " + System.nanoTime());
+        Inventario inv = crearInventario("Bujía " + System.nanoTime());
+        for (int i = 0; i < 23; i++) {
+            ventaService.registrarVenta(nuevaVenta(), List.of(inv.getId()), List.of(1), empleado);
+        }
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<Long> vistos = new ArrayList<>();
+        List<String> cursores = new ArrayList<>();
+        String cursor = null;
+        do {
+            stats.clear();
+            PaginaVentasCursor pagina = ventaService.buscarVentasPorCursor(
+                    null, empleado.getNombre(), null, cursor, false, 10);
+            // IDs de la página + ventas con detalles + proveedores; sin conteo
+            assertThat(stats.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+            pagina.getContent().forEach(v -> vistos.add(v.getId()));
+            cursores.add(cursor);
+            cursor = pagina.getCursorSiguiente();
+        } while (cursor != null);
+
+        assertThat(vistos).hasSize(23).doesNotHaveDuplicates();
+        assertThat(cursores).hasSize(3);
+
+        // Desde la tercera página, "anterior" devuelve exactamente la segunda
+        PaginaVentasCursor tercera = ventaService.buscarVentasPorCursor(
+                null, empleado.getNombre(), null, cursores.get(2), false, 10);
+        PaginaVentasCursor segunda = ventaService.buscarVentasPorCursor(
+                null, empleado.getNombre(), null, tercera.getCursorAnterior(), true, 10);
+        assertThat(segunda.getContent()).extracting(Venta::getId).containsExactlyElementsOf(vistos.subList(10, 20));
+        assertThat(segunda.isTieneAnterior()).isTrue();
+        assertThat(segunda.isTieneSiguiente()).isTrue();
+    }
+
+    // Con proveedor: la vista muestra los proveedores de cada venta
+    private Inventario crearInventario(String nombre) {
+        Proveedor prov = new Proveedor();
+        prov.setNombre("Proveedor de " + nombre);
+        prov = proveedorRepository.save(prov);
+
+        Producto p = VentaTestFixtures.producto(nombre, "10000", "7000");
+        p.setProveedores(Set.of(prov));
+        return fixtures.crearInventario(p, 100);
+    }
+}
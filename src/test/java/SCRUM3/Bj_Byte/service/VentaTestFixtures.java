@@ -0,0 +1,96 @@
+package SCRUM3.Bj_Byte.service;
+
+import SCRUM3.Bj_Byte.model.Empleado;
+import SCRUM3.Bj_Byte.model.Inventario;
+import SCRUM3.Bj_Byte.model.Producto;
+import SCRUM3.Bj_Byte.model.Venta;
+import SCRUM3.Bj_Byte.repository.EmpleadoRepository;
+import SCRUM3.Bj_Byte.repository.InventarioRepository;
+import SCRUM3.Bj_Byte.repository.ProductoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Datos de prueba compartidos por las pruebas de integración de ventas:
+ * empleados, productos con su inventario y ventas sin registrar.
+ */
+@Component
+public class VentaTestFixtures {
+
+    private static final AtomicLong SECUENCIA = new AtomicLong();
+
+    @Autowired private EmpleadoRepository empleadoRepository;
+    @Autowired private ProductoRepository productoRepository;
+    @Autowired private InventarioRepository inventarioRepository;
+
+    /**
+     * Empleado normal (rol 2) con correo único.
+     */
+    public Empleado crearEmpleado(String nombre) {
+        return guardarEmpleado(nombre, 2);
+    }
+
+    /**
+     * Administrador (rol 1) con correo único.
+     */
+    public Empleado crearAdministrador(String nombre) {
+        return guardarEmpleado(nombre, 1);
+    }
+
+    /**
+     * Producto de $10.000 (costo $7.000) con la cantidad dada en bodega.
+     */
+    public Inventario crearInventario(String nombre, int cantidad) {
+        return crearInventario(nombre, cantidad, "10000", "7000");
+    }
+
+    public Inventario crearInventario(String nombre, int cantidad, String precio, String precioBase) {
+        return crearInventario(producto(nombre, precio, precioBase), cantidad);
+    }
+
+    /**
+     * Guarda el producto (p. ej. con proveedores o exento de IVA) y su inventario.
+     */
+    public Inventario crearInventario(Producto producto, int cantidad) {
+        Inventario inv = new Inventario();
+        inv.setProducto(productoRepository.save(producto));
+        inv.setCantidad(cantidad);
+        inv.setUbicacion("Bodega");
+        inv.setEstado("Disponible");
+        return inventarioRepository.save(inv);
+    }
+
+    /**
+     * Producto sin guardar.
+     */
+    public static Producto producto(String nombre, String precio, String precioBase) {
+        Producto p = new Producto();
+        p.setNombre(nombre);
+        p.setPrecio(new BigDecimal(precio));
+        p.setPrecioBase(new BigDecimal(precioBase));
+        return p;
+    }
+
+    /**
+     * Venta en efectivo a "Cliente Final", lista para VentaService.registrarVenta.
+     */
+    public static Venta nuevaVenta() {
+        Venta v = new Venta();
+        v.setMetodoPago("Efectivo");
+        v.setCliente("Cliente Final");
+        return v;
+    }
+
+    private Empleado guardarEmpleado(String nombre, int rolId) {
+        Empleado e = new Empleado();
+        e.setNombre(nombre);
+        e.setCorreo("empleado" + System.nanoTime() + "-" + SECUENCIA.incrementAndGet() + "@bjbyte.test");
+        e.setTelefono("3000000000");
+        e.setContrasena("secreta");
+        e.setRolId(rolId);
+        return empleadoRepository.save(e);
+    }
+}
@@ -0,0 +1,155 @@
+package SCRUM3.Bj_Byte.service.informe;
+
+import SCRUM3.Bj_Byte.repository.projection.LineaReporteView;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Un recorrido único da los mismos resultados que combinar tramos de ids disjuntos,
+ * y lo que se retiene no crece con el número de ventas.
+ */
+class AcumuladorInformeTest {
+
+    private static final String[] EMPLEADOS = {"Ana", "Luis", null};
+    private static final String[] PRODUCTOS = {"Llanta", "Bujia", "Cadena", "Aceite"};
+
+    @Test
+    void combinarTramosEquivaleAUnSoloRecorrido() {
+        int ventas = 10_000;
+
+        AcumuladorInforme secuencial = new AcumuladorInforme(8);
+        recorrer(secuencial, 1, ventas);
+
+        AcumuladorInforme combinado = new AcumuladorInforme(8);
+        AcumuladorInforme[] tramos = new AcumuladorInforme[4];
+        for (int t = 0; t < tramos.length; t++) {
+            tramos[t] = new AcumuladorInforme(8);
+            recorrer(tramos[t], t * 2500L + 1, (t + 1) * 2500L);
+        }
+        // Orden de combinación distinto al de los ids: la muestra debe seguir siendo la misma
+        combinado.combinar(tramos[3]).combinar(tramos[1]).combinar(tramos[0]).combinar(tramos[2]);
+
+        assertThat(combinado.getTransacciones()).isEqualTo(ventas);
+        assertThat(combinado.getTotalVentas()).isEqualByComparingTo(secuencial.getTotalVentas());
+        assertThat(combinado.getTotalArticulos()).isEqualTo(secuencial.getTotalArticulos());
+        assertThat(combinado.getVentasPorEmpleado()).isEqualTo(secuencial.getVentasPorEmpleado());
+        assertThat(combinado.getDistribucionArticulos()).isEqualTo(secuencial.getDistribucionArticulos());
+        assertThat(combinado.getMuestra()).extracting(VentaMuestra::getId)
+                .containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L);
+        assertThat(combinado.getMuestra()).extracting(VentaMuestra::getArticulos).containsOnly(3);
+        assertThat(combinado.getTransaccionesPorEmpleado()).isEqualTo(secuencial.getTransaccionesPorEmpleado());
+        assertThat(combinado.getVentasPorEmpleado()).containsKey(AcumuladorInforme.SIN_ASIGNAR);
+    }
+
+    @Test
+    void ventaConVariasLineasCuentaUnaVez() {
+        AcumuladorInforme a = new AcumuladorInforme(8);
+        a.agregar(new Linea(1L, "Ana", new BigDecimal("300"), "Llanta", 2));
+        a.agregar(new Linea(1L, "Ana", new BigDecimal("300"), "Bujia", 1));
+        // Venta sin detalles: una fila sin producto ni cantidad
+        a.agregar(new Linea(2L, null, new BigDecimal("50"), null, null));
+
+        assertThat(a.getTransacciones()).isEqualTo(2);
+        assertThat(a.getTotalVentas()).isEqualByComparingTo("350");
+        assertThat(a.getTotalArticulos()).isEqualTo(3);
+        assertThat(a.getVentasPorEmpleado().get("Ana")).isEqualByComparingTo("300");
+        assertThat(a.getVentasPorEmpleado().get(AcumuladorInforme.SIN_ASIGNAR)).isEqualByComparingTo("50");
+        assertThat(a.getDistribucionArticulos()).containsEntry("Llanta", 2).containsEntry("Bujia", 1).hasSize(2);
+    }
+
+    @Test
+    void estadoAcotadoConMuchasVentas() {
+        AcumuladorInforme a = new AcumuladorInforme(8);
+        recorrer(a, 1, 100_000);
+
+        assertThat(a.getTransacciones()).isEqualTo(100_000);
+        assertThat(a.getTotalArticulos()).isEqualTo(300_000);
+        // Lo retenido depende de la muestra, los empleados y los productos, no de las ventas
+        assertThat(a.getMuestra()).hasSize(8);
+        assertThat(a.getVentasPorEmpleado()).hasSize(EMPLEADOS.length);
+        assertThat(a.getDistribucionArticulos()).hasSize(PRODUCTOS.length);
+    }
+
+    /**
+     * Medición opcional ({@code mvn test -Pbenchmark}; no forma parte de la suite):
+     * tiempo por venta con 10k, 100k y 1M ventas sintéticas de dos líneas, y coste
+     * de combinar 4 tramos de 250k. La primera medida sirve de calentamiento; solo
+     * falla si el recorrido deja de ser lineal.
+     */
+    @Test
+    @Tag("benchmark")
+    void costePorVentaYDeCombinarTramos() {
+        recorrer(new AcumuladorInforme(8), 1, 10_000);
+
+        long[] tamanos = {10_000, 100_000, 1_000_000};
+        double[] nanosPorVenta = new double[tamanos.length];
+        for (int i = 0; i < tamanos.length; i++) {
+            AcumuladorInforme a = new AcumuladorInforme(8);
+            long inicio = System.nanoTime();
+            recorrer(a, 1, tamanos[i]);
+            nanosPorVenta[i] = (System.nanoTime() - inicio) / (double) tamanos[i];
+            assertThat(a.getTransacciones()).isEqualTo(tamanos[i]);
+            System.out.printf("AcumuladorInforme: %,d ventas -> %.1f ns/venta%n", tamanos[i], nanosPorVenta[i]);
+        }
+
+        AcumuladorInforme[] tramos = new AcumuladorInforme[4];
+        for (int t = 0; t < tramos.length; t++) {
+            tramos[t] = new AcumuladorInforme(8);
+            recorrer(tramos[t], t * 250_000L + 1, (t + 1) * 250_000L);
+        }
+        long inicio = System.nanoTime();
+        AcumuladorInforme combinado = new AcumuladorInforme(8);
+        for (AcumuladorInforme tramo : tramos) {
+            combinado.combinar(tramo);
+        }
+        double microsCombinar = (System.nanoTime() - inicio) / 1000.0;
+        assertThat(combinado.getTransacciones()).isEqualTo(1_000_000);
+        System.out.printf("AcumuladorInforme: combinar %d tramos -> %.1f us%n", tramos.length, microsCombinar);
+
+        // Margen amplio: solo detecta un recorrido que deje de ser lineal
+        assertThat(nanosPorVenta[2]).isLessThan(Math.max(nanosPorVenta[0], 200) * 10);
+    }
+
+    // Cada venta tiene dos líneas (1 y 2 unidades) y total = id mod 1000
+    private static void recorrer(AcumuladorInforme a, long desde, long hasta) {
+        for (long id = desde; id <= hasta; id++) {
+            String empleado = EMPLEADOS[(int) (id % EMPLEADOS.length)];
+            BigDecimal total = BigDecimal.valueOf(id % 1000);
+            a.agregar(new Linea(id, empleado, total, PRODUCTOS[(int) (id % PRODUCTOS.length)], 1));
+            a.agregar(new Linea(id, empleado, total, PRODUCTOS[(int) ((id + 1) % PRODUCTOS.length)], 2));
+        }
+    }
+
+    private static final class Linea implements LineaReporteView {
+
+        private final Long ventaId;
+        private final String empleado;
+        private final BigDecimal total;
+        private final String producto;
+        private final Integer cantidad;
+
+        Linea(Long ventaId, String empleado, BigDecimal total, String producto, Integer cantidad) {
+            this.ventaId = ventaId;
+            this.empleado = empleado;
+            this.total = total;
+            this.producto = producto;
+            this.cantidad = cantidad;
+        }
+
+        @Override public Long getVentaId() { return ventaId; }
+        @Override public LocalDateTime getFecha() { return null; }
+        @Override public String getNombreEmpleado() { return empleado; }
+        @Override public BigDecimal getTotalVenta() { return total; }
+        @Override public Long getProductoId() { return null; }
+        @Override public String getProducto() { return producto; }
+        @Override public Integer getCantidad() { return cantidad; }
+        @Override public BigDecimal getPrecioUnitario() { return null; }
+        @Override public BigDecimal getTotalLinea() { return null; }
+        @Override public BigDecimal getCostoUnitario() { return null; }
+    }
+}
@@ -0,0 +1,96 @@
+package SCRUM3.Bj_Byte.service.pdf;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.Image;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.pdf.PdfWriter;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+
+import static SCRUM3.Bj_Byte.service.pdf.PdfTestUtils.imagenes;
+import static SCRUM3.Bj_Byte.service.pdf.PdfTestUtils.texto;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Los gráficos se dibujan como trazos y texto (sin imágenes): las etiquetas se
+ * pueden extraer del PDF y el archivo pesa menos que con la imagen de mapa de bits.
+ */
+class GraficoPdfTest {
+
+    @Test
+    void barrasYLineaSinImagenes() throws Exception {
+        byte[] pdf = documento(writer -> {
+            GraficoPdf barras = new GraficoPdf(GraficoPdf.Tipo.BARRAS, 200, 150)
+                    .valores(EstilosPdf::moneda)
+                    .punto("Ana", new BigDecimal("150000"))
+                    .punto("Un nombre de empleado demasiado largo para su barra", new BigDecimal("90000"));
+            GraficoPdf linea = new GraficoPdf(GraficoPdf.Tipo.LINEA, 500, 300)
+                    .titulo("Ventas por Día de la Semana")
+                    .ejes("Día", "Total Ventas")
+                    .punto("lun", new BigDecimal("1000"))
+                    .punto("mar", BigDecimal.ZERO)
+                    .punto("mié", new BigDecimal("2500"));
+            return new Image[]{barras.comoImagen(writer), linea.comoImagen(writer)};
+        });
+
+        assertThat(texto(pdf)).contains("Ana", EstilosPdf.moneda(new BigDecimal("150000")), "...",
+                "Ventas por Día de la Semana", "Total Ventas", "mié", "3,000");
+        assertThat(imagenes(pdf)).isZero();
+    }
+
+    @Test
+    void pesaMenosQueLaImagenRasterizada() throws Exception {
+        byte[] vectorial = documento(writer -> new Image[]{new GraficoPdf(GraficoPdf.Tipo.BARRAS, 500, 200)
+                .valores(EstilosPdf::moneda)
+                .punto("Ana", new BigDecimal("150000"))
+                .punto("Luis", new BigDecimal("90000"))
+                .comoImagen(writer)});
+
+        // Como lo hacía el reporte financiero: BufferedImage pintada con awt
+        byte[] raster = documento(writer -> {
+            BufferedImage img = new BufferedImage(500, 200, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = img.createGraphics();
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, 500, 200);
+            g.setColor(EstilosPdf.GRIS_OSCURO);
+            g.fillRect(60, 60, 40, 100);
+            g.fillRect(140, 100, 40, 60);
+            g.drawString("Ana", 65, 175);
+            g.dispose();
+            return new Image[]{Image.getInstance(img, null)};
+        });
+
+        assertThat(imagenes(raster)).isEqualTo(1);
+        assertThat(vectorial.length).isLessThan(raster.length);
+    }
+
+    @Test
+    void escalaConPasosRedondos() {
+        assertThat(GraficoPdf.pasoEscala(0)).isEqualTo(1);
+        assertThat(GraficoPdf.pasoEscala(625)).isEqualTo(1000);
+        assertThat(GraficoPdf.pasoEscala(37500)).isEqualTo(50000);
+        assertThat(GraficoPdf.pasoEscala(12)).isEqualTo(20);
+    }
+
+    @FunctionalInterface
+    private interface Contenido {
+        Image[] crear(PdfWriter writer) throws Exception;
+    }
+
+    private static byte[] documento(Contenido contenido) throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        Document doc = new Document(PageSize.A4);
+        PdfWriter writer = PdfWriter.getInstance(doc, salida);
+        doc.open();
+        for (Image imagen : contenido.crear(writer)) {
+            doc.add(imagen);
+        }
+        doc.close();
+        return salida.toByteArray();
+    }
+}
@@ -0,0 +1,74 @@
+package SCRUM3.Bj_Byte.service.pdf;
+
+import com.lowagie.text.pdf.PdfDictionary;
+import com.lowagie.text.pdf.PdfName;
+import com.lowagie.text.pdf.PdfObject;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+
+import java.io.IOException;
+
+/**
+ * Lectura de los PDF generados en las pruebas: texto de todas las páginas e
+ * imágenes que se dibujan.
+ */
+public final class PdfTestUtils {
+
+    private PdfTestUtils() {
+    }
+
+    /**
+     * Texto de todas las páginas, con cada tramo de espacios y saltos de línea
+     * reducido a un espacio.
+     */
+    public static String texto(byte[] pdf) throws IOException {
+        PdfReader reader = new PdfReader(pdf);
+        try {
+            PdfTextExtractor extractor = new PdfTextExtractor(reader);
+            StringBuilder sb = new StringBuilder();
+            for (int i = 1; i <= reader.getNumberOfPages(); i++) {
+                sb.append(extractor.getTextFromPage(i)).append('\n');
+            }
+            return sb.toString().replaceAll("\\s+", " ");
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Imágenes (XObject /Image) en los recursos de las páginas, incluidas las que
+     * están dentro de plantillas (XObject /Form).
+     */
+    public static int imagenes(byte[] pdf) throws IOException {
+        PdfReader reader = new PdfReader(pdf);
+        try {
+            int total = 0;
+            for (int i = 1; i <= reader.getNumberOfPages(); i++) {
+                total += imagenes(reader.getPageN(i).getAsDict(PdfName.RESOURCES));
+            }
+            return total;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static int imagenes(PdfDictionary recursos) {
+        PdfDictionary xobjetos = recursos != null ? recursos.getAsDict(PdfName.XOBJECT) : null;
+        if (xobjetos == null) {
+            return 0;
+        }
+        int total = 0;
+        for (Object nombre : xobjetos.getKeys()) {
+            PdfObject objeto = PdfReader.getPdfObject(xobjetos.get((PdfName) nombre));
+            if (!(objeto instanceof PdfDictionary d)) {
+                continue;
+            }
+            if (PdfName.IMAGE.equals(d.getAsName(PdfName.SUBTYPE))) {
+                total++;
+            } else if (PdfName.FORM.equals(d.getAsName(PdfName.SUBTYPE))) {
+                total += imagenes(d.getAsDict(PdfName.RESOURCES));
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,105 @@
+package SCRUM3.Bj_Byte.service.pdf;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Rectangle;
+import com.lowagie.text.pdf.PdfPCell;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.PdfWriter;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * La tabla compartida copia el estilo en cada celda sin alterar sus plantillas
+ * y repite el encabezado en cada página.
+ */
+class TablaPdfTest {
+
+    private static final int FILAS = 300;
+
+    @Test
+    void encabezadoYFilasConFormatoDeMoneda() throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        Document doc = new Document(PageSize.A4);
+        PdfWriter.getInstance(doc, salida);
+        doc.open();
+        doc.add(new TablaPdf(EstiloTabla.OSCURO, 2)
+                .encabezado("CONCEPTO", "VALOR")
+                .fila("Ingresos", EstilosPdf.moneda(new BigDecimal("1234567.005")))
+                .fila("Sin dato", EstilosPdf.moneda(null))
+                .getTabla());
+        doc.close();
+
+        String texto = new PdfTextExtractor(new PdfReader(salida.toByteArray())).getTextFromPage(1);
+        assertThat(texto).contains("CONCEPTO", "Ingresos", EstilosPdf.moneda(new BigDecimal("1234567.01")), "Sin dato");
+        assertThat(EstilosPdf.moneda(new BigDecimal("1234567.005")))
+                .isEqualTo("$ " + String.format("%,.2f", new BigDecimal("1234567.005")));
+    }
+
+    @Test
+    void celdasConElEstiloDeEncabezadoYCuerpo() {
+        EstiloTabla estilo = EstiloTabla.OSCURO_COMPACTO;
+        TablaPdf tabla = new TablaPdf(estilo, 3)
+                .encabezado("ID", "EMPLEADO", "TOTAL")
+                .fila("1", "Ana", "$ 10")
+                .fila("2", null, "$ 20");
+        PdfPTable pdf = tabla.getTabla();
+
+        assertThat(pdf.getHeaderRows()).isEqualTo(1);
+        assertThat(pdf.getRows()).hasSize(3);
+
+        PdfPCell titulo = pdf.getRow(0).getCells()[1];
+        assertThat(titulo.getPhrase().getContent()).isEqualTo("EMPLEADO");
+        assertThat(titulo.getPhrase().getFont()).isSameAs(estilo.getFuenteEncabezado());
+        assertThat(titulo.getBackgroundColor()).isEqualTo(EstilosPdf.GRIS_OSCURO);
+
+        PdfPCell valor = pdf.getRow(2).getCells()[2];
+        assertThat(valor.getPhrase().getContent()).isEqualTo("$ 20");
+        assertThat(valor.getPhrase().getFont()).isSameAs(estilo.getFuenteCuerpo());
+        assertThat(valor.getBackgroundColor()).isNull();
+        assertThat(valor.getBorder()).isEqualTo(Rectangle.BOX);
+        assertThat(valor.getBorderColor()).isEqualTo(EstilosPdf.GRIS_BORDE);
+        assertThat(valor.getPaddingLeft()).isEqualTo(6f);
+        // Un valor null queda como celda vacía, sin desplazar las demás
+        assertThat(pdf.getRow(2).getCells()[1].getPhrase().getContent()).isEmpty();
+
+        // Las plantillas del estilo no guardan el texto de la última celda
+        assertThat(estilo.plantilla(false).getPhrase()).isNull();
+        assertThat(estilo.plantilla(true).getPhrase()).isNull();
+    }
+
+    @Test
+    void encabezadoSeRepiteEnCadaPagina() throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        Document doc = new Document(PageSize.A4);
+        PdfWriter.getInstance(doc, salida);
+        doc.open();
+        TablaPdf tabla = new TablaPdf(EstiloTabla.OSCURO_COMPACTO, 5)
+                .encabezado("ID", "EMPLEADO", "ARTÍCULOS", "TOTAL", "FECHA");
+        for (int i = 0; i < FILAS; i++) {
+            tabla.fila(String.valueOf(i), "Empleado " + (i % 7), String.valueOf(i % 5 + 1),
+                    "$ " + (i * 3), "2024-01-" + (i % 28 + 1));
+        }
+        assertThat(tabla.getTabla().getRows()).hasSize(FILAS + 1);
+        doc.add(tabla.getTabla());
+        doc.close();
+
+        PdfReader reader = new PdfReader(salida.toByteArray());
+        PdfTextExtractor extractor = new PdfTextExtractor(reader);
+        StringBuilder todo = new StringBuilder();
+        assertThat(reader.getNumberOfPages()).isGreaterThan(1);
+        for (int pagina = 1; pagina <= reader.getNumberOfPages(); pagina++) {
+            String texto = extractor.getTextFromPage(pagina);
+            assertThat(texto).as("página %d", pagina).contains("EMPLEADO", "FECHA");
+            todo.append(texto).append('\n');
+        }
+        assertThat(todo.toString()).contains("Empleado 6", "$ " + ((FILAS - 1) * 3));
+        reader.close();
+    }
+}